@@ -1,6 +1,5 @@
 import java.awt.Color;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
 
 /**
@@ -25,55 +24,98 @@ public class ColorToBlockConverter {
      * @return Liste des blocs les plus proches, triés par proximité de couleur
      */
     public List<Block> findClosestBlocks(Color targetColor, boolean useTopTexture, int maxResults) {
-        if (targetColor == null) {
+        if (targetColor == null || maxResults <= 0) {
             return new ArrayList<>();
         }
         
-        List<Block> allBlocks = textureManager.getAllBlocks();
-        List<BlockDistancePair> distancePairs = new ArrayList<>();
+        // Tas max borné aux maxResults meilleurs candidats : la racine est le pire
+        // des candidats retenus (plus grande distance, puis plus grand indice)
+        int[] heapIndices = new int[maxResults];
+        int[] heapDistances = new int[maxResults];
+        int heapSize = 0;
         
-        for (Block block : allBlocks) {
+        int blockCount = textureManager.getBlockCount();
+        for (int i = 0; i < blockCount; i++) {
+            Block block = textureManager.getBlock(i);
             Color blockColor = useTopTexture ? block.getAverageTopColor() : block.getAverageSideColor();
             
             // Si la texture n'existe pas, passer au bloc suivant
             if (blockColor == null) continue;
             
-            double distance = ColorUtils.colorDistance(targetColor, blockColor);
-            distancePairs.add(new BlockDistancePair(block, distance));
+            // Distance au carré : même ordre que ColorUtils.colorDistance, sans racine
+            int redDiff = targetColor.getRed() - blockColor.getRed();
+            int greenDiff = targetColor.getGreen() - blockColor.getGreen();
+            int blueDiff = targetColor.getBlue() - blockColor.getBlue();
+            int distance = redDiff * redDiff + greenDiff * greenDiff + blueDiff * blueDiff;
+            
+            if (heapSize < maxResults) {
+                heapIndices[heapSize] = i;
+                heapDistances[heapSize] = distance;
+                siftUp(heapIndices, heapDistances, heapSize++);
+            } else if (distance < heapDistances[0]) {
+                // À distance égale, le bloc déjà retenu (indice plus petit) est conservé
+                heapIndices[0] = i;
+                heapDistances[0] = distance;
+                siftDown(heapIndices, heapDistances, heapSize);
+            }
         }
         
-        // Trier par distance croissante
-        distancePairs.sort(Comparator.comparingDouble(BlockDistancePair::getDistance));
-        
-        // Prendre les maxResults premiers éléments
-        List<Block> result = new ArrayList<>();
-        int count = Math.min(distancePairs.size(), maxResults);
-        
-        for (int i = 0; i < count; i++) {
-            result.add(distancePairs.get(i).getBlock());
+        // Vider le tas du plus éloigné au plus proche pour obtenir l'ordre croissant
+        Block[] sorted = new Block[heapSize];
+        for (int end = heapSize - 1; end >= 0; end--) {
+            sorted[end] = textureManager.getBlock(heapIndices[0]);
+            heapIndices[0] = heapIndices[end];
+            heapDistances[0] = heapDistances[end];
+            siftDown(heapIndices, heapDistances, end);
         }
         
+        List<Block> result = new ArrayList<>(heapSize);
+        for (Block block : sorted) {
+            result.add(block);
+        }
         return result;
     }
     
-    /**
-     * Classe interne pour associer un bloc et sa distance de couleur.
-     */
-    private static class BlockDistancePair {
-        private final Block block;
-        private final double distance;
-        
-        public BlockDistancePair(Block block, double distance) {
-            this.block = block;
-            this.distance = distance;
-        }
-        
-        public Block getBlock() {
-            return block;
+    private static void siftUp(int[] indices, int[] distances, int i) {
+        while (i > 0) {
+            int parent = (i - 1) / 2;
+            if (!isFarther(indices, distances, i, parent)) {
+                return;
+            }
+            swap(indices, distances, i, parent);
+            i = parent;
         }
-        
-        public double getDistance() {
-            return distance;
+    }
+    
+    private static void siftDown(int[] indices, int[] distances, int size) {
+        int i = 0;
+        while (true) {
+            int largest = i;
+            int left = 2 * i + 1;
+            int right = left + 1;
+            if (left < size && isFarther(indices, distances, left, largest)) {
+                largest = left;
+            }
+            if (right < size && isFarther(indices, distances, right, largest)) {
+                largest = right;
+            }
+            if (largest == i) {
+                return;
+            }
+            swap(indices, distances, i, largest);
+            i = largest;
         }
     }
-}
\ No newline at end of file
+    
+    /**
+     * Indique si le candidat a est moins bon que le candidat b.
+     */
+    private static boolean isFarther(int[] indices, int[] distances, int a, int b) {
+        return distances[a] > distances[b] || (distances[a] == distances[b] && indices[a] > indices[b]);
+    }
+    
+    private static void swap(int[] indices, int[] distances, int a, int b) {
+        int index = indices[a]; indices[a] = indices[b]; indices[b] = index;
+        int distance = distances[a]; distances[a] = distances[b]; distances[b] = distance;
+    }
+}
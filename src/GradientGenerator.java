@@ -46,17 +46,24 @@ public class GradientGenerator {
         List<Color> gradientColors = ColorUtils.generateGradient(startColor, endColor, steps);
         List<Block> gradientBlocks = new ArrayList<>();
 
-        // Trouver les blocs correspondants pour chaque couleur
-        for (int i = 0; i < gradientColors.size(); i++) {
-            Color color = gradientColors.get(i);
+        // Trouver en un seul appel les blocs des couleurs intermédiaires
+        int last = gradientColors.size() - 1;
+        int[] interior = new int[Math.max(0, last - 1)];
+        for (int i = 1; i < last; i++) {
+            interior[i - 1] = gradientColors.get(i).getRGB();
+        }
+        int[] interiorIndices = textureManager.findClosestBlockIndices(interior, useTopTexture, 0);
+
+        for (int i = 0; i <= last; i++) {
             Block block;
 
             if (i == 0) {
                 block = startBlock;
-            } else if (i == gradientColors.size() - 1) {
+            } else if (i == last) {
                 block = endBlock;
             } else {
-                block = textureManager.findClosestColorBlock(color, useTopTexture);
+                int index = interiorIndices[i - 1];
+                block = index < 0 ? null : textureManager.getBlock(index);
             }
 
             gradientBlocks.add(block);
@@ -78,22 +85,19 @@ public class GradientGenerator {
             return null;
         }
 
-        int width = blocks.size() * blockSize;
-        int height = blockSize;
-
-        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
-        var g = image.createGraphics();
+        TextureBlitter blitter = new TextureBlitter(blockSize);
+        BufferedImage image = blitter.createImage(blocks.size(), 1);
+        int[] destination = TextureBlitter.getPixels(image);
 
         for (int i = 0; i < blocks.size(); i++) {
             Block block = blocks.get(i);
             BufferedImage texture = useTopTexture ? block.getTopTexture() : block.getSideTexture();
 
             if (texture != null) {
-                g.drawImage(texture, i * blockSize, 0, blockSize, blockSize, null);
+                blitter.blit(texture, destination, image.getWidth(), i, 0);
             }
         }
 
-        g.dispose();
         return image;
     }
 }
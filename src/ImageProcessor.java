@@ -104,28 +104,26 @@ public class ImageProcessor {
         int width = source.getWidth();
         int height = source.getHeight();
         
-        BufferedImage pixelArt = new BufferedImage(width * blockSize, height * blockSize, BufferedImage.TYPE_INT_ARGB);
-        Graphics2D g = pixelArt.createGraphics();
+        TextureBlitter blitter = new TextureBlitter(blockSize);
+        BufferedImage pixelArt = blitter.createImage(width, height);
+        int[] destination = TextureBlitter.getPixels(pixelArt);
+        
+        // Ignorer les pixels complètement transparents (opacité minimale de 1)
+        int[] pixels = source.getRGB(0, 0, width, height, null, 0, width);
+        int[] blockIndices = textureManager.findClosestBlockIndices(pixels, useTopTexture, 1);
         
         for (int y = 0; y < height; y++) {
             for (int x = 0; x < width; x++) {
-                Color pixelColor = getPixelColor(source, x, y);
-                
-                // Ignorer les pixels complètement transparents
-                if (pixelColor.getAlpha() == 0) continue;
+                int index = blockIndices[y * width + x];
+                if (index < 0) continue;
                 
-                Block closestBlock = textureManager.findClosestColorBlock(pixelColor, useTopTexture);
-                
-                if (closestBlock != null) {
-                    BufferedImage texture = closestBlock.getTexture(useTopTexture);
-                    if (texture != null) {
-                        g.drawImage(texture, x * blockSize, y * blockSize, blockSize, blockSize, null);
-                    }
+                BufferedImage texture = textureManager.getBlock(index).getTexture(useTopTexture);
+                if (texture != null) {
+                    blitter.blit(texture, destination, pixelArt.getWidth(), x, y);
                 }
             }
         }
         
-        g.dispose();
         return pixelArt;
     }
 }
\ No newline at end of file
@@ -8,6 +8,8 @@ import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.stream.Collectors;
+import skymc.model.noise.Noise;
+import skymc.model.noise.PerlinNoise;
 
 /**
  * Panneau pour la génération de motifs Perlin Noise avec des blocs Minecraft.
@@ -345,7 +347,7 @@ public class PerlinNoisePanel extends JPanel {
         Graphics2D g = image.createGraphics();
         
         // Générer un bruit de Perlin
-        PerlinNoise perlinNoise = new PerlinNoise(System.currentTimeMillis());
+        Noise perlinNoise = new PerlinNoise(System.currentTimeMillis());
         
         for (int y = 0; y < height; y++) {
             for (int x = 0; x < width; x++) {
@@ -361,10 +363,10 @@ public class PerlinNoisePanel extends JPanel {
                 // Multiplier par 9 pour correspondre à l'échelle de FAWE
                 scale = scale / 9.0;
                 
-                double value = perlinNoise.noise(nx * scale, ny * scale, 0);
+                double value = perlinNoise.sample(nx * scale, ny * scale, 0);
                 
                 // Normaliser entre 0 et 1
-                value = (value + 1) / 2;
+                value = Noise.toUnit(value);
                 
                 // Mapper cette valeur à un indice dans notre liste de blocs
                 // Utiliser une approche qui garantit que les valeurs extrêmes (0 et 1) 
@@ -395,124 +397,6 @@ public class PerlinNoisePanel extends JPanel {
         return image;
     }
     
-    /**
-     * Classe pour générer du bruit de Perlin.
-     * Implémentation adaptée de l'algorithme classique de Perlin Noise.
-     */
-    private static class PerlinNoise {
-        private final int[] permutation = new int[512];
-        private final Random random;
-        
-        public PerlinNoise(long seed) {
-            random = new Random(seed);
-            
-            // Initialiser le tableau de permutation
-            for (int i = 0; i < 256; i++) {
-                permutation[i] = i;
-            }
-            
-            // Mélanger le tableau
-            for (int i = 0; i < 256; i++) {
-                int j = random.nextInt(256);
-                int temp = permutation[i];
-                permutation[i] = permutation[j];
-                permutation[j] = temp;
-            }
-            
-            // Dupliquer pour éviter les calculs modulo
-            for (int i = 0; i < 256; i++) {
-                permutation[i + 256] = permutation[i];
-            }
-        }
-        
-        /**
-         * Génère une valeur de bruit de Perlin pour les coordonnées données.
-         */
-        public double noise(double x, double y, double z) {
-            // Trouver les coordonnées de la cellule
-            int X = (int) Math.floor(x) & 255;
-            int Y = (int) Math.floor(y) & 255;
-            int Z = (int) Math.floor(z) & 255;
-            
-            // Coordonnées relatives dans la cellule (0 à 1)
-            x -= Math.floor(x);
-            y -= Math.floor(y);
-            z -= Math.floor(z);
-            
-            // Calcul des courbes de fondu
-            double u = fade(x);
-            double v = fade(y);
-            double w = fade(z);
-            
-            // Calcul des hachages pour les 8 coins du cube
-            int A = permutation[X] + Y;
-            int AA = permutation[A] + Z;
-            int AB = permutation[A + 1] + Z;
-            int B = permutation[X + 1] + Y;
-            int BA = permutation[B] + Z;
-            int BB = permutation[B + 1] + Z;
-            
-            // Interpolation trilinéaire des 8 coins
-            double result = lerp(w,
-                lerp(v,
-                    lerp(u, 
-                        grad(permutation[AA], x, y, z),
-                        grad(permutation[BA], x - 1, y, z)
-                    ),
-                    lerp(u,
-                        grad(permutation[AB], x, y - 1, z),
-                        grad(permutation[BB], x - 1, y - 1, z)
-                    )
-                ),
-                lerp(v,
-                    lerp(u,
-                        grad(permutation[AA + 1], x, y, z - 1),
-                        grad(permutation[BA + 1], x - 1, y, z - 1)
-                    ),
-                    lerp(u,
-                        grad(permutation[AB + 1], x, y - 1, z - 1),
-                        grad(permutation[BB + 1], x - 1, y - 1, z - 1)
-                    )
-                )
-            );
-            
-            // Normaliser le résultat entre -1 et 1
-            return result;
-        }
-        
-        /**
-         * La fonction de fondu pour les coordonnées.
-         */
-        private double fade(double t) {
-            // Fonction de fondu t^3(t(6t-15)+10)
-            return t * t * t * (t * (t * 6 - 15) + 10);
-        }
-        
-        /**
-         * Interpolation linéaire.
-         */
-        private double lerp(double t, double a, double b) {
-            return a + t * (b - a);
-        }
-        
-        /**
-         * Calcule le produit scalaire entre le vecteur de gradient et le vecteur de position.
-         */
-        private double grad(int hash, double x, double y, double z) {
-            // Convertir les 4 bits inférieurs du hash en 12 vecteurs de gradient
-            int h = hash & 15;
-            
-            // Premier composant basé sur le bit 0
-            double u = h < 8 ? x : y;
-            
-            // Second composant basé sur le bit 1
-            double v = h < 4 ? y : h == 12 || h == 14 ? x : z;
-            
-            // Résultat basé sur les bits 2 et 3
-            return ((h & 1) == 0 ? u : -u) + ((h & 2) == 0 ? v : -v);
-        }
-    }
-    
     /**
      * Libère les ressources.
      */
@@ -1,4 +1,3 @@
-import java.awt.Color;
 import java.awt.Graphics2D;
 import java.awt.image.BufferedImage;
 import java.io.File;
@@ -43,24 +42,24 @@ public class PixelArtConverter {
         // Créer la carte des blocs pour chaque pixel
         Block[][] blockMap = new Block[targetHeight][targetWidth];
         
+        // Ignorer les pixels transparents (opacité inférieure à 128)
+        int[] pixels = resizedImage.getRGB(0, 0, targetWidth, targetHeight, null, 0, targetWidth);
+        int[] blockIndices = textureManager.findClosestBlockIndices(pixels, useTopTexture, 128);
+        
         for (int y = 0; y < targetHeight; y++) {
             for (int x = 0; x < targetWidth; x++) {
-                Color pixelColor = new Color(resizedImage.getRGB(x, y), true);
-                
-                // Ignorer les pixels transparents
-                if (pixelColor.getAlpha() < 128) {
-                    continue;
+                int index = blockIndices[y * targetWidth + x];
+                if (index >= 0) {
+                    blockMap[y][x] = textureManager.getBlock(index);
                 }
-                
-                Block closestBlock = textureManager.findClosestColorBlock(pixelColor, useTopTexture);
-                blockMap[y][x] = closestBlock;
             }
         }
         
         // Créer l'image finale du pixel art
         int blockSize = 16; // Taille standard des textures Minecraft
-        BufferedImage pixelArt = new BufferedImage(targetWidth * blockSize, targetHeight * blockSize, BufferedImage.TYPE_INT_ARGB);
-        Graphics2D g2 = pixelArt.createGraphics();
+        TextureBlitter blitter = new TextureBlitter(blockSize);
+        BufferedImage pixelArt = blitter.createImage(targetWidth, targetHeight);
+        int[] destination = TextureBlitter.getPixels(pixelArt);
         
         for (int y = 0; y < targetHeight; y++) {
             for (int x = 0; x < targetWidth; x++) {
@@ -70,13 +69,12 @@ public class PixelArtConverter {
                     BufferedImage texture = useTopTexture ? block.getTopTexture() : block.getSideTexture();
                     
                     if (texture != null) {
-                        g2.drawImage(texture, x * blockSize, y * blockSize, blockSize, blockSize, null);
+                        blitter.blit(texture, destination, pixelArt.getWidth(), x, y);
                     }
                 }
             }
         }
         
-        g2.dispose();
         return pixelArt;
     }
     
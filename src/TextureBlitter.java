@@ -0,0 +1,93 @@
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Copie directe des textures de blocs dans une image de rendu.
+ *
+ * Chaque texture est redimensionnée une seule fois à la taille d'un bloc et conservée
+ * sous forme de pixels ARGB contigus ({@code blockSize²} entiers). Le rendu d'une case
+ * se réduit ensuite à {@code blockSize} copies de lignes avec {@link System#arraycopy},
+ * au lieu d'un passage par le pipeline de mise à l'échelle de Java2D à chaque case.
+ *
+ * Les cases sont supposées ne jamais se chevaucher : une texture copiée remplace les
+ * pixels de la case, sans mélange avec ce qui s'y trouvait. Un blitter est prévu pour
+ * la durée d'un rendu ; il peut être partagé entre plusieurs threads.
+ */
+public class TextureBlitter {
+    private final int blockSize;
+    private final Map<BufferedImage, int[]> scaledTextures = new ConcurrentHashMap<>();
+
+    /**
+     * @param blockSize Taille en pixels d'un bloc dans le rendu
+     */
+    public TextureBlitter(int blockSize) {
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * @return Taille en pixels d'un bloc dans le rendu
+     */
+    public int getBlockSize() {
+        return blockSize;
+    }
+
+    /**
+     * Crée une image de rendu dont les pixels peuvent être écrits directement.
+     *
+     * @param widthInBlocks Largeur en blocs
+     * @param heightInBlocks Hauteur en blocs
+     * @return Une image TYPE_INT_ARGB entièrement transparente
+     */
+    public BufferedImage createImage(int widthInBlocks, int heightInBlocks) {
+        return new BufferedImage(widthInBlocks * blockSize, heightInBlocks * blockSize, BufferedImage.TYPE_INT_ARGB);
+    }
+
+    /**
+     * Obtient les pixels d'une image TYPE_INT_ARGB créée par {@link #createImage(int, int)}.
+     *
+     * @param image Image de rendu
+     * @return Le tableau de pixels partagé avec l'image
+     */
+    public static int[] getPixels(BufferedImage image) {
+        return ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+    }
+
+    /**
+     * Obtient les pixels d'une texture mise à l'échelle d'un bloc, en les calculant
+     * au premier appel. La mise à l'échelle passe par le même drawImage que l'ancien
+     * rendu case par case, le résultat est donc le même.
+     *
+     * @param texture Texture du bloc
+     * @return Les blockSize² pixels ARGB, ligne par ligne (à ne pas modifier)
+     */
+    public int[] getScaledPixels(BufferedImage texture) {
+        return scaledTextures.computeIfAbsent(texture, source -> {
+            BufferedImage scaled = new BufferedImage(blockSize, blockSize, BufferedImage.TYPE_INT_ARGB);
+            Graphics2D g = scaled.createGraphics();
+            g.drawImage(source, 0, 0, blockSize, blockSize, null);
+            g.dispose();
+            return getPixels(scaled);
+        });
+    }
+
+    /**
+     * Copie une texture dans la case (blockX, blockY) d'une image de rendu.
+     *
+     * @param texture Texture du bloc
+     * @param destination Pixels de l'image de rendu (voir {@link #getPixels(BufferedImage)})
+     * @param destinationWidth Largeur de l'image de rendu en pixels
+     * @param blockX Colonne de la case, en blocs
+     * @param blockY Ligne de la case, en blocs
+     */
+    public void blit(BufferedImage texture, int[] destination, int destinationWidth, int blockX, int blockY) {
+        int[] pixels = getScaledPixels(texture);
+        int offset = blockY * blockSize * destinationWidth + blockX * blockSize;
+        for (int row = 0; row < blockSize; row++) {
+            System.arraycopy(pixels, row * blockSize, destination, offset, blockSize);
+            offset += destinationWidth;
+        }
+    }
+}
@@ -4,6 +4,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.IntStream;
 
 /**
  * Gère le chargement et le stockage des textures de blocs Minecraft.
@@ -11,6 +12,8 @@ import java.util.Map;
 public class TextureManager {
     private static final String TOP_TEXTURE_DIR = "textures/top/";
     private static final String SIDE_TEXTURE_DIR = "textures/side/";
+    private static final int BATCH_CHUNK_SIZE = 16384;
+    private static final int MATCH_CACHE_SIZE = 4096;
 
     private final Map<String, Block> blockMap = new HashMap<>();
     private final List<Block> blocks = new ArrayList<>();
@@ -115,6 +118,23 @@ public class TextureManager {
         return blockMap.get(name);
     }
 
+    /**
+     * @return Nombre de blocs chargés
+     */
+    public int getBlockCount() {
+        return blocks.size();
+    }
+
+    /**
+     * Obtient un bloc par son indice dans la liste des blocs chargés.
+     *
+     * @param index Indice du bloc
+     * @return Le bloc correspondant
+     */
+    public Block getBlock(int index) {
+        return blocks.get(index);
+    }
+
     /**
      * Trouve le bloc qui correspond le mieux à une couleur donnée.
      *
@@ -127,23 +147,78 @@ public class TextureManager {
             return null;
         }
 
-        Block closestBlock = null;
-        double minDistance = Double.MAX_VALUE;
+        int index = findClosestIndex(targetColor.getRed(), targetColor.getGreen(), targetColor.getBlue(), useTopTexture);
+        return index < 0 ? null : blocks.get(index);
+    }
+
+    /**
+     * Trouve en un seul appel le bloc le plus proche de chaque pixel d'un tableau ARGB.
+     * Les couleurs répétées ne sont recherchées qu'une fois, et le tableau est découpé
+     * en morceaux traités en parallèle.
+     *
+     * @param argb Pixels au format ARGB (comme renvoyés par BufferedImage.getRGB)
+     * @param useTopTexture true pour utiliser la texture du dessus, false pour la texture latérale
+     * @param minAlpha Opacité minimale d'un pixel pour qu'il soit associé à un bloc
+     * @return Pour chaque pixel, l'indice du bloc (voir {@link #getBlock(int)}), ou -1 s'il est ignoré
+     */
+    public int[] findClosestBlockIndices(int[] argb, boolean useTopTexture, int minAlpha) {
+        int[] result = new int[argb.length];
+        int chunks = (argb.length + BATCH_CHUNK_SIZE - 1) / BATCH_CHUNK_SIZE;
+
+        IntStream.range(0, chunks).parallel().forEach(chunk -> {
+            int from = chunk * BATCH_CHUNK_SIZE;
+            int to = Math.min(from + BATCH_CHUNK_SIZE, argb.length);
+            int[] cacheKeys = new int[MATCH_CACHE_SIZE];
+            int[] cacheValues = new int[MATCH_CACHE_SIZE];
+
+            for (int i = from; i < to; i++) {
+                int pixel = argb[i];
+                if ((pixel >>> 24) < minAlpha) {
+                    result[i] = -1;
+                    continue;
+                }
+
+                // Cache à correspondance directe (le bit 24 distingue une entrée vide)
+                int key = (pixel & 0xFFFFFF) | 0x1000000;
+                int slot = ((key * 0x9E3779B1) >>> 20) & (MATCH_CACHE_SIZE - 1);
+                if (cacheKeys[slot] != key) {
+                    cacheKeys[slot] = key;
+                    cacheValues[slot] = findClosestIndex((pixel >> 16) & 0xFF, (pixel >> 8) & 0xFF, pixel & 0xFF, useTopTexture);
+                }
+                result[i] = cacheValues[slot];
+            }
+        });
+
+        return result;
+    }
+
+    /**
+     * Parcourt les blocs et renvoie l'indice de celui dont la couleur est la plus proche.
+     *
+     * @return L'indice du bloc, ou -1 si aucun bloc ne possède cette face
+     */
+    private int findClosestIndex(int red, int green, int blue, boolean useTopTexture) {
+        int closestIndex = -1;
+        int minDistance = Integer.MAX_VALUE;
 
-        for (Block block : blocks) {
+        for (int i = 0; i < blocks.size(); i++) {
+            Block block = blocks.get(i);
             java.awt.Color blockColor = useTopTexture ? block.getAverageTopColor() : block.getAverageSideColor();
 
             // Si la texture n'existe pas, passer au bloc suivant
             if (blockColor == null) continue;
 
-            double distance = ColorUtils.colorDistance(targetColor, blockColor);
+            int redDiff = red - blockColor.getRed();
+            int greenDiff = green - blockColor.getGreen();
+            int blueDiff = blue - blockColor.getBlue();
+            int distance = redDiff * redDiff + greenDiff * greenDiff + blueDiff * blueDiff;
 
             if (distance < minDistance) {
                 minDistance = distance;
-                closestBlock = block;
+                closestIndex = i;
             }
         }
 
-        return closestBlock;
+        return closestIndex;
     }
 }
@@ -7,14 +7,12 @@ import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import skymc.model.Block;
 import skymc.model.GradientGenerator;
+import skymc.model.TextureAtlas;
 import skymc.model.TextureManager;
+import skymc.util.ImageUtils;
 import skymc.view.BilinearGradientView;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.util.List;
-import javax.imageio.ImageIO;
-import java.awt.image.BufferedImage;
 import javafx.collections.FXCollections;
 
 public class BilinearGradientController {
@@ -97,17 +95,13 @@ public class BilinearGradientController {
         view.getLabelResultPane().getChildren().add(hoverInstructionLabel);
         view.setHoverInstructionLabel(hoverInstructionLabel);
 
+        TextureAtlas atlas = TextureManager.getInstance().getAtlas(TextureAtlas.DEFAULT_TILE_SIZE);
         for (int row = 0; row < gradient.length; row++) {
             for (int col = 0; col < gradient[row].length; col++) {
                 Block block = gradient[row][col];
                 try {
-                    BufferedImage texture = block.getTexture(view.isUseTopTextureSelected());
-                    if (texture != null) {
-                        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-                        ImageIO.write(texture, "png", outputStream);
-                        ByteArrayInputStream inputStream = new ByteArrayInputStream(outputStream.toByteArray());
-                        Image fxImage = new Image(inputStream, 48, 48, false, false);
-
+                    Image fxImage = ImageUtils.toFXImage(atlas, block, view.isUseTopTextureSelected());
+                    if (fxImage != null) {
                         ImageView imageView = new ImageView(fxImage);
                         imageView.setFitWidth(48);
                         imageView.setFitHeight(48);
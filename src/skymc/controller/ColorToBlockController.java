@@ -2,8 +2,12 @@ package skymc.controller;
 
 import javafx.application.Platform;
 import javafx.scene.paint.Color;
+import skymc.model.ColorMetric;
 import skymc.model.ColorToBlockConverter;
+import skymc.model.PaletteFilter;
+import skymc.model.TextureManager;
 import skymc.view.ColorToBlockView;
+import skymc.view.components.BlockListDialog;
 
 import java.util.concurrent.CompletableFuture;
 
@@ -38,6 +42,18 @@ public class ColorToBlockController {
         view.getUseTopTextureRadio().setOnAction(e -> model.setUseTopTexture(true));
         view.getUseSideTextureRadio().setOnAction(e -> model.setUseTopTexture(false));
         
+        // Update the distance metric when the selection changes
+        view.getColorMetricComboBox().valueProperty().addListener((obs, oldVal, newVal) ->
+            model.setColorMetric(newVal));
+        
+        // Restrict the search to the selected palette filter
+        view.getFilterComboBox().valueProperty().addListener((obs, oldVal, newVal) ->
+            model.setFilter(newVal));
+        
+        // Let the user pick the blocks of a custom filter
+        view.getCustomFilterButton().setOnAction(e ->
+            BlockListDialog.pickFilter(TextureManager.getInstance().getAllBlocks()).ifPresent(this::addFilter));
+        
         // Update max results when spinner changes
         view.getResultsAmountSpinner().valueProperty().addListener((obs, oldVal, newVal) -> 
             model.setMaxResults(newVal));
@@ -45,6 +61,16 @@ public class ColorToBlockController {
         // Initialize model with view defaults
         model.setUseTopTexture(view.isUseTopTexture());
         model.setMaxResults(view.getResultsAmountSpinner().getValue());
+        model.setColorMetric(view.getSelectedColorMetric());
+        model.setFilter(view.getSelectedFilter());
+    }
+    
+    /**
+     * Adds a user-picked filter to the choices and selects it.
+     */
+    private void addFilter(PaletteFilter filter) {
+        view.getFilterComboBox().getItems().add(filter);
+        view.getFilterComboBox().setValue(filter);
     }
     
     /**
@@ -68,15 +94,23 @@ public class ColorToBlockController {
         // Update max results from the spinner
         model.setMaxResults(view.getResultsAmountSpinner().getValue());
         
+        // Update the distance metric from the view
+        ColorMetric metric = view.getSelectedColorMetric();
+        model.setColorMetric(metric);
+        
         // Disable the button while processing
         view.getFindBlocksButton().setDisable(true);
         view.getFindBlocksButton().setText("Finding blocks...");
         
         // Run the block search asynchronously
         CompletableFuture.supplyAsync(() -> model.findClosestBlocks(awtColor))
-            .thenAccept(results -> Platform.runLater(() -> {
+            .whenComplete((results, error) -> Platform.runLater(() -> {
                 // Update the view with the results
-                view.displayBlockResults(results);
+                if (error != null) {
+                    System.err.println("Error finding blocks: " + error.getMessage());
+                } else {
+                    view.displayBlockResults(results, metric);
+                }
                 
                 // Re-enable the button
                 view.getFindBlocksButton().setDisable(false);
@@ -7,14 +7,12 @@ import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import skymc.model.Block;
 import skymc.model.GradientGenerator;
+import skymc.model.TextureAtlas;
 import skymc.model.TextureManager;
+import skymc.util.ImageUtils;
 import skymc.view.LinearGradientView;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.util.List;
-import javax.imageio.ImageIO;
-import java.awt.image.BufferedImage;
 
 public class LinearGradientController {
     private LinearGradientView view;
@@ -111,20 +109,15 @@ public class LinearGradientController {
         // Stocker la référence au label d'instruction pour les mises à jour
         view.setHoverInstructionLabel(hoverInstructionLabel);
         
-        // Nouvelle méthode d'affichage avec textures collées
+        // Nouvelle méthode d'affichage avec textures collées, copiées depuis l'atlas
+        TextureAtlas atlas = TextureManager.getInstance().getAtlas(TextureAtlas.DEFAULT_TILE_SIZE);
         for (int i = 0; i < gradient.size(); i++) {
             Block block = gradient.get(i);
             try {
                 // Récupérer la texture selon l'option sélectionnée
-                BufferedImage texture = block.getTexture(view.isUseTopTextureSelected());
+                Image fxImage = ImageUtils.toFXImage(atlas, block, view.isUseTopTextureSelected());
                 
-                if (texture != null) {
-                    // Convertir la texture en Image JavaFX
-                    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-                    ImageIO.write(texture, "png", outputStream);
-                    ByteArrayInputStream inputStream = new ByteArrayInputStream(outputStream.toByteArray());
-                    Image fxImage = new Image(inputStream, 48, 48, false, false);
-                    
+                if (fxImage != null) {
                     // Créer un ImageView pour afficher l'image
                     ImageView imageView = new ImageView(fxImage);
                     imageView.setFitWidth(48);
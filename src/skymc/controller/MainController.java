@@ -57,5 +57,10 @@ public class MainController {
         AboutView aboutView = new AboutView();
         view.addTab("About", aboutView.getRoot());
         System.out.println(Ansi.ansi().fgBrightBlue().a("Added About tab").reset());
+
+        // Rechargement automatique des textures modifiées
+        if (TextureManager.getInstance().startWatching()) {
+            System.out.println(Ansi.ansi().fgBrightBlue().a("Watching texture directories for changes").reset());
+        }
     }
 }
@@ -1,14 +1,30 @@
 package skymc.controller;
 
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
+import javafx.stage.Stage;
 import skymc.model.Block;
+import skymc.model.PaletteFilter;
 import skymc.model.PatternGenerator;
+import skymc.model.SchematicWriter;
+import skymc.model.TextureAtlas;
 import skymc.model.TextureManager;
+import skymc.model.VolumePatternGenerator;
+import skymc.util.FileUtils;
 import skymc.view.PatternView;
+import skymc.view.components.BlockListDialog;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
 
 public class PatternController {
     private PatternView view;
     private PatternGenerator model;
+    // true une fois qu'un motif a été affiché : sa graine est alors celle de getLastSeed()
+    private boolean patternShown;
 
     public PatternController(PatternView view, PatternGenerator model) {
         this.view = view;
@@ -19,6 +35,9 @@ public class PatternController {
 
     private void initializeListeners() {
         view.getGenerateButton().setOnAction(event -> generatePattern());
+        view.getExportSchematicButton().setOnAction(event -> exportSchematic());
+        view.getCustomFilterButton().setOnAction(event ->
+            BlockListDialog.pickFilter(TextureManager.getInstance().getAllBlocks()).ifPresent(this::addFilter));
     }
 
     private void initializeBlockComboBoxes() {
@@ -35,8 +54,106 @@ public class PatternController {
         PatternGenerator.PatternType patternType = view.getPatternTypeComboBox().getValue();
         PatternGenerator.CurveType curveType = view.getCurveTypeComboBox().getValue();
         boolean useTopTexture = view.isUseTopTextureSelected();
-    
-        Block[][] pattern = model.generatePattern(startBlock, endBlock, size, noiseLevel, patternType, curveType, useTopTexture);
-        view.displayPattern(pattern);
+
+        applySettings();
+
+        // Même graine et mêmes réglages : même motif. Un champ vide tire une nouvelle
+        // graine, affichée en indication pour pouvoir regénérer le motif
+        String seedText = view.getSeedField().getText().trim();
+        Block[][] pattern;
+        if (seedText.isEmpty()) {
+            pattern = model.generatePattern(startBlock, endBlock, size, noiseLevel, patternType, curveType, useTopTexture);
+            view.getSeedField().setPromptText(Long.toString(model.getLastSeed()));
+        } else {
+            pattern = model.generatePattern(startBlock, endBlock, size, noiseLevel, patternType, curveType, useTopTexture,
+                    parseSeed(seedText));
+        }
+        TextureAtlas atlas = TextureManager.getInstance().getAtlas(TextureAtlas.DEFAULT_TILE_SIZE);
+        view.displayPattern(pattern, atlas);
+        patternShown = true;
+        view.displayBands(model.getBlockBands(startBlock, endBlock, useTopTexture), atlas);
+    }
+
+    /**
+     * Génère le motif en volume et l'écrit en schematic, section par section, sans
+     * construire le volume en mémoire. L'export tourne en arrière-plan ; le bouton est
+     * désactivé pendant ce temps. Un champ de graine vide reprend la graine du dernier
+     * motif affiché, pour exporter en 3D le motif qu'on a sous les yeux ; sans motif
+     * affiché, une nouvelle graine est tirée et affichée en indication, comme en 2D.
+     */
+    private void exportSchematic() {
+        Block startBlock = view.getStartBlockComboBox().getValue();
+        Block endBlock = view.getEndBlockComboBox().getValue();
+        if (startBlock == null || endBlock == null) {
+            System.err.println("Export 3D: choose a start and an end block first");
+            return;
+        }
+
+        File chosen = FileUtils.chooseSaveFile((Stage) view.getScene().getWindow(), "Sponge schematic (*.schem)", "*.schem");
+        if (chosen == null) {
+            return;
+        }
+        File file = chosen.getName().toLowerCase().endsWith(".schem") ? chosen : new File(chosen.getPath() + ".schem");
+
+        int width = view.getVolumeWidthSpinner().getValue();
+        int height = view.getVolumeHeightSpinner().getValue();
+        int depth = view.getVolumeDepthSpinner().getValue();
+        double noiseLevel = view.getNoiseSlider().getValue();
+        PatternGenerator.PatternType patternType = view.getPatternTypeComboBox().getValue();
+        PatternGenerator.CurveType curveType = view.getCurveTypeComboBox().getValue();
+        boolean useTopTexture = view.isUseTopTextureSelected();
+        String seedText = view.getSeedField().getText().trim();
+        long seed;
+        if (!seedText.isEmpty()) {
+            seed = parseSeed(seedText);
+        } else if (patternShown) {
+            seed = model.getLastSeed();
+        } else {
+            seed = new SplittableRandom().nextLong();
+            view.getSeedField().setPromptText(Long.toString(seed));
+        }
+        applySettings();
+
+        view.getExportSchematicButton().setDisable(true);
+        view.getExportSchematicButton().setText("Exporting...");
+
+        CompletableFuture.runAsync(() -> {
+            long start = System.currentTimeMillis();
+            try (SchematicWriter writer = new SchematicWriter(file, width, height, depth)) {
+                new VolumePatternGenerator(model).generate(startBlock, endBlock, width, height, depth, noiseLevel,
+                        patternType, curveType, useTopTexture, seed, writer);
+            } catch (IOException | UncheckedIOException ex) {
+                System.err.println("Erreur lors de l'export 3D: " + ex.getMessage());
+                ex.printStackTrace();
+                return;
+            }
+            System.out.println("Exported " + width + "x" + height + "x" + depth
+                    + " blocks to " + file.getName() + " in " + (System.currentTimeMillis() - start) + " ms");
+        }).whenComplete((result, error) -> Platform.runLater(() -> {
+            view.getExportSchematicButton().setDisable(false);
+            view.getExportSchematicButton().setText("Export 3D (.schem)");
+        }));
+    }
+
+    // Réglages communs au motif 2D et à l'export 3D
+    private void applySettings() {
+        model.setSiteCount(view.getSiteCountSpinner().getValue());
+        model.setDistanceMode(view.getDistanceModeComboBox().getValue());
+        model.setFilter(view.getSelectedFilter());
+    }
+
+    // Ajoute une liste choisie par l'utilisateur aux filtres proposés et la sélectionne
+    private void addFilter(PaletteFilter filter) {
+        view.getFilterComboBox().getItems().add(filter);
+        view.getFilterComboBox().setValue(filter);
+    }
+
+    // Comme pour les graines de monde de Minecraft, un texte non numérique est haché
+    private static long parseSeed(String text) {
+        try {
+            return Long.parseLong(text);
+        } catch (NumberFormatException e) {
+            return text.hashCode();
+        }
     }
 }
@@ -1,15 +1,21 @@
 package skymc.controller;
 
+import javafx.application.Platform;
 import javafx.scene.image.Image;
 import javafx.stage.FileChooser;
 import javafx.stage.Stage;
+import skymc.model.BlockMap;
+import skymc.model.PaletteFilter;
 import skymc.model.PixelArtConverter;
+import skymc.model.TextureManager;
 import skymc.util.FileUtils;
 import skymc.view.PixelArtView;
+import skymc.view.components.BlockListDialog;
 
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
 import javax.imageio.ImageIO;
 
 /**
@@ -22,6 +28,10 @@ public class PixelArtController {
     private Stage stage;
     private File lastLoadedFile;
     private BufferedImage lastConvertedImage;
+    
+    // Grille du dernier rendu, pour l'export en taille réelle quand l'aperçu est réduit
+    private BlockMap lastBlockMap;
+    private boolean lastPreviewReduced;
 
     public PixelArtController(PixelArtView view, PixelArtConverter model, Stage stage) {
         this.view = view;
@@ -60,6 +70,10 @@ public class PixelArtController {
         // Configuration du bouton de sauvegarde
         view.getSaveButton().setOnAction(e -> saveImage());
         
+        // Liste de blocs choisie par l'utilisateur
+        view.getCustomFilterButton().setOnAction(e ->
+            BlockListDialog.pickFilter(TextureManager.getInstance().getAllBlocks()).ifPresent(this::addFilter));
+        
         // Configuration des boutons de zoom avec limites plus strictes
         view.getZoomInButton().setOnAction(e -> {
             // Limiter le zoom maximum à 5.0 (500%)
@@ -74,6 +88,14 @@ public class PixelArtController {
         });
     }
 
+    /**
+     * Ajoute une liste choisie par l'utilisateur aux filtres proposés et la sélectionne.
+     */
+    private void addFilter(PaletteFilter filter) {
+        view.getFilterComboBox().getItems().add(filter);
+        view.getFilterComboBox().setValue(filter);
+    }
+
     /**
      * Charge une image depuis le système de fichiers.
      */
@@ -136,9 +158,22 @@ public class PixelArtController {
                 
                 // Définir l'option de texture (dessus ou côté)
                 model.setUseTopTexture(view.isTopTextureSelected());
+                model.setUseLookupTable(view.isLookupTableSelected());
+                model.setColorMetric(view.getSelectedColorMetric());
+                model.setFilter(view.getSelectedFilter());
                 
-                // Convertir en pixel art
-                lastConvertedImage = model.convertToPixelArt(bufferedSource, widthInBlocks, heightInBlocks);
+                // Choisir les blocs une seule fois ; la grille sert ensuite au rendu et à l'export
+                lastBlockMap = model.createBlockMap(bufferedSource, widthInBlocks, heightInBlocks);
+                view.showBlockCounts(lastBlockMap.countBlocks());
+                
+                // Les rendus trop grands pour la mémoire ne sont affichés qu'en aperçu réduit
+                // et seront exportés en flux à la sauvegarde
+                lastPreviewReduced = model.exceedsPreviewSize(lastBlockMap);
+                if (lastPreviewReduced) {
+                    lastConvertedImage = model.renderPreview(lastBlockMap);
+                } else {
+                    lastConvertedImage = model.renderPixelArt(lastBlockMap);
+                }
                 
                 // Convertir en image JavaFX et afficher
                 Image pixelArt = FileUtils.toFXImage(lastConvertedImage);
@@ -186,6 +221,12 @@ public class PixelArtController {
                         file = new File(filePath);
                     }
                     
+                    // Un aperçu réduit est remplacé par un export en flux de l'image complète
+                    if (lastPreviewReduced) {
+                        exportFullSize(file);
+                        return;
+                    }
+                    
                     // Sauvegarder l'image
                     ImageIO.write(lastConvertedImage, "png", file);
                 } catch (IOException ex) {
@@ -196,6 +237,29 @@ public class PixelArtController {
         }
     }
     
+    /**
+     * Exporte le pixel art en taille réelle, bande par bande, sans le construire en mémoire.
+     * L'export tourne en arrière-plan ; le bouton de sauvegarde est désactivé pendant ce temps.
+     */
+    private void exportFullSize(File file) {
+        BlockMap blockMap = lastBlockMap;
+        
+        view.getSaveButton().setDisable(true);
+        view.getSaveButton().setText("Exporting...");
+        
+        CompletableFuture.runAsync(() -> {
+            try {
+                model.exportPixelArt(blockMap, file);
+            } catch (IOException ex) {
+                showErrorAlert("Erreur lors de l'export", ex.getMessage());
+                ex.printStackTrace();
+            }
+        }).whenComplete((result, error) -> Platform.runLater(() -> {
+            view.getSaveButton().setDisable(false);
+            view.getSaveButton().setText("Save the result");
+        }));
+    }
+    
     /**
      * Affiche une boîte de dialogue d'erreur.
      */
@@ -0,0 +1,60 @@
+package skymc.model;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Écriture des fichiers projetés en mémoire (atlas, palette précalculée).
+ *
+ * Un fichier projeté ne doit jamais être réécrit sur place : la projection d'un atlas ou
+ * d'une palette encore utilisé lirait les nouveaux octets, et Windows refuse d'ouvrir en
+ * écriture un fichier projeté. Le contenu est donc écrit dans un fichier temporaire du
+ * même répertoire, qui remplace ensuite la destination par un renommage atomique : les
+ * projections existantes gardent l'ancien fichier jusqu'à leur libération.
+ */
+final class AtomicFiles {
+    /**
+     * Contenu à écrire.
+     */
+    @FunctionalInterface
+    interface Content {
+        void writeTo(DataOutputStream out) throws IOException;
+    }
+
+    private AtomicFiles() {
+    }
+
+    /**
+     * Écrit un fichier par remplacement atomique. En cas d'échec, la destination est
+     * inchangée et le fichier temporaire supprimé.
+     *
+     * @param file Fichier de destination
+     * @param content Contenu à écrire
+     * @throws IOException Si l'écriture ou le remplacement échoue, par exemple parce que
+     *                     la destination est projetée en mémoire sous Windows
+     */
+    static void write(File file, Content content) throws IOException {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (!parent.exists()) {
+            parent.mkdirs();
+        }
+
+        // Nom unique, mais pas Files.createTempFile qui restreindrait les droits du fichier final
+        Path temp = new File(parent, file.getName() + "." + System.nanoTime() + ".tmp").toPath();
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    Files.newOutputStream(temp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)))) {
+                content.writeTo(out);
+            }
+            Files.move(temp, file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+}
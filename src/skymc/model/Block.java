@@ -2,24 +2,27 @@ package skymc.model;
 
 import java.awt.Color;
 import java.awt.image.BufferedImage;
-import java.io.File;
+import java.awt.image.DataBufferInt;
 import java.io.IOException;
-import javax.imageio.ImageIO;
 
 /**
  * Représente un bloc Minecraft avec ses textures et couleurs.
+ *
+ * Un bloc ne garde que ses couleurs moyennes et les chemins de ses textures : les
+ * images sont décodées à la demande par le {@link TextureCache} partagé.
  */
 public class Block {
     private String name;
-    private BufferedImage topTexture;
-    private BufferedImage sideTexture;
     private Color averageTopColor;
     private Color averageSideColor;
     private String topTexturePath;
     private String sideTexturePath;
+    private TextureStamp topTextureStamp = TextureStamp.NONE;
+    private TextureStamp sideTextureStamp = TextureStamp.NONE;
 
     /**
-     * Constructeur de bloc.
+     * Constructeur de bloc. Les textures sont décodées pour calculer leurs couleurs
+     * moyennes, puis confiées au cache de textures.
      * 
      * @param name Nom du bloc
      * @param topTexturePath Chemin de la texture du dessus (peut être null)
@@ -31,49 +34,65 @@ public class Block {
         this.topTexturePath = topTexturePath;
         this.sideTexturePath = sideTexturePath;
         
+        // Empreintes relevées avant le décodage : si un fichier change pendant la lecture,
+        // l'empreinte enregistrée avec la couleur moyenne ne lui correspondra plus
+        this.topTextureStamp = TextureStamp.of(topTexturePath);
+        this.sideTextureStamp = TextureStamp.of(sideTexturePath);
+
         if (topTexturePath != null) {
-            File topFile = new File(topTexturePath);
-            if (topFile.exists()) {
-                this.topTexture = ImageIO.read(topFile);
-                this.averageTopColor = this.calculateAverageColor(this.topTexture);
+            if (ResourcePack.getSourceFile(topTexturePath).exists()) {
+                BufferedImage topTexture = TextureCache.read(topTexturePath);
+                this.averageTopColor = this.calculateAverageColor(topTexture);
+                TextureCache.getInstance().put(topTexturePath, topTexture);
             }
         }
 
         if (sideTexturePath != null) {
-            File sideFile = new File(sideTexturePath);
-            if (sideFile.exists()) {
-                this.sideTexture = ImageIO.read(sideFile);
-                this.averageSideColor = this.calculateAverageColor(this.sideTexture);
+            if (ResourcePack.getSourceFile(sideTexturePath).exists()) {
+                BufferedImage sideTexture = TextureCache.read(sideTexturePath);
+                this.averageSideColor = this.calculateAverageColor(sideTexture);
+                TextureCache.getInstance().put(sideTexturePath, sideTexture);
             }
         }
     }
 
     /**
-     * Calcule la couleur moyenne d'une texture.
+     * Reconstruit un bloc à partir de couleurs moyennes déjà calculées (voir
+     * {@link PaletteCache}). Une couleur null indique que la face n'a pas de texture.
+     * Les empreintes sont celles des fichiers au moment où les couleurs ont été calculées.
+     */
+    Block(String name, String topTexturePath, String sideTexturePath,
+          Color averageTopColor, Color averageSideColor,
+          TextureStamp topTextureStamp, TextureStamp sideTextureStamp) {
+        this.name = name;
+        this.topTexturePath = topTexturePath;
+        this.sideTexturePath = sideTexturePath;
+        this.averageTopColor = averageTopColor;
+        this.averageSideColor = averageSideColor;
+        this.topTextureStamp = topTextureStamp;
+        this.sideTextureStamp = sideTextureStamp;
+    }
+
+    /**
+     * Calcule la couleur moyenne d'une texture en lisant directement ses pixels.
      * 
-     * @param image L'image à analyser
+     * @param image L'image à analyser (TYPE_INT_ARGB)
      * @return La couleur moyenne de l'image
      */
     private Color calculateAverageColor(BufferedImage image) {
         long sumRed = 0;
         long sumGreen = 0;
         long sumBlue = 0;
-        int width = image.getWidth();
-        int height = image.getHeight();
         int pixelCount = 0;
 
-        for (int y = 0; y < height; y++) {
-            for (int x = 0; x < width; x++) {
-                int rgb = image.getRGB(x, y);
-                Color color = new Color(rgb, true);
-                
-                // On ne prend en compte que les pixels non transparents
-                if (color.getAlpha() > 128) {
-                    sumRed += color.getRed();
-                    sumGreen += color.getGreen();
-                    sumBlue += color.getBlue();
-                    pixelCount++;
-                }
+        int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        for (int argb : pixels) {
+            // On ne prend en compte que les pixels non transparents
+            if ((argb >>> 24) > 128) {
+                sumRed += (argb >> 16) & 0xFF;
+                sumGreen += (argb >> 8) & 0xFF;
+                sumBlue += argb & 0xFF;
+                pixelCount++;
             }
         }
 
@@ -94,33 +113,65 @@ public class Block {
     }
 
     public BufferedImage getTopTexture() {
-        return this.topTexture;
+        return getTexture(true);
     }
 
     public BufferedImage getSideTexture() {
-        return this.sideTexture;
+        return getTexture(false);
     }
 
     public Color getAverageTopColor() {
-        return this.topTexture == null ? null : this.averageTopColor;
+        return this.averageTopColor;
     }
 
     public Color getAverageSideColor() {
-        return this.sideTexture == null ? null : this.averageSideColor;
+        return this.averageSideColor;
     }
 
     public Color getAverageColor(boolean useTopTexture) {
         return useTopTexture ? this.averageTopColor : this.averageSideColor;
     }
 
+    /**
+     * Obtient une texture du bloc, décodée si besoin par le cache de textures.
+     * 
+     * @param useTopTexture true pour la face du dessus, false pour la face latérale
+     * @return La texture, ou null si le bloc n'en a pas pour cette face ou si elle ne peut plus être lue
+     */
     public BufferedImage getTexture(boolean useTopTexture) {
-        return useTopTexture ? this.topTexture : this.sideTexture;
+        if (!hasTexture(useTopTexture)) {
+            return null;
+        }
+
+        String path = useTopTexture ? this.topTexturePath : this.sideTexturePath;
+        try {
+            return TextureCache.getInstance().get(path);
+        } catch (IOException e) {
+            System.err.println("Erreur lors du chargement de la texture " + path + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * @param useTopTexture true pour la face du dessus, false pour la face latérale
+     * @return true si le bloc a une texture pour cette face
+     */
+    public boolean hasTexture(boolean useTopTexture) {
+        return (useTopTexture ? this.averageTopColor : this.averageSideColor) != null;
     }
 
     public String getTopTexturePath() {
         return this.topTexturePath;
     }
 
+    /**
+     * @param useTopTexture true pour la face du dessus, false pour la face latérale
+     * @return Empreinte du fichier de la face au moment de son décodage
+     */
+    TextureStamp getTextureStamp(boolean useTopTexture) {
+        return useTopTexture ? topTextureStamp : sideTextureStamp;
+    }
+
     public String getSideTexturePath() {
         return this.sideTexturePath;
     }
@@ -0,0 +1,127 @@
+package skymc.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Grille des blocs choisis pour un pixel art : le vrai résultat d'une conversion.
+ *
+ * Chaque case contient un indice de palette sur 16 bits (-1 pour une case vide), ce qui
+ * occupe 2 octets par bloc au lieu des 1024 octets d'une case de 16x16 pixels dans
+ * l'image rendue. Le rendu, la commande FAWE, les statistiques et l'export lisent
+ * tous cette grille, si bien que la recherche de couleur n'est faite qu'une fois par case.
+ */
+public class BlockMap {
+    private final Palette palette;
+    private final boolean useTopTexture;
+    private final int width;
+    private final int height;
+    private final short[] indices;
+
+    /**
+     * Construit la grille à partir des indices renvoyés par une recherche par lot
+     * (voir {@link TextureManager#findClosestBlockIndices(int[], boolean)}).
+     *
+     * @param palette Palette dans laquelle les indices ont été calculés
+     * @param useTopTexture true si les blocs ont été choisis d'après leur face du dessus
+     * @param width Largeur en blocs
+     * @param height Hauteur en blocs
+     * @param blockIndices Indices de palette ligne par ligne, -1 pour une case vide
+     */
+    public BlockMap(Palette palette, boolean useTopTexture, int width, int height, int[] blockIndices) {
+        if (blockIndices.length != width * height) {
+            throw new IllegalArgumentException("La grille attend " + (width * height)
+                    + " indices, " + blockIndices.length + " reçus");
+        }
+        if (palette.size() > Short.MAX_VALUE) {
+            throw new IllegalStateException("Trop de blocs pour une grille compacte : " + palette.size());
+        }
+
+        this.palette = palette;
+        this.useTopTexture = useTopTexture;
+        this.width = width;
+        this.height = height;
+        this.indices = new short[blockIndices.length];
+        for (int i = 0; i < blockIndices.length; i++) {
+            this.indices[i] = (short) blockIndices[i];
+        }
+    }
+
+    /**
+     * @return Largeur en blocs
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * @return Hauteur en blocs
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * @return true si les blocs ont été choisis d'après leur face du dessus, false pour la face latérale
+     */
+    public boolean isTopTexture() {
+        return useTopTexture;
+    }
+
+    /**
+     * @return La palette qui donne un sens aux indices
+     */
+    public Palette getPalette() {
+        return palette;
+    }
+
+    /**
+     * @param x Colonne
+     * @param y Ligne
+     * @return L'indice de palette de la case, ou -1 si elle est vide
+     */
+    public int getIndex(int x, int y) {
+        return indices[y * width + x];
+    }
+
+    /**
+     * @param x Colonne
+     * @param y Ligne
+     * @return Le bloc de la case, ou null si elle est vide
+     */
+    public Block getBlock(int x, int y) {
+        int index = indices[y * width + x];
+        return index < 0 ? null : palette.getBlock(index);
+    }
+
+    /**
+     * Compte les cases occupées par chaque bloc.
+     *
+     * @return Nombre de cases par bloc, du plus utilisé au moins utilisé
+     */
+    public Map<Block, Integer> countBlocks() {
+        int[] counts = new int[palette.size()];
+        for (short index : indices) {
+            if (index >= 0) {
+                counts[index]++;
+            }
+        }
+
+        List<Integer> used = new ArrayList<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                used.add(i);
+            }
+        }
+        used.sort((a, b) -> counts[b] != counts[a] ? Integer.compare(counts[b], counts[a]) : Integer.compare(a, b));
+
+        Map<Block, Integer> result = new LinkedHashMap<>();
+        for (int index : used) {
+            result.put(palette.getBlock(index), counts[index]);
+        }
+        return Collections.unmodifiableMap(result);
+    }
+}
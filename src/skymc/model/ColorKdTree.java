@@ -0,0 +1,213 @@
+package skymc.model;
+
+/**
+ * Arbre k-d sur des couleurs à trois composantes, utilisé pour retrouver
+ * rapidement les blocs dont la couleur moyenne est la plus proche d'une couleur cible.
+ *
+ * L'arbre est implicite : les points sont réordonnés de sorte que le milieu de
+ * chaque intervalle [lo, hi) soit le nœud de séparation de cet intervalle.
+ * À distance égale, le point de plus petit identifiant l'emporte, ce qui reproduit
+ * exactement le résultat d'un parcours linéaire de la palette.
+ */
+public class ColorKdTree {
+    private final float[] xs;
+    private final float[] ys;
+    private final float[] zs;
+    private final int[] ids;
+    private final int size;
+
+    /**
+     * Construit l'arbre à partir de tableaux de coordonnées parallèles.
+     * Les tableaux fournis ne sont pas modifiés.
+     *
+     * @param xs Première composante de chaque point
+     * @param ys Deuxième composante de chaque point
+     * @param zs Troisième composante de chaque point
+     * @param ids Identifiant associé à chaque point (indice dans la palette)
+     * @param count Nombre de points à utiliser
+     */
+    public ColorKdTree(float[] xs, float[] ys, float[] zs, int[] ids, int count) {
+        this.size = count;
+        this.xs = new float[count];
+        this.ys = new float[count];
+        this.zs = new float[count];
+        this.ids = new int[count];
+        System.arraycopy(xs, 0, this.xs, 0, count);
+        System.arraycopy(ys, 0, this.ys, 0, count);
+        System.arraycopy(zs, 0, this.zs, 0, count);
+        System.arraycopy(ids, 0, this.ids, 0, count);
+        build(0, count, 0);
+    }
+
+    /**
+     * @return Nombre de points indexés
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Trouve le point le plus proche des coordonnées données.
+     *
+     * @return L'identifiant du point le plus proche, ou -1 si l'arbre est vide
+     */
+    public int nearest(float x, float y, float z) {
+        if (size == 0) {
+            return -1;
+        }
+        NearestSearch search = new NearestSearch(x, y, z);
+        nearest(search, 0, size, 0);
+        return search.bestId;
+    }
+
+    /**
+     * Trouve les k points les plus proches des coordonnées données.
+     * Les résultats sont écrits du plus proche au plus éloigné.
+     *
+     * @param outIds Tableau recevant les identifiants (sa taille fixe k)
+     * @param outDistances Tableau recevant les distances au carré (même taille que outIds)
+     * @return Le nombre de résultats écrits
+     */
+    public int nearest(float x, float y, float z, int[] outIds, float[] outDistances) {
+        int k = Math.min(outIds.length, size);
+        if (k == 0) {
+            return 0;
+        }
+        NeighborHeap heap = new NeighborHeap(k);
+        nearest(heap, x, y, z, 0, size, 0);
+        return heap.drainSorted(outIds, outDistances);
+    }
+
+    private void nearest(NearestSearch search, int lo, int hi, int depth) {
+        if (lo >= hi) {
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        float dist = distance(mid, search.x, search.y, search.z);
+        if (dist < search.bestDistance || (dist == search.bestDistance && ids[mid] < search.bestId)) {
+            search.bestDistance = dist;
+            search.bestId = ids[mid];
+        }
+
+        float diff = axisValue(search.x, search.y, search.z, depth) - coordinate(mid, depth);
+        int next = depth + 1;
+        if (diff < 0) {
+            nearest(search, lo, mid, next);
+            if (diff * diff <= search.bestDistance) {
+                nearest(search, mid + 1, hi, next);
+            }
+        } else {
+            nearest(search, mid + 1, hi, next);
+            if (diff * diff <= search.bestDistance) {
+                nearest(search, lo, mid, next);
+            }
+        }
+    }
+
+    private void nearest(NeighborHeap heap, float x, float y, float z, int lo, int hi, int depth) {
+        if (lo >= hi) {
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        heap.offer(distance(mid, x, y, z), ids[mid]);
+
+        float diff = axisValue(x, y, z, depth) - coordinate(mid, depth);
+        int next = depth + 1;
+        if (diff < 0) {
+            nearest(heap, x, y, z, lo, mid, next);
+            if (heap.accepts(diff * diff)) {
+                nearest(heap, x, y, z, mid + 1, hi, next);
+            }
+        } else {
+            nearest(heap, x, y, z, mid + 1, hi, next);
+            if (heap.accepts(diff * diff)) {
+                nearest(heap, x, y, z, lo, mid, next);
+            }
+        }
+    }
+
+    private float distance(int i, float x, float y, float z) {
+        float dx = xs[i] - x;
+        float dy = ys[i] - y;
+        float dz = zs[i] - z;
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    private float coordinate(int i, int depth) {
+        switch (depth % 3) {
+            case 0: return xs[i];
+            case 1: return ys[i];
+            default: return zs[i];
+        }
+    }
+
+    private static float axisValue(float x, float y, float z, int depth) {
+        switch (depth % 3) {
+            case 0: return x;
+            case 1: return y;
+            default: return z;
+        }
+    }
+
+    /**
+     * Construit récursivement l'arbre en plaçant la médiane de l'axe courant
+     * au milieu de l'intervalle.
+     */
+    private void build(int lo, int hi, int depth) {
+        if (hi - lo <= 1) {
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        select(lo, hi - 1, mid, depth);
+        build(lo, mid, depth + 1);
+        build(mid + 1, hi, depth + 1);
+    }
+
+    /**
+     * Sélection rapide (quickselect) : place en position k l'élément qui y serait
+     * après un tri sur l'axe courant.
+     */
+    private void select(int left, int right, int k, int depth) {
+        while (left < right) {
+            int pivotIndex = (left + right) >>> 1;
+            float pivot = coordinate(pivotIndex, depth);
+            swap(pivotIndex, right);
+            int store = left;
+            for (int i = left; i < right; i++) {
+                if (coordinate(i, depth) < pivot) {
+                    swap(i, store++);
+                }
+            }
+            swap(store, right);
+            if (store == k) {
+                return;
+            } else if (store < k) {
+                left = store + 1;
+            } else {
+                right = store - 1;
+            }
+        }
+    }
+
+    private void swap(int a, int b) {
+        float tx = xs[a]; xs[a] = xs[b]; xs[b] = tx;
+        float ty = ys[a]; ys[a] = ys[b]; ys[b] = ty;
+        float tz = zs[a]; zs[a] = zs[b]; zs[b] = tz;
+        int tid = ids[a]; ids[a] = ids[b]; ids[b] = tid;
+    }
+
+    /**
+     * État d'une recherche du plus proche voisin.
+     */
+    private static final class NearestSearch {
+        final float x, y, z;
+        float bestDistance = Float.MAX_VALUE;
+        int bestId = -1;
+
+        NearestSearch(float x, float y, float z) {
+            this.x = x;
+            this.y = y;
+            this.z = z;
+        }
+    }
+}
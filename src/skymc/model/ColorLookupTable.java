@@ -0,0 +1,163 @@
+package skymc.model;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.stream.IntStream;
+
+/**
+ * Table de correspondance précalculée couleur RGB → indice de bloc.
+ *
+ * Le cube RGB est quantifié sur {@code bits} bits par canal (5 bits = 32³ cellules,
+ * 6 bits = 64³, 8 bits = les 16 millions de couleurs). Chaque cellule contient
+ * l'indice du bloc le plus proche du centre de la cellule, ce qui permet de
+ * remplacer une recherche dans la palette par une simple lecture de tableau.
+ */
+public class ColorLookupTable {
+    private static final int FILE_MAGIC = 0x534B4C55; // "SKLU"
+    private static final int FILE_VERSION = 1;
+
+    private final int bits;
+    private final int shift;
+    private final long fingerprint;
+    private final short[] entries;
+
+    private ColorLookupTable(int bits, long fingerprint, short[] entries) {
+        this.bits = bits;
+        this.shift = 8 - bits;
+        this.fingerprint = fingerprint;
+        this.entries = entries;
+    }
+
+    /**
+     * Construit la table en parallèle à partir des couleurs d'une face.
+     *
+     * @param space Couleurs de la palette dans l'espace de la mesure choisie
+     *              (identifiants = indices de blocs)
+     * @param bits Nombre de bits par canal (entre 1 et 8)
+     * @param fingerprint Empreinte de la palette ayant servi à la construction
+     * @return La table construite
+     */
+    public static ColorLookupTable build(Palette.Space space, int bits, long fingerprint) {
+        checkBits(bits);
+        int side = 1 << bits;
+        int shift = 8 - bits;
+        int half = (1 << shift) >> 1;
+        short[] entries = new short[side * side * side];
+        ColorMetric metric = space.getMetric();
+
+        // Une tranche de rouge par tâche : chaque tâche écrit une zone disjointe du tableau
+        IntStream.range(0, side).parallel().forEach(r -> {
+            float[] coordinates = new float[3];
+            int red = (r << shift) + half;
+            int offset = r * side * side;
+            for (int g = 0; g < side; g++) {
+                int green = (g << shift) + half;
+                for (int b = 0; b < side; b++) {
+                    int blue = (b << shift) + half;
+                    metric.toCoordinates((red << 16) | (green << 8) | blue, coordinates);
+                    entries[offset++] = (short) space.findClosest(coordinates[0], coordinates[1], coordinates[2]);
+                }
+            }
+        });
+
+        return new ColorLookupTable(bits, fingerprint, entries);
+    }
+
+    /**
+     * Charge une table depuis le disque si elle correspond à la palette courante.
+     *
+     * @param file Fichier de la table
+     * @param bits Nombre de bits par canal attendu
+     * @param fingerprint Empreinte attendue de la palette
+     * @return La table chargée, ou null si le fichier est absent ou périmé
+     * @throws IOException Si une erreur survient lors de la lecture
+     */
+    public static ColorLookupTable load(File file, int bits, long fingerprint) throws IOException {
+        if (!file.isFile()) {
+            return null;
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != FILE_MAGIC || in.readInt() != FILE_VERSION
+                    || in.readInt() != bits || in.readLong() != fingerprint) {
+                return null;
+            }
+
+            int length = in.readInt();
+            if (length != 1 << (3 * bits)) {
+                return null;
+            }
+
+            byte[] raw = new byte[length * Short.BYTES];
+            in.readFully(raw);
+            short[] entries = new short[length];
+            ByteBuffer.wrap(raw).asShortBuffer().get(entries);
+            return new ColorLookupTable(bits, fingerprint, entries);
+        }
+    }
+
+    /**
+     * Sauvegarde la table sur le disque.
+     *
+     * @param file Fichier de destination
+     * @throws IOException Si une erreur survient lors de l'écriture
+     */
+    public void save(File file) throws IOException {
+        File parent = file.getParentFile();
+        if (parent != null && !parent.exists()) {
+            parent.mkdirs();
+        }
+
+        byte[] raw = new byte[entries.length * Short.BYTES];
+        ByteBuffer.wrap(raw).asShortBuffer().put(entries);
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            out.writeInt(FILE_MAGIC);
+            out.writeInt(FILE_VERSION);
+            out.writeInt(bits);
+            out.writeLong(fingerprint);
+            out.writeInt(entries.length);
+            out.write(raw);
+        }
+    }
+
+    /**
+     * Obtient l'indice du bloc le plus proche d'une couleur.
+     *
+     * @param rgb Couleur au format 0xRRGGBB (l'alpha est ignoré)
+     * @return L'indice du bloc, ou -1 si la palette est vide
+     */
+    public int lookup(int rgb) {
+        int r = ((rgb >> 16) & 0xFF) >> shift;
+        int g = ((rgb >> 8) & 0xFF) >> shift;
+        int b = (rgb & 0xFF) >> shift;
+        return entries[(((r << bits) | g) << bits) | b];
+    }
+
+    /**
+     * @return Nombre de bits par canal
+     */
+    public int getBits() {
+        return bits;
+    }
+
+    /**
+     * @return Empreinte de la palette utilisée pour construire la table
+     */
+    public long getFingerprint() {
+        return fingerprint;
+    }
+
+    private static void checkBits(int bits) {
+        if (bits < 1 || bits > 8) {
+            throw new IllegalArgumentException("Le nombre de bits par canal doit être compris entre 1 et 8 : " + bits);
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package skymc.model;
+
+/**
+ * Mesure de distance entre deux couleurs, utilisée pour choisir le bloc le plus proche.
+ *
+ * Chaque mesure définit un espace de coordonnées (RGB, CIELAB, OKLab…) dans lequel les
+ * couleurs de la palette sont converties une seule fois, puis stockées en flottants
+ * (voir {@link Palette.Face#getSpace(ColorMetric)}). Seule la couleur cible est convertie
+ * au moment de la recherche. Les mesures euclidiennes dans leur espace profitent de
+ * l'arbre k-d et des noyaux vectoriels ; les autres passent par un parcours linéaire.
+ *
+ * Les distances renvoyées par {@link #distance} sont des distances au carré.
+ */
+public enum ColorMetric {
+    /**
+     * Distance euclidienne dans l'espace RGB (comportement historique).
+     */
+    RGB("RGB (Euclidean)", true) {
+        @Override
+        public void toCoordinates(int rgb, float[] out) {
+            out[0] = (rgb >> 16) & 0xFF;
+            out[1] = (rgb >> 8) & 0xFF;
+            out[2] = rgb & 0xFF;
+        }
+    },
+
+    /**
+     * RGB pondéré selon la moyenne des rouges (« redmean »), bon compromis peu coûteux.
+     */
+    REDMEAN("RGB weighted (redmean)", false) {
+        @Override
+        public void toCoordinates(int rgb, float[] out) {
+            RGB.toCoordinates(rgb, out);
+        }
+
+        @Override
+        public float distance(float r1, float g1, float b1, float r2, float g2, float b2) {
+            float redMean = (r1 + r2) * 0.5f;
+            float dr = r1 - r2;
+            float dg = g1 - g2;
+            float db = b1 - b2;
+            return (2f + redMean / 256f) * dr * dr + 4f * dg * dg + (2f + (255f - redMean) / 256f) * db * db;
+        }
+    },
+
+    /**
+     * Distance euclidienne dans CIELAB (ΔE 1976).
+     */
+    CIELAB76("CIELAB (ΔE76)", true) {
+        @Override
+        public void toCoordinates(int rgb, float[] out) {
+            toLab(rgb, out);
+        }
+    },
+
+    /**
+     * Distance euclidienne dans OKLab, plus uniforme que CIELAB sur les teintes.
+     * Les coordonnées sont multipliées par 100 pour rester comparables à CIELAB.
+     */
+    OKLAB("OKLab", true) {
+        @Override
+        public void toCoordinates(int rgb, float[] out) {
+            double r = SRGB_TO_LINEAR[(rgb >> 16) & 0xFF];
+            double g = SRGB_TO_LINEAR[(rgb >> 8) & 0xFF];
+            double b = SRGB_TO_LINEAR[rgb & 0xFF];
+
+            double l = Math.cbrt(0.4122214708 * r + 0.5363325363 * g + 0.0514459929 * b);
+            double m = Math.cbrt(0.2119034982 * r + 0.6806995451 * g + 0.1073969566 * b);
+            double s = Math.cbrt(0.0883024619 * r + 0.2817188376 * g + 0.6299787005 * b);
+
+            out[0] = (float) (100 * (0.2104542553 * l + 0.7936177850 * m - 0.0040720468 * s));
+            out[1] = (float) (100 * (1.9779984951 * l - 2.4285922050 * m + 0.4505937099 * s));
+            out[2] = (float) (100 * (0.0259040371 * l + 0.7827717662 * m - 0.8086757660 * s));
+        }
+    },
+
+    /**
+     * CIEDE2000, la mesure la plus fidèle à la perception mais la plus coûteuse.
+     */
+    CIEDE2000("CIEDE2000", false) {
+        @Override
+        public void toCoordinates(int rgb, float[] out) {
+            toLab(rgb, out);
+        }
+
+        @Override
+        public float distance(float l1, float a1, float b1, float l2, float a2, float b2) {
+            double deltaE = ciede2000(l1, a1, b1, l2, a2, b2);
+            return (float) (deltaE * deltaE);
+        }
+    };
+
+    // Conversion sRGB → linéaire précalculée pour les 256 valeurs d'un canal
+    private static final double[] SRGB_TO_LINEAR = new double[256];
+
+    static {
+        for (int i = 0; i < 256; i++) {
+            double c = i / 255.0;
+            SRGB_TO_LINEAR[i] = c <= 0.04045 ? c / 12.92 : Math.pow((c + 0.055) / 1.055, 2.4);
+        }
+    }
+
+    private final String displayName;
+    private final boolean euclidean;
+    private double referenceDistance = -1;
+
+    ColorMetric(String displayName, boolean euclidean) {
+        this.displayName = displayName;
+        this.euclidean = euclidean;
+    }
+
+    /**
+     * Convertit une couleur dans l'espace de coordonnées de la mesure.
+     *
+     * @param rgb Couleur au format 0xRRGGBB (l'alpha est ignoré)
+     * @param out Tableau de trois éléments recevant les coordonnées
+     */
+    public abstract void toCoordinates(int rgb, float[] out);
+
+    /**
+     * Calcule la distance au carré entre deux couleurs déjà converties.
+     */
+    public float distance(float x1, float y1, float z1, float x2, float y2, float z2) {
+        float dx = x1 - x2;
+        float dy = y1 - y2;
+        float dz = z1 - z2;
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    /**
+     * Indique si la distance est euclidienne dans l'espace de la mesure, ce qui
+     * autorise l'arbre k-d et les noyaux vectoriels.
+     *
+     * @return true si la mesure est euclidienne
+     */
+    public boolean isEuclidean() {
+        return euclidean;
+    }
+
+    /**
+     * Distance (non élevée au carré) entre le noir et le blanc, qui sert d'échelle
+     * pour exprimer une distance en pourcentage de correspondance.
+     *
+     * @return La distance de référence
+     */
+    public double getReferenceDistance() {
+        if (referenceDistance < 0) {
+            float[] black = new float[3];
+            float[] white = new float[3];
+            toCoordinates(0x000000, black);
+            toCoordinates(0xFFFFFF, white);
+            referenceDistance = Math.sqrt(distance(black[0], black[1], black[2], white[0], white[1], white[2]));
+        }
+        return referenceDistance;
+    }
+
+    @Override
+    public String toString() {
+        return displayName;
+    }
+
+    /**
+     * Convertit une couleur sRGB en CIELAB (illuminant D65).
+     */
+    private static void toLab(int rgb, float[] out) {
+        double r = SRGB_TO_LINEAR[(rgb >> 16) & 0xFF];
+        double g = SRGB_TO_LINEAR[(rgb >> 8) & 0xFF];
+        double b = SRGB_TO_LINEAR[rgb & 0xFF];
+
+        double x = (0.4124564 * r + 0.3575761 * g + 0.1804375 * b) / 0.95047;
+        double y = 0.2126729 * r + 0.7151522 * g + 0.0721750 * b;
+        double z = (0.0193339 * r + 0.1191920 * g + 0.9503041 * b) / 1.08883;
+
+        double fx = labF(x);
+        double fy = labF(y);
+        double fz = labF(z);
+
+        out[0] = (float) (116 * fy - 16);
+        out[1] = (float) (500 * (fx - fy));
+        out[2] = (float) (200 * (fy - fz));
+    }
+
+    private static double labF(double t) {
+        return t > 216.0 / 24389.0 ? Math.cbrt(t) : (24389.0 / 27.0 * t + 16) / 116;
+    }
+
+    /**
+     * Différence de couleur CIEDE2000 entre deux couleurs CIELAB.
+     */
+    private static double ciede2000(double l1, double a1, double b1, double l2, double a2, double b2) {
+        double c1 = Math.sqrt(a1 * a1 + b1 * b1);
+        double c2 = Math.sqrt(a2 * a2 + b2 * b2);
+        double meanC = (c1 + c2) / 2;
+        double meanC7 = Math.pow(meanC, 7);
+        double g = 0.5 * (1 - Math.sqrt(meanC7 / (meanC7 + 6103515625.0))); // 25^7
+
+        double ap1 = (1 + g) * a1;
+        double ap2 = (1 + g) * a2;
+        double cp1 = Math.sqrt(ap1 * ap1 + b1 * b1);
+        double cp2 = Math.sqrt(ap2 * ap2 + b2 * b2);
+        double hp1 = hueAngle(b1, ap1);
+        double hp2 = hueAngle(b2, ap2);
+
+        double deltaL = l2 - l1;
+        double deltaC = cp2 - cp1;
+        double deltaH;
+        if (cp1 * cp2 == 0) {
+            deltaH = 0;
+        } else if (Math.abs(hp2 - hp1) <= 180) {
+            deltaH = hp2 - hp1;
+        } else if (hp2 <= hp1) {
+            deltaH = hp2 - hp1 + 360;
+        } else {
+            deltaH = hp2 - hp1 - 360;
+        }
+        double deltaBigH = 2 * Math.sqrt(cp1 * cp2) * Math.sin(Math.toRadians(deltaH / 2));
+
+        double meanL = (l1 + l2) / 2;
+        double meanCp = (cp1 + cp2) / 2;
+        double meanHp;
+        if (cp1 * cp2 == 0) {
+            meanHp = hp1 + hp2;
+        } else if (Math.abs(hp1 - hp2) <= 180) {
+            meanHp = (hp1 + hp2) / 2;
+        } else if (hp1 + hp2 < 360) {
+            meanHp = (hp1 + hp2 + 360) / 2;
+        } else {
+            meanHp = (hp1 + hp2 - 360) / 2;
+        }
+
+        double t = 1
+                - 0.17 * Math.cos(Math.toRadians(meanHp - 30))
+                + 0.24 * Math.cos(Math.toRadians(2 * meanHp))
+                + 0.32 * Math.cos(Math.toRadians(3 * meanHp + 6))
+                - 0.20 * Math.cos(Math.toRadians(4 * meanHp - 63));
+        double deltaTheta = 30 * Math.exp(-Math.pow((meanHp - 275) / 25, 2));
+        double meanCp7 = Math.pow(meanCp, 7);
+        double rc = 2 * Math.sqrt(meanCp7 / (meanCp7 + 6103515625.0));
+        double meanL50 = (meanL - 50) * (meanL - 50);
+        double sl = 1 + 0.015 * meanL50 / Math.sqrt(20 + meanL50);
+        double sc = 1 + 0.045 * meanCp;
+        double sh = 1 + 0.015 * meanCp * t;
+        double rt = -Math.sin(Math.toRadians(2 * deltaTheta)) * rc;
+
+        double termL = deltaL / sl;
+        double termC = deltaC / sc;
+        double termH = deltaBigH / sh;
+        return Math.sqrt(termL * termL + termC * termC + termH * termH + rt * termC * termH);
+    }
+
+    private static double hueAngle(double b, double ap) {
+        if (b == 0 && ap == 0) {
+            return 0;
+        }
+        double h = Math.toDegrees(Math.atan2(b, ap));
+        return h < 0 ? h + 360 : h;
+    }
+}
@@ -2,8 +2,6 @@ package skymc.model;
 
 import java.awt.Color;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
 
 /**
@@ -12,8 +10,10 @@ import java.util.List;
 public class ColorToBlockConverter {
     
     private TextureManager textureManager;
-    private boolean useTopTexture = true;
-    private int maxResults = 10;
+    private volatile boolean useTopTexture = true;
+    private volatile int maxResults = 10;
+    private volatile ColorMetric colorMetric = ColorMetric.RGB;
+    private volatile PaletteFilter filter;
     
     /**
      * Constructeur du convertisseur.
@@ -40,6 +40,31 @@ public class ColorToBlockConverter {
         this.maxResults = maxResults;
     }
     
+    /**
+     * Définit la mesure de distance utilisée pour comparer les couleurs.
+     * 
+     * @param colorMetric Mesure de distance (RGB, CIELAB, OKLab, CIEDE2000…)
+     */
+    public void setColorMetric(ColorMetric colorMetric) {
+        this.colorMetric = colorMetric;
+    }
+    
+    /**
+     * Restreint la recherche aux blocs gardés par un filtre.
+     * 
+     * @param filter Filtre de la palette (null pour chercher dans tous les blocs)
+     */
+    public void setFilter(PaletteFilter filter) {
+        this.filter = filter;
+    }
+    
+    /**
+     * @return La mesure de distance utilisée pour comparer les couleurs
+     */
+    public ColorMetric getColorMetric() {
+        return colorMetric;
+    }
+    
     /**
      * Trouve les blocs dont la couleur est la plus proche de la couleur spécifiée.
      * 
@@ -47,23 +72,31 @@ public class ColorToBlockConverter {
      * @return Liste de blocs triés par proximité de couleur
      */
     public List<BlockDistanceResult> findClosestBlocks(Color targetColor) {
-        List<BlockDistanceResult> results = new ArrayList<>();
-        List<Block> allBlocks = textureManager.getAllBlocks();
+        // Réglages et palette lus une seule fois : la recherche tourne hors du thread de
+        // l'interface, qui peut les modifier (ou recharger les textures) pendant ce temps
+        int limit = maxResults;
+        boolean top = useTopTexture;
+        ColorMetric metric = colorMetric;
+        PaletteFilter paletteFilter = filter;
         
-        for (Block block : allBlocks) {
-            Color blockColor = block.getAverageColor(useTopTexture);
-            if (blockColor != null) {
-                double distance = ColorUtils.colorDistance(targetColor, blockColor);
-                results.add(new BlockDistanceResult(block, distance));
-            }
+        List<BlockDistanceResult> results = new ArrayList<>();
+        if (targetColor == null || limit <= 0) {
+            return results;
         }
         
-        // Trier par distance (du plus proche au plus éloigné)
-        Collections.sort(results, Comparator.comparingDouble(BlockDistanceResult::getDistance));
+        Palette palette = textureManager.getPalette();
+        
+        // Requête des k plus proches voisins : seuls maxResults résultats sont créés
+        int[] ids = new int[limit];
+        float[] squaredDistances = new float[limit];
+        float[] coordinates = new float[3];
+        metric.toCoordinates(targetColor.getRGB(), coordinates);
+        int count = palette.getFace(top, paletteFilter).getSpace(metric).findClosest(
+                coordinates[0], coordinates[1], coordinates[2], ids, squaredDistances);
         
-        // Limiter le nombre de résultats
-        if (results.size() > maxResults) {
-            results = results.subList(0, maxResults);
+        for (int i = 0; i < count; i++) {
+            Block block = palette.getBlock(ids[i]);
+            results.add(new BlockDistanceResult(block, Math.sqrt(squaredDistances[i])));
         }
         
         return results;
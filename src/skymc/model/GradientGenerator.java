@@ -39,6 +39,8 @@ public class GradientGenerator {
         
         TextureManager textureManager = TextureManager.getInstance();
         
+        // Couleurs intermédiaires, résolues ensuite en un seul lot
+        int[] intermediateColors = new int[steps - 1];
         for (int i = 1; i < steps; i++) {
             float ratio = (float) i / steps;
             
@@ -46,12 +48,13 @@ public class GradientGenerator {
             int g = interpolate(startColor.getGreen(), endColor.getGreen(), ratio);
             int b = interpolate(startColor.getBlue(), endColor.getBlue(), ratio);
             
-            Color intermediateColor = new Color(r, g, b);
-            
-            Block closestBlock = textureManager.findClosestColorBlock(intermediateColor, useTopTexture);
-            
-            if (closestBlock != null) {
-                gradientBlocks.add(closestBlock);
+            intermediateColors[i - 1] = 0xFF000000 | (r << 16) | (g << 8) | b;
+        }
+        
+        int[] closestIndices = textureManager.findClosestBlockIndices(intermediateColors, useTopTexture);
+        for (int index : closestIndices) {
+            if (index >= 0) {
+                gradientBlocks.add(textureManager.getBlock(index));
             }
         }
         
@@ -87,6 +90,7 @@ public class GradientGenerator {
         if (c01 == null) c01 = Color.BLACK;
         if (c11 == null) c11 = Color.BLACK;
 
+        int[] colors = new int[gridSize * gridSize];
         for (int y = 0; y < gridSize; y++) {
             for (int x = 0; x < gridSize; x++) {
                 float u = (float) x / (gridSize - 1);
@@ -100,8 +104,16 @@ public class GradientGenerator {
                 int b = interpolateBilinear(
                     c00.getBlue(), c10.getBlue(), c01.getBlue(), c11.getBlue(), u, v);
                 
-                Color interpolatedColor = new Color(r, g, b);
-                gradient[y][x] = textureManager.findClosestColorBlock(interpolatedColor, useTopTexture);
+                colors[y * gridSize + x] = 0xFF000000 | (r << 16) | (g << 8) | b;
+            }
+        }
+        
+        // Recherche de toute la grille en un seul lot
+        int[] closestIndices = textureManager.findClosestBlockIndices(colors, useTopTexture);
+        for (int y = 0; y < gridSize; y++) {
+            for (int x = 0; x < gridSize; x++) {
+                int index = closestIndices[y * gridSize + x];
+                gradient[y][x] = index < 0 ? null : textureManager.getBlock(index);
             }
         }
         
@@ -0,0 +1,35 @@
+package skymc.model;
+
+/**
+ * Noyau de calcul du plus proche voisin sur des couleurs stockées en tableaux
+ * parallèles (voir {@link Palette.Face}). Les distances sont des distances
+ * euclidiennes au carré ; à distance égale, la plus petite position l'emporte.
+ */
+public interface NearestColorKernel {
+
+    /**
+     * Trouve la position de la couleur la plus proche de la cible.
+     *
+     * @param xs Première composante des couleurs de la palette
+     * @param ys Deuxième composante des couleurs de la palette
+     * @param zs Troisième composante des couleurs de la palette
+     * @param count Nombre d'entrées à parcourir
+     * @param x Première composante de la cible
+     * @param y Deuxième composante de la cible
+     * @param z Troisième composante de la cible
+     * @return La position de l'entrée la plus proche, ou -1 si count vaut 0
+     */
+    int nearest(float[] xs, float[] ys, float[] zs, int count, float x, float y, float z);
+
+    /**
+     * Calcule la distance au carré entre la cible et chaque entrée de la palette.
+     *
+     * @param out Tableau recevant les count distances
+     */
+    void distances(float[] xs, float[] ys, float[] zs, int count, float x, float y, float z, float[] out);
+
+    /**
+     * @return Nom court du noyau, pour les journaux et les mesures
+     */
+    String getName();
+}
@@ -0,0 +1,71 @@
+package skymc.model;
+
+/**
+ * Sélection du noyau du plus proche voisin à utiliser.
+ *
+ * Le noyau vectoriel n'est chargé (par réflexion) que si le module
+ * {@code jdk.incubator.vector} est présent dans la JVM, afin que l'application
+ * fonctionne sans option particulière avec le noyau scalaire. Aucune classe ne le
+ * référence directement : VectorNearestColorKernel.java peut être exclu de la
+ * compilation, qui n'a alors pas besoin de {@code --add-modules jdk.incubator.vector}.
+ */
+public final class NearestColorKernels {
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+    private static final String VECTOR_KERNEL_CLASS = "skymc.model.VectorNearestColorKernel";
+
+    // Tailles de palette au-delà desquelles l'arbre k-d devient plus rapide
+    // qu'un parcours linéaire (mesurées avec skymc.tools.NearestColorBenchmark)
+    private static final int SCALAR_SCAN_THRESHOLD = 256;
+    private static final int VECTOR_SCAN_THRESHOLD = 1024;
+
+    private static final NearestColorKernel SCALAR = new ScalarNearestColorKernel();
+    private static final NearestColorKernel VECTOR = loadVectorKernel();
+
+    private NearestColorKernels() {
+    }
+
+    /**
+     * @return Le noyau vectoriel s'il est disponible, sinon le noyau scalaire
+     */
+    public static NearestColorKernel getDefault() {
+        return VECTOR != null ? VECTOR : SCALAR;
+    }
+
+    /**
+     * @return Taille de palette maximale pour laquelle le noyau par défaut est
+     *         plus rapide qu'une recherche dans l'arbre k-d
+     */
+    public static int linearScanThreshold() {
+        return VECTOR != null ? VECTOR_SCAN_THRESHOLD : SCALAR_SCAN_THRESHOLD;
+    }
+
+    /**
+     * @return Le noyau scalaire
+     */
+    public static NearestColorKernel scalar() {
+        return SCALAR;
+    }
+
+    /**
+     * @return Le noyau vectoriel, ou null si l'API Vector n'est pas disponible
+     */
+    public static NearestColorKernel vector() {
+        return VECTOR;
+    }
+
+    private static NearestColorKernel loadVectorKernel() {
+        if (ModuleLayer.boot().findModule(VECTOR_MODULE).isEmpty()) {
+            return null;
+        }
+        try {
+            NearestColorKernel kernel = (NearestColorKernel) Class.forName(VECTOR_KERNEL_CLASS)
+                    .getDeclaredConstructor().newInstance();
+            // Vérifie que le noyau fonctionne réellement sur cette plateforme
+            kernel.nearest(new float[1], new float[1], new float[1], 1, 0, 0, 0);
+            return kernel;
+        } catch (ReflectiveOperationException | LinkageError | RuntimeException e) {
+            System.err.println("API Vector indisponible, utilisation du noyau scalaire: " + e);
+            return null;
+        }
+    }
+}
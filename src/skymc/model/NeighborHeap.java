@@ -0,0 +1,94 @@
+package skymc.model;
+
+/**
+ * Tas max borné à k éléments, ordonné par (distance, identifiant), utilisé pour
+ * conserver les k plus proches voisins sans trier l'ensemble des candidats.
+ * À distance égale, l'identifiant le plus petit est considéré comme le plus proche.
+ */
+final class NeighborHeap {
+    private final float[] distances;
+    private final int[] ids;
+    private int count;
+
+    NeighborHeap(int capacity) {
+        this.distances = new float[capacity];
+        this.ids = new int[capacity];
+    }
+
+    /**
+     * Indique si un candidat à cette distance pourrait encore entrer dans le tas.
+     */
+    boolean accepts(float distance) {
+        return count < ids.length || distance <= distances[0];
+    }
+
+    void offer(float distance, int id) {
+        if (count < ids.length) {
+            int i = count++;
+            distances[i] = distance;
+            ids[i] = id;
+            siftUp(i);
+        } else if (isBefore(distance, id, distances[0], ids[0])) {
+            distances[0] = distance;
+            ids[0] = id;
+            siftDown(0, count);
+        }
+    }
+
+    /**
+     * Vide le tas dans les tableaux de sortie, du plus proche au plus éloigné.
+     *
+     * @return Le nombre d'éléments écrits
+     */
+    int drainSorted(int[] outIds, float[] outDistances) {
+        int n = count;
+        for (int end = n - 1; end >= 0; end--) {
+            outIds[end] = ids[0];
+            outDistances[end] = distances[0];
+            ids[0] = ids[end];
+            distances[0] = distances[end];
+            siftDown(0, end);
+        }
+        count = 0;
+        return n;
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!isBefore(distances[parent], ids[parent], distances[i], ids[i])) {
+                return;
+            }
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i, int n) {
+        while (true) {
+            int left = 2 * i + 1;
+            if (left >= n) {
+                return;
+            }
+            int largest = left;
+            int right = left + 1;
+            if (right < n && isBefore(distances[left], ids[left], distances[right], ids[right])) {
+                largest = right;
+            }
+            if (!isBefore(distances[i], ids[i], distances[largest], ids[largest])) {
+                return;
+            }
+            swap(i, largest);
+            i = largest;
+        }
+    }
+
+    private void swap(int a, int b) {
+        float td = distances[a]; distances[a] = distances[b]; distances[b] = td;
+        int ti = ids[a]; ids[a] = ids[b]; ids[b] = ti;
+    }
+
+    private static boolean isBefore(float d1, int id1, float d2, int id2) {
+        return d1 < d2 || (d1 == d2 && id1 < id2);
+    }
+}
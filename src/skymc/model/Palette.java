@@ -0,0 +1,464 @@
+package skymc.model;
+
+import java.awt.Color;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Instantané compact de la palette des blocs chargés.
+ *
+ * Les couleurs moyennes de chaque face sont rangées dans des tableaux de primitives
+ * parallèles (une entrée par bloc possédant cette face) plutôt que dans des objets
+ * {@link Color} dispersés en mémoire. Les recherches de couleur parcourent ces tableaux
+ * contigus ; l'indice de palette d'une entrée permet ensuite de retrouver le {@link Block}.
+ *
+ * Une palette n'est jamais modifiée après sa construction : un rechargement des textures
+ * en construit une nouvelle, si bien qu'un traitement en cours garde une vue cohérente.
+ */
+public class Palette {
+    private final Block[] blocks;
+    private final List<Block> blockList;
+    private final Map<Block, Integer> indices;
+    private final Map<String, Block> blocksByName;
+    private final Face top;
+    private final Face side;
+
+    // Masques des filtres et faces restreintes à un masque, calculés à la première utilisation
+    private final Map<PaletteFilter, BitSet> masks = Collections.synchronizedMap(new WeakHashMap<>());
+    private final Map<BitSet, Face> topFaces = new ConcurrentHashMap<>();
+    private final Map<BitSet, Face> sideFaces = new ConcurrentHashMap<>();
+
+    /**
+     * Construit l'instantané à partir de la liste des blocs chargés.
+     * L'indice de palette d'un bloc est sa position dans cette liste.
+     *
+     * @param blocks Blocs chargés
+     */
+    public Palette(List<Block> blocks) {
+        this.blocks = blocks.toArray(new Block[0]);
+        this.blockList = Collections.unmodifiableList(Arrays.asList(this.blocks));
+        this.indices = new IdentityHashMap<>(this.blocks.length);
+        this.blocksByName = new HashMap<>(this.blocks.length * 2);
+        for (int i = 0; i < this.blocks.length; i++) {
+            this.indices.put(this.blocks[i], i);
+            this.blocksByName.put(this.blocks[i].getName(), this.blocks[i]);
+        }
+        this.top = Face.of(this.blocks, true);
+        this.side = Face.of(this.blocks, false);
+    }
+
+    /**
+     * @return Nombre de blocs dans la palette
+     */
+    public int size() {
+        return blocks.length;
+    }
+
+    /**
+     * Obtient un bloc par son indice de palette.
+     *
+     * @param index Indice de palette
+     * @return Le bloc correspondant
+     */
+    public Block getBlock(int index) {
+        return blocks[index];
+    }
+
+    /**
+     * @return Les blocs dans l'ordre de leurs indices (liste non modifiable, sans copie)
+     */
+    public List<Block> getBlocks() {
+        return blockList;
+    }
+
+    /**
+     * Obtient un bloc par son nom.
+     *
+     * @param name Nom du bloc
+     * @return Le bloc correspondant, ou null s'il n'existe pas
+     */
+    public Block getBlockByName(String name) {
+        return blocksByName.get(name);
+    }
+
+    /**
+     * Obtient l'indice de palette d'un bloc.
+     *
+     * @param block Bloc
+     * @return L'indice du bloc, ou -1 s'il ne fait pas partie de cette palette
+     */
+    public int indexOf(Block block) {
+        Integer index = indices.get(block);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * Obtient les couleurs d'une face.
+     *
+     * @param useTopTexture true pour la face du dessus, false pour la face latérale
+     * @return Les données de la face
+     */
+    public Face getFace(boolean useTopTexture) {
+        return useTopTexture ? top : side;
+    }
+
+    /**
+     * Obtient le masque d'un filtre pour cette palette, calculé une seule fois.
+     *
+     * @param filter Filtre
+     * @return Le masque (bit i à 1 si le bloc d'indice i est gardé), à ne pas modifier
+     */
+    public BitSet getMask(PaletteFilter filter) {
+        return masks.computeIfAbsent(filter, f -> f.toMask(this));
+    }
+
+    /**
+     * Obtient les couleurs d'une face restreintes aux blocs gardés par un filtre.
+     *
+     * @param useTopTexture true pour la face du dessus, false pour la face latérale
+     * @param filter Filtre (null pour toute la palette)
+     * @return Les données de la face restreinte
+     */
+    public Face getFace(boolean useTopTexture, PaletteFilter filter) {
+        return filter == null || filter == PaletteFilter.ALL ? getFace(useTopTexture)
+                : getFace(useTopTexture, getMask(filter));
+    }
+
+    /**
+     * Obtient les couleurs d'une face restreintes aux blocs d'un masque. La face restreinte
+     * et ses index de recherche sont construits au premier appel puis gardés avec la
+     * palette : deux masques égaux partagent la même face.
+     *
+     * @param useTopTexture true pour la face du dessus, false pour la face latérale
+     * @param mask Masque des indices de palette à garder (null pour toute la palette)
+     * @return Les données de la face restreinte
+     */
+    public Face getFace(boolean useTopTexture, BitSet mask) {
+        Face face = getFace(useTopTexture);
+        if (mask == null || mask.cardinality() == blocks.length) {
+            return face;
+        }
+
+        Map<BitSet, Face> faces = useTopTexture ? topFaces : sideFaces;
+        Face restricted = faces.get(mask);
+        if (restricted == null) {
+            restricted = faces.computeIfAbsent((BitSet) mask.clone(), face::restrict);
+        }
+        return restricted;
+    }
+
+    /**
+     * Calcule une empreinte d'une face de la palette (noms, ordre et couleurs des blocs),
+     * utilisée pour vérifier qu'une donnée dérivée sauvegardée est toujours valide.
+     *
+     * @param useTopTexture true pour la face du dessus, false pour la face latérale
+     * @return L'empreinte sur 64 bits
+     */
+    public long fingerprint(boolean useTopTexture) {
+        Face face = getFace(useTopTexture);
+        long hash = 0xcbf29ce484222325L;
+        int entry = 0;
+        for (int i = 0; i < blocks.length; i++) {
+            String name = blocks[i].getName();
+            for (int c = 0; c < name.length(); c++) {
+                hash = (hash ^ name.charAt(c)) * 0x100000001b3L;
+            }
+            boolean present = entry < face.size() && face.getBlockIndex(entry) == i;
+            hash = (hash ^ (present ? face.getColor(entry++) : -1)) * 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /**
+     * Couleurs moyennes d'une face (dessus ou côté) sous forme de tableaux parallèles.
+     */
+    public static class Face {
+        private final int count;
+        private final int[] blockIndices;
+        private final int[] colors;
+        private final float[] reds;
+        private final float[] greens;
+        private final float[] blues;
+        private final Space rgbSpace;
+
+        // Couleurs converties pour chaque mesure, calculées à la première utilisation
+        private final Space[] spaces = new Space[ColorMetric.values().length];
+
+        private Face(int[] blockIndices, int[] colors, float[] reds, float[] greens, float[] blues) {
+            this.count = blockIndices.length;
+            this.blockIndices = blockIndices;
+            this.colors = colors;
+            this.reds = reds;
+            this.greens = greens;
+            this.blues = blues;
+            this.rgbSpace = new Space(ColorMetric.RGB, blockIndices, reds, greens, blues);
+            this.spaces[ColorMetric.RGB.ordinal()] = rgbSpace;
+        }
+
+        private static Face of(Block[] blocks, boolean useTopTexture) {
+            int[] indices = new int[blocks.length];
+            int[] rgb = new int[blocks.length];
+            float[] r = new float[blocks.length];
+            float[] g = new float[blocks.length];
+            float[] b = new float[blocks.length];
+            int n = 0;
+
+            for (int i = 0; i < blocks.length; i++) {
+                Color color = useTopTexture ? blocks[i].getAverageTopColor() : blocks[i].getAverageSideColor();
+                if (color == null) continue;
+
+                indices[n] = i;
+                rgb[n] = color.getRGB() & 0xFFFFFF;
+                r[n] = color.getRed();
+                g[n] = color.getGreen();
+                b[n] = color.getBlue();
+                n++;
+            }
+
+            return new Face(Arrays.copyOf(indices, n), Arrays.copyOf(rgb, n),
+                    Arrays.copyOf(r, n), Arrays.copyOf(g, n), Arrays.copyOf(b, n));
+        }
+
+        /**
+         * Copie les entrées dont l'indice de palette est dans le masque, dans le même ordre.
+         */
+        private Face restrict(BitSet mask) {
+            int[] indices = new int[count];
+            int n = 0;
+            for (int entry = 0; entry < count; entry++) {
+                if (mask.get(blockIndices[entry])) {
+                    indices[n++] = entry;
+                }
+            }
+
+            int[] restrictedIndices = new int[n];
+            int[] restrictedColors = new int[n];
+            float[] r = new float[n];
+            float[] g = new float[n];
+            float[] b = new float[n];
+            for (int i = 0; i < n; i++) {
+                int entry = indices[i];
+                restrictedIndices[i] = blockIndices[entry];
+                restrictedColors[i] = colors[entry];
+                r[i] = reds[entry];
+                g[i] = greens[entry];
+                b[i] = blues[entry];
+            }
+            return new Face(restrictedIndices, restrictedColors, r, g, b);
+        }
+
+        /**
+         * @return Nombre de blocs possédant cette face
+         */
+        public int size() {
+            return count;
+        }
+
+        /**
+         * @param entry Position dans les tableaux de la face
+         * @return L'indice de palette du bloc à cette position
+         */
+        public int getBlockIndex(int entry) {
+            return blockIndices[entry];
+        }
+
+        /**
+         * @param entry Position dans les tableaux de la face
+         * @return La couleur moyenne au format 0xRRGGBB
+         */
+        public int getColor(int entry) {
+            return colors[entry];
+        }
+
+        /**
+         * Les tableaux de canaux sont partagés et ne doivent pas être modifiés.
+         *
+         * @return Composantes rouges, dans l'ordre des entrées
+         */
+        public float[] getReds() {
+            return reds;
+        }
+
+        /**
+         * @return Composantes vertes, dans l'ordre des entrées
+         */
+        public float[] getGreens() {
+            return greens;
+        }
+
+        /**
+         * @return Composantes bleues, dans l'ordre des entrées
+         */
+        public float[] getBlues() {
+            return blues;
+        }
+
+        /**
+         * @return Les indices de palette, dans l'ordre des entrées
+         */
+        public int[] getBlockIndices() {
+            return blockIndices;
+        }
+
+        /**
+         * @return L'arbre k-d des couleurs RGB de cette face (identifiants = indices de palette)
+         */
+        public ColorKdTree getIndex() {
+            return rgbSpace.index;
+        }
+
+        /**
+         * Obtient les couleurs de la face converties pour une mesure de distance.
+         * La conversion n'est faite qu'une fois par palette et par mesure.
+         *
+         * @param metric Mesure de distance
+         * @return Les couleurs converties et leur index
+         */
+        public synchronized Space getSpace(ColorMetric metric) {
+            Space space = spaces[metric.ordinal()];
+            if (space == null) {
+                float[] xs = new float[count];
+                float[] ys = new float[count];
+                float[] zs = new float[count];
+                float[] coordinates = new float[3];
+                for (int i = 0; i < count; i++) {
+                    metric.toCoordinates(colors[i], coordinates);
+                    xs[i] = coordinates[0];
+                    ys[i] = coordinates[1];
+                    zs[i] = coordinates[2];
+                }
+                space = new Space(metric, blockIndices, xs, ys, zs);
+                spaces[metric.ordinal()] = space;
+            }
+            return space;
+        }
+
+        /**
+         * Trouve l'indice de palette du bloc dont la couleur est la plus proche.
+         *
+         * @param red Composante rouge (0-255)
+         * @param green Composante verte (0-255)
+         * @param blue Composante bleue (0-255)
+         * @return L'indice de palette, ou -1 si aucun bloc ne possède cette face
+         */
+        public int findClosest(int red, int green, int blue) {
+            return rgbSpace.findClosest(red, green, blue);
+        }
+
+        /**
+         * Trouve les blocs dont la couleur est la plus proche, sans trier toute la palette.
+         * Les résultats sont écrits du plus proche au plus éloigné.
+         *
+         * @param red Composante rouge (0-255)
+         * @param green Composante verte (0-255)
+         * @param blue Composante bleue (0-255)
+         * @param outIndices Tableau recevant les indices de palette (sa taille fixe le nombre de résultats)
+         * @param outDistances Tableau recevant les distances au carré
+         * @return Le nombre de résultats écrits
+         */
+        public int findClosest(int red, int green, int blue, int[] outIndices, float[] outDistances) {
+            return rgbSpace.findClosest(red, green, blue, outIndices, outDistances);
+        }
+    }
+
+    /**
+     * Couleurs d'une face exprimées dans l'espace d'une {@link ColorMetric}.
+     * Les recherches prennent des coordonnées déjà converties avec
+     * {@link ColorMetric#toCoordinates(int, float[])}.
+     */
+    public static class Space {
+        private final ColorMetric metric;
+        private final int count;
+        private final int[] blockIndices;
+        private final float[] xs;
+        private final float[] ys;
+        private final float[] zs;
+        private final ColorKdTree index; // null si la mesure n'est pas euclidienne
+
+        private Space(ColorMetric metric, int[] blockIndices, float[] xs, float[] ys, float[] zs) {
+            this.metric = metric;
+            this.count = blockIndices.length;
+            this.blockIndices = blockIndices;
+            this.xs = xs;
+            this.ys = ys;
+            this.zs = zs;
+            this.index = metric.isEuclidean() ? new ColorKdTree(xs, ys, zs, blockIndices, count) : null;
+        }
+
+        /**
+         * @return La mesure de distance de cet espace
+         */
+        public ColorMetric getMetric() {
+            return metric;
+        }
+
+        /**
+         * Trouve l'indice de palette du bloc le plus proche de coordonnées données.
+         *
+         * @return L'indice de palette, ou -1 si la face est vide
+         */
+        public int findClosest(float x, float y, float z) {
+            if (index != null) {
+                if (count > NearestColorKernels.linearScanThreshold()) {
+                    return index.nearest(x, y, z);
+                }
+                int entry = NearestColorKernels.getDefault().nearest(xs, ys, zs, count, x, y, z);
+                return entry < 0 ? -1 : blockIndices[entry];
+            }
+
+            int best = -1;
+            float bestDistance = Float.MAX_VALUE;
+            for (int i = 0; i < count; i++) {
+                float distance = metric.distance(x, y, z, xs[i], ys[i], zs[i]);
+                if (distance < bestDistance) {
+                    bestDistance = distance;
+                    best = i;
+                }
+            }
+            return best < 0 ? -1 : blockIndices[best];
+        }
+
+        /**
+         * Trouve les k blocs les plus proches de coordonnées données,
+         * du plus proche au plus éloigné.
+         *
+         * @param outIndices Tableau recevant les indices de palette (sa taille fixe k)
+         * @param outDistances Tableau recevant les distances au carré
+         * @return Le nombre de résultats écrits
+         */
+        public int findClosest(float x, float y, float z, int[] outIndices, float[] outDistances) {
+            if (index != null && count > NearestColorKernels.linearScanThreshold()) {
+                return index.nearest(x, y, z, outIndices, outDistances);
+            }
+
+            int k = Math.min(outIndices.length, count);
+            if (k == 0) {
+                return 0;
+            }
+
+            float[] distances = new float[count];
+            if (index != null) {
+                NearestColorKernels.getDefault().distances(xs, ys, zs, count, x, y, z, distances);
+            } else {
+                for (int i = 0; i < count; i++) {
+                    distances[i] = metric.distance(x, y, z, xs[i], ys[i], zs[i]);
+                }
+            }
+
+            NeighborHeap heap = new NeighborHeap(k);
+            for (int i = 0; i < count; i++) {
+                if (heap.accepts(distances[i])) {
+                    heap.offer(distances[i], blockIndices[i]);
+                }
+            }
+            return heap.drainSorted(outIndices, outDistances);
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package skymc.model;
+
+import java.awt.Color;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Cache disque des blocs déjà chargés : chemins et couleurs moyennes des textures.
+ *
+ * Chaque face est associée à la taille et à la date de modification de son fichier,
+ * relevées par le {@link Block} au moment où il a décodé la texture (voir {@link TextureStamp}).
+ * Au lancement, un bloc dont les fichiers n'ont pas changé est reconstruit directement
+ * depuis le cache, sans décoder de PNG ni recalculer de moyenne ; seuls les fichiers
+ * nouveaux ou modifiés repassent par {@link Block#Block(String, String, String)}.
+ * Les pixels ne sont pas enregistrés : les textures sont décodées à la demande
+ * par le {@link TextureCache}.
+ */
+public class PaletteCache {
+    private static final int FILE_MAGIC = 0x534B5043; // "SKPC"
+    private static final int FILE_VERSION = 3;
+
+    private final Map<String, Entry> entries;
+
+    private PaletteCache(Map<String, Entry> entries) {
+        this.entries = entries;
+    }
+
+    /**
+     * @return Un cache vide
+     */
+    public static PaletteCache empty() {
+        return new PaletteCache(Collections.emptyMap());
+    }
+
+    /**
+     * Charge le cache depuis le disque.
+     *
+     * @param file Fichier du cache
+     * @return Le cache chargé, ou un cache vide si le fichier est absent ou d'une autre version
+     * @throws IOException Si une erreur survient lors de la lecture
+     */
+    public static PaletteCache load(File file) throws IOException {
+        if (!file.isFile()) {
+            return empty();
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != FILE_MAGIC || in.readInt() != FILE_VERSION) {
+                return empty();
+            }
+
+            int count = in.readInt();
+            Map<String, Entry> entries = new HashMap<>(count * 2);
+            for (int i = 0; i < count; i++) {
+                String name = in.readUTF();
+                entries.put(name, new Entry(readFace(in), readFace(in)));
+            }
+            return new PaletteCache(entries);
+        }
+    }
+
+    /**
+     * Sauvegarde les blocs chargés sur le disque.
+     *
+     * @param file Fichier de destination
+     * @param blocks Blocs à enregistrer
+     * @throws IOException Si une erreur survient lors de l'écriture
+     */
+    public static void save(File file, List<Block> blocks) throws IOException {
+        File parent = file.getParentFile();
+        if (parent != null && !parent.exists()) {
+            parent.mkdirs();
+        }
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            out.writeInt(FILE_MAGIC);
+            out.writeInt(FILE_VERSION);
+            out.writeInt(blocks.size());
+            for (Block block : blocks) {
+                out.writeUTF(block.getName());
+                writeFace(out, block.getTopTexturePath(), block.getTextureStamp(true), block.getAverageTopColor());
+                writeFace(out, block.getSideTexturePath(), block.getTextureStamp(false), block.getAverageSideColor());
+            }
+        }
+    }
+
+    /**
+     * @return Nombre de blocs dans le cache
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Reconstruit un bloc depuis le cache si ses fichiers n'ont pas changé depuis
+     * l'enregistrement. Peut être appelée depuis plusieurs threads.
+     *
+     * @param name Nom du bloc
+     * @param topTexturePath Chemin de la texture du dessus (peut être null)
+     * @param sideTexturePath Chemin de la texture latérale (peut être null)
+     * @return Le bloc, ou null s'il est absent du cache ou périmé
+     */
+    public Block restore(String name, String topTexturePath, String sideTexturePath) {
+        Entry entry = entries.get(name);
+        if (entry == null || !entry.top.matches(topTexturePath) || !entry.side.matches(sideTexturePath)) {
+            return null;
+        }
+
+        return new Block(name, topTexturePath, sideTexturePath, entry.top.average, entry.side.average,
+                entry.top.stamp, entry.side.stamp);
+    }
+
+    private static Face readFace(DataInputStream in) throws IOException {
+        String path = in.readBoolean() ? in.readUTF() : null;
+        TextureStamp stamp = new TextureStamp(in.readLong(), in.readLong());
+        Color average = in.readBoolean() ? new Color(in.readInt()) : null;
+        return new Face(path, stamp, average);
+    }
+
+    private static void writeFace(DataOutputStream out, String path, TextureStamp stamp, Color average)
+            throws IOException {
+        out.writeBoolean(path != null);
+        if (path != null) {
+            out.writeUTF(path);
+        }
+
+        // Empreinte du fichier tel qu'il a été décodé, et non tel qu'il est maintenant
+        out.writeLong(stamp.getSize());
+        out.writeLong(stamp.getLastModified());
+
+        out.writeBoolean(average != null);
+        if (average != null) {
+            out.writeInt(average.getRGB());
+        }
+    }
+
+    /**
+     * Contenu en cache d'un bloc.
+     */
+    private static final class Entry {
+        private final Face top;
+        private final Face side;
+
+        Entry(Face top, Face side) {
+            this.top = top;
+            this.side = side;
+        }
+    }
+
+    /**
+     * Contenu en cache d'une face : empreinte du fichier et couleur moyenne (null si pas de texture).
+     */
+    private static final class Face {
+        private final String path;
+        private final TextureStamp stamp;
+        private final Color average;
+
+        Face(String path, TextureStamp stamp, Color average) {
+            this.path = path;
+            this.stamp = stamp;
+            this.average = average;
+        }
+
+        boolean matches(String currentPath) {
+            return Objects.equals(path, currentPath) && stamp.matches(currentPath);
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package skymc.model;
+
+import java.awt.Color;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Fichier précalculé contenant toute la palette : noms et chemins des blocs, couleurs
+ * moyennes et atlas des textures.
+ *
+ * Le fichier est projeté en mémoire avec {@link FileChannel#map} : l'ouverture ne décode
+ * aucun PNG, et les pixels des tuiles sont lus directement dans la projection, sans être
+ * copiés dans le tas. Il est produit par {@code skymc.tools.PaletteFileGenerator}.
+ *
+ * Chaque texture y est enregistrée avec la taille et la date de son fichier au moment du
+ * décodage (voir {@link TextureStamp}) : {@link #isUpToDate(Collection)} vérifie ainsi
+ * chaque fichier, et pas seulement la date des répertoires, qui ne change pas quand une
+ * texture est retouchée sur place.
+ *
+ * Format (entiers big-endian) :
+ * <pre>
+ * en-tête    magic, version, nombre de blocs, taille des tuiles, nombre de pixels
+ * noms       pour chaque bloc : nom, chemin du dessus, chemin du côté
+ *            (longueur sur 2 octets puis UTF-8, chaîne vide = pas de face),
+ *            complétés par des zéros jusqu'à un multiple de 4 octets
+ * empreintes pour chaque bloc : taille et date du dessus, puis du côté (4 entiers de 8 octets)
+ * couleurs   moyennes du dessus, puis du côté (0 = pas de texture)
+ * positions  positions des tuiles du dessus, puis du côté (-1 = pas de tuile)
+ * pixels     pixels ARGB de toutes les tuiles
+ * </pre>
+ */
+public class PaletteFile {
+    private static final int FILE_MAGIC = 0x534B5046; // "SKPF"
+    private static final int FILE_VERSION = 2;
+
+    private final List<Block> blocks;
+    private final int tileSize;
+    private final int[] topOffsets;
+    private final int[] sideOffsets;
+    private final IntBuffer pixels;
+
+    private PaletteFile(List<Block> blocks, int tileSize, int[] topOffsets, int[] sideOffsets, IntBuffer pixels) {
+        this.blocks = blocks;
+        this.tileSize = tileSize;
+        this.topOffsets = topOffsets;
+        this.sideOffsets = sideOffsets;
+        this.pixels = pixels;
+    }
+
+    /**
+     * Ouvre un fichier de palette en le projetant en mémoire.
+     *
+     * @param file Fichier de palette
+     * @return La palette lue
+     * @throws IOException Si le fichier est illisible, tronqué ou d'un autre format
+     */
+    public static PaletteFile open(File file) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        try {
+            if (buffer.getInt() != FILE_MAGIC || buffer.getInt() != FILE_VERSION) {
+                throw new IOException("Format de fichier de palette non reconnu : " + file.getName());
+            }
+            int count = buffer.getInt();
+            int tileSize = buffer.getInt();
+            int pixelCount = buffer.getInt();
+
+            String[][] names = new String[count][];
+            for (int i = 0; i < count; i++) {
+                names[i] = new String[] {readString(buffer), readString(buffer), readString(buffer)};
+            }
+            buffer.position((buffer.position() + 3) & ~3);
+
+            TextureStamp[] topStamps = new TextureStamp[count];
+            TextureStamp[] sideStamps = new TextureStamp[count];
+            for (int i = 0; i < count; i++) {
+                topStamps[i] = new TextureStamp(buffer.getLong(), buffer.getLong());
+                sideStamps[i] = new TextureStamp(buffer.getLong(), buffer.getLong());
+            }
+
+            IntBuffer ints = buffer.asIntBuffer();
+            if (ints.remaining() != 4L * count + pixelCount) {
+                throw new IOException("Fichier de palette tronqué : " + file.getName());
+            }
+
+            List<Block> blocks = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                blocks.add(new Block(names[i][0], emptyToNull(names[i][1]), emptyToNull(names[i][2]),
+                        toColor(ints.get(i)), toColor(ints.get(count + i)), topStamps[i], sideStamps[i]));
+            }
+
+            int[] topOffsets = new int[count];
+            int[] sideOffsets = new int[count];
+            ints.position(2 * count);
+            ints.get(topOffsets).get(sideOffsets);
+            return new PaletteFile(Collections.unmodifiableList(blocks), tileSize, topOffsets, sideOffsets,
+                    ints.slice());
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Fichier de palette tronqué : " + file.getName(), e);
+        }
+    }
+
+    /**
+     * Écrit une palette et son atlas dans un fichier. Le fichier est remplacé atomiquement,
+     * si bien qu'une palette projetée depuis l'ancien fichier reste intacte (voir {@link AtomicFiles}).
+     *
+     * @param file Fichier de destination
+     * @param palette Palette à enregistrer
+     * @param atlas Atlas construit pour cette palette
+     * @throws IOException Si une erreur survient lors de l'écriture
+     */
+    public static void write(File file, Palette palette, TextureAtlas atlas) throws IOException {
+        if (atlas.getPalette() != palette) {
+            throw new IllegalArgumentException("L'atlas n'a pas été construit pour cette palette");
+        }
+        AtomicFiles.write(file, out -> {
+            out.writeInt(FILE_MAGIC);
+            out.writeInt(FILE_VERSION);
+            out.writeInt(palette.size());
+            out.writeInt(atlas.getTileSize());
+            out.writeInt(atlas.getPixelCount());
+
+            for (int i = 0; i < palette.size(); i++) {
+                Block block = palette.getBlock(i);
+                writeString(out, block.getName());
+                writeString(out, block.getTopTexturePath());
+                writeString(out, block.getSideTexturePath());
+            }
+            while (out.size() % Integer.BYTES != 0) {
+                out.writeByte(0);
+            }
+
+            for (int i = 0; i < palette.size(); i++) {
+                Block block = palette.getBlock(i);
+                writeStamp(out, block.getTextureStamp(true));
+                writeStamp(out, block.getTextureStamp(false));
+            }
+
+            for (int i = 0; i < palette.size(); i++) {
+                out.writeInt(toInt(palette.getBlock(i).getAverageTopColor()));
+            }
+            for (int i = 0; i < palette.size(); i++) {
+                out.writeInt(toInt(palette.getBlock(i).getAverageSideColor()));
+            }
+            atlas.writeTables(out);
+            atlas.writePixels(out);
+        });
+    }
+
+    /**
+     * Vérifie que le fichier correspond encore aux textures : mêmes fichiers, chacun avec
+     * la taille et la date qu'il avait lors de son décodage.
+     *
+     * @param texturePaths Chemins de toutes les textures actuellement présentes
+     * @return true si aucune texture n'a été ajoutée, supprimée ou modifiée
+     */
+    public boolean isUpToDate(Collection<String> texturePaths) {
+        Set<String> expected = new HashSet<>(texturePaths);
+        Set<String> recorded = new HashSet<>();
+        for (Block block : blocks) {
+            for (boolean top : new boolean[] {true, false}) {
+                String path = top ? block.getTopTexturePath() : block.getSideTexturePath();
+                if (path != null) {
+                    if (!block.getTextureStamp(top).matches(path)) {
+                        return false;
+                    }
+                    recorded.add(path);
+                }
+            }
+        }
+        return recorded.equals(expected);
+    }
+
+    /**
+     * @return Les blocs, dans l'ordre de leurs indices de palette
+     */
+    public List<Block> getBlocks() {
+        return blocks;
+    }
+
+    /**
+     * @return Taille en pixels des tuiles de l'atlas
+     */
+    public int getTileSize() {
+        return tileSize;
+    }
+
+    /**
+     * Crée l'atlas du fichier, dont les tuiles restent dans la projection en mémoire.
+     *
+     * @param palette Palette construite à partir de {@link #getBlocks()}, dans le même ordre
+     * @return L'atlas
+     */
+    public TextureAtlas createAtlas(Palette palette) {
+        if (palette.size() != blocks.size()) {
+            throw new IllegalArgumentException("La palette ne correspond pas au fichier");
+        }
+        return new TextureAtlas(palette, tileSize, topOffsets, sideOffsets, pixels);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = (value == null ? "" : value).getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 0xFFFF) {
+            throw new IOException("Chaîne trop longue pour le fichier de palette : " + value);
+        }
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    private static void writeStamp(DataOutputStream out, TextureStamp stamp) throws IOException {
+        out.writeLong(stamp.getSize());
+        out.writeLong(stamp.getLastModified());
+    }
+
+    private static String emptyToNull(String value) {
+        return value.isEmpty() ? null : value;
+    }
+
+    private static Color toColor(int argb) {
+        return argb == 0 ? null : new Color(argb);
+    }
+
+    private static int toInt(Color color) {
+        return color == null ? 0 : color.getRGB();
+    }
+}
@@ -0,0 +1,136 @@
+package skymc.model;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * Filtre nommé qui restreint la recherche de couleur à une partie de la palette :
+ * sans blocs soumis à la gravité, sans entités de bloc, blocs obtenables en survie,
+ * ou une liste choisie par l'utilisateur.
+ *
+ * Un filtre ne dépend pas de la palette chargée : il est converti en masque (un
+ * {@link BitSet} indexé par indice de palette) pour chaque instantané, et la palette
+ * garde ce masque ainsi que l'index de recherche restreint correspondant (voir
+ * {@link Palette#getFace(boolean, PaletteFilter)}). Après la première requête, une
+ * recherche filtrée coûte donc autant qu'une recherche sur toute la palette.
+ *
+ * Les filtres prédéfinis reconnaissent les blocs d'après les noms des textures de Minecraft.
+ */
+public final class PaletteFilter {
+    /**
+     * Tous les blocs : équivalent à ne pas filtrer.
+     */
+    public static final PaletteFilter ALL = new PaletteFilter("All blocks", block -> true);
+
+    /**
+     * Exclut les blocs qui tombent quand rien ne les soutient (sable, gravier, poudre de béton…).
+     */
+    public static final PaletteFilter NO_GRAVITY = excludingNames("No gravity blocks",
+            "^(red_|suspicious_)?sand(_|$)|gravel|concrete_powder|anvil|dragon_egg|scaffolding|pointed_dripstone");
+
+    /**
+     * Exclut les blocs qui portent une entité de bloc (coffres, fours, panneaux…).
+     */
+    public static final PaletteFilter NO_TILE_ENTITIES = excludingNames("No tile entities",
+            "chest|barrel|furnace|smoker|hopper|dispenser|dropper|spawner|beacon|enchanting_table|brewing_stand"
+                    + "|shulker_box|sign|banner|_bed_|^bed_|jukebox|lectern|beehive|bee_nest|command_block"
+                    + "|structure_block|jigsaw|campfire|daylight_detector|comparator|conduit|bell|skull|_head"
+                    + "|end_gateway|end_portal$|sculk_sensor|sculk_shrieker|sculk_catalyst|chiseled_bookshelf"
+                    + "|decorated_pot|crafter|vault");
+
+    /**
+     * Exclut les blocs qu'on ne peut pas obtenir en survie.
+     */
+    public static final PaletteFilter SURVIVAL_OBTAINABLE = excludingNames("Survival obtainable",
+            "bedrock|barrier|command_block|structure_block|structure_void|jigsaw|spawner|end_portal"
+                    + "|budding_amethyst|reinforced_deepslate|dirt_path|farmland|frogspawn|vault|^light(_\\d+)?$"
+                    + "|petrified|infested");
+
+    private final String name;
+    private final Predicate<Block> predicate;
+
+    /**
+     * @param name Nom affiché du filtre
+     * @param predicate Condition que doit remplir un bloc pour être gardé
+     */
+    public PaletteFilter(String name, Predicate<Block> predicate) {
+        this.name = name;
+        this.predicate = predicate;
+    }
+
+    /**
+     * Crée un filtre qui ne garde que les blocs listés.
+     *
+     * @param name Nom affiché du filtre
+     * @param blockNames Noms des blocs à garder
+     * @return Le filtre
+     */
+    public static PaletteFilter ofBlockNames(String name, Collection<String> blockNames) {
+        Set<String> names = new HashSet<>(blockNames);
+        return new PaletteFilter(name, block -> names.contains(block.getName()));
+    }
+
+    /**
+     * @return Les filtres prédéfinis, {@link #ALL} en premier
+     */
+    public static List<PaletteFilter> getPresets() {
+        return List.of(ALL, NO_GRAVITY, NO_TILE_ENTITIES, SURVIVAL_OBTAINABLE);
+    }
+
+    /**
+     * Combine deux filtres : un bloc doit être gardé par les deux.
+     *
+     * @param other Autre filtre
+     * @return Le filtre combiné
+     */
+    public PaletteFilter and(PaletteFilter other) {
+        return new PaletteFilter(name + " + " + other.name, predicate.and(other.predicate));
+    }
+
+    /**
+     * @return Nom affiché du filtre
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @param block Bloc
+     * @return true si le bloc est gardé par le filtre
+     */
+    public boolean accepts(Block block) {
+        return predicate.test(block);
+    }
+
+    /**
+     * Calcule le masque du filtre pour une palette. Préférer {@link Palette#getMask(PaletteFilter)},
+     * qui garde le masque en cache.
+     *
+     * @param palette Palette
+     * @return Le masque : bit i à 1 si le bloc d'indice i est gardé
+     */
+    public BitSet toMask(Palette palette) {
+        BitSet mask = new BitSet(palette.size());
+        for (int i = 0; i < palette.size(); i++) {
+            if (predicate.test(palette.getBlock(i))) {
+                mask.set(i);
+            }
+        }
+        return mask;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+
+    private static PaletteFilter excludingNames(String name, String regex) {
+        Pattern pattern = Pattern.compile(regex);
+        return new PaletteFilter(name, block -> !pattern.matcher(block.getName()).find());
+    }
+}
@@ -3,6 +3,13 @@ package skymc.model;
 import java.awt.Color;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+import skymc.model.noise.FractalNoise;
+import skymc.model.noise.Noise;
+import skymc.model.noise.PerlinNoise;
+import skymc.model.noise.SimplexNoise;
+import skymc.model.noise.WorleyNoise;
 
 /**
  * Model class for generating block patterns in Minecraft
@@ -19,6 +26,8 @@ public class PatternGenerator {
         DIAGONAL("Diagonal"),
         SPIRAL("Spiral"),
         PERLIN("Perlin"),
+        SIMPLEX("Simplex"),
+        RIDGED("Ridged"),
         VORONOI("Voronoi"),
         CELLULAR("Cellular");
 
@@ -55,6 +64,93 @@ public class PatternGenerator {
         }
     }
 
+    /**
+     * Number of entries in the t → block ramp. Sixteen entries per level of an 8-bit color
+     * channel, so consecutive entries never skip an interpolated color.
+     */
+    public static final int RAMP_SIZE = 4096;
+
+    /**
+     * Octaves and base frequency (in cycles per cell) of the noise patterns.
+     */
+    static final int NOISE_OCTAVES = 4;
+    static final double NOISE_SCALE = 0.1;
+
+    private boolean useLookupTable = false;
+
+    /**
+     * Enables matching interpolated colors through the precomputed RGB → block
+     * lookup table instead of searching the palette for every cell.
+     *
+     * @param useLookupTable true to use the lookup table
+     */
+    public void setUseLookupTable(boolean useLookupTable) {
+        this.useLookupTable = useLookupTable;
+    }
+
+    private PaletteFilter filter;
+
+    private volatile long lastSeed;
+
+    /**
+     * Default number of sites of the Voronoi and Cellular patterns.
+     */
+    public static final int DEFAULT_SITE_COUNT = 20;
+
+    private int siteCount = DEFAULT_SITE_COUNT;
+    private WorleyNoise.Distance distanceMode = WorleyNoise.Distance.F1;
+
+    /**
+     * Sets the number of sites of the Voronoi and Cellular patterns. Sites are
+     * bucketed in a grid, so thousands of sites cost about as much as a few.
+     *
+     * @param siteCount The number of sites, at least 1
+     */
+    public void setSiteCount(int siteCount) {
+        if (siteCount < 1) {
+            throw new IllegalArgumentException("Site count must be at least 1: " + siteCount);
+        }
+        this.siteCount = siteCount;
+    }
+
+    /**
+     * Sets the distance the Cellular pattern is drawn from: to the nearest site (F1),
+     * to the second nearest (F2), or their difference, which outlines the cells.
+     *
+     * @param distanceMode The distance to use
+     */
+    public void setDistanceMode(WorleyNoise.Distance distanceMode) {
+        this.distanceMode = distanceMode;
+    }
+
+    public int getSiteCount() {
+        return siteCount;
+    }
+
+    public WorleyNoise.Distance getDistanceMode() {
+        return distanceMode;
+    }
+
+    /**
+     * Restricts the blocks used between the two endpoints to those kept by a filter.
+     * The start and end blocks themselves are always kept.
+     *
+     * @param filter The palette filter, or null to use every block
+     */
+    public void setFilter(PaletteFilter filter) {
+        this.filter = filter;
+    }
+
+    /**
+     * Returns the seed of the last generated pattern, so that a pattern generated
+     * with a random seed can be reproduced.
+     *
+     * @return The seed passed to (or drawn by) the last call to generatePattern
+     */
+    public long getLastSeed() {
+        return lastSeed;
+    }
+
     /**
      * Generates a block pattern based on the provided parameters
      *
@@ -69,65 +165,104 @@ public class PatternGenerator {
      */
     public Block[][] generatePattern(Block startBlock, Block endBlock, int size,
                                   double noiseLevel, PatternType patternType, CurveType curveType, boolean useTopTexture) {
-        Block[][] pattern = new Block[size][size];
+        return generatePattern(startBlock, endBlock, size, noiseLevel, patternType, curveType, useTopTexture,
+                new SplittableRandom().nextLong());
+    }
+
+    /**
+     * Generates a block pattern from a seed. Rows are generated in parallel, each with
+     * its own random stream split from the seed in row order, so the same inputs always
+     * give the same pattern whatever the number of threads.
+     *
+     * @param startBlock The block to start the pattern with
+     * @param endBlock The block to end the pattern with
+     * @param size The size of the pattern (width/height)
+     * @param noiseLevel The amount of noise to add (0-1)
+     * @param patternType The type of pattern to generate
+     * @param curveType The type of curve to apply to the pattern
+     * @param useTopTexture Whether to use the top texture or side texture
+     * @param seed The seed of every random choice (noise, cell sites, Perlin gradients)
+     * @return A 2D array of Block objects representing the generated pattern
+     */
+    public Block[][] generatePattern(Block startBlock, Block endBlock, int size, double noiseLevel,
+                                     PatternType patternType, CurveType curveType, boolean useTopTexture, long seed) {
+        lastSeed = seed;
+        double[][] values = new double[size][size];
 
         switch (patternType) {
             case LINEAR_HORIZONTAL:
-                generateLinearHorizontalPattern(pattern, startBlock, endBlock, size, noiseLevel, curveType, useTopTexture);
+                generateLinearHorizontalPattern(values, size, noiseLevel, curveType, seed);
                 break;
             case LINEAR_VERTICAL:
-                generateLinearVerticalPattern(pattern, startBlock, endBlock, size, noiseLevel, curveType, useTopTexture);
+                generateLinearVerticalPattern(values, size, noiseLevel, curveType, seed);
                 break;
             case RADIAL:
-                generateRadialPattern(pattern, startBlock, endBlock, size, noiseLevel, curveType, useTopTexture);
+                generateRadialPattern(values, size, noiseLevel, curveType, seed);
                 break;
             case DIAGONAL:
-                generateDiagonalPattern(pattern, startBlock, endBlock, size, noiseLevel, curveType, useTopTexture);
+                generateDiagonalPattern(values, size, noiseLevel, curveType, seed);
                 break;
             case SPIRAL:
-                generateSpiralPattern(pattern, startBlock, endBlock, size, noiseLevel, curveType, useTopTexture);
+                generateSpiralPattern(values, size, noiseLevel, curveType, seed);
                 break;
             case PERLIN:
-                generatePerlinPattern(pattern, startBlock, endBlock, size, noiseLevel, curveType, useTopTexture);
+                generateNoisePattern(values, size, noiseLevel, curveType, seed,
+                        FractalNoise.fbm(new PerlinNoise(seed), NOISE_OCTAVES));
+                break;
+            case SIMPLEX:
+                generateNoisePattern(values, size, noiseLevel, curveType, seed,
+                        FractalNoise.fbm(new SimplexNoise(seed), NOISE_OCTAVES));
+                break;
+            case RIDGED:
+                generateNoisePattern(values, size, noiseLevel, curveType, seed,
+                        new FractalNoise(new PerlinNoise(seed), FractalNoise.Mode.RIDGED, NOISE_OCTAVES, 2.0, 0.5));
                 break;
             case VORONOI:
-                generateVoronoiPattern(pattern, startBlock, endBlock, size, noiseLevel, curveType, useTopTexture);
+                generateVoronoiPattern(values, size, noiseLevel, curveType, seed);
                 break;
             case CELLULAR:
-                generateCellularPattern(pattern, startBlock, endBlock, size, noiseLevel, curveType, useTopTexture);
+                generateCellularPattern(values, size, noiseLevel, curveType, seed);
                 break;
         }
 
-        return pattern;
+        return resolveBlocks(values, startBlock, endBlock, size, useTopTexture);
     }
 
     /**
      * Generates a horizontal linear pattern
      */
-    private void generateLinearHorizontalPattern(Block[][] pattern, Block startBlock, Block endBlock,
-                                            int size, double noiseLevel, CurveType curveType, boolean useTopTexture) {
-        for (int y = 0; y < size; y++) {
+    private void generateLinearHorizontalPattern(double[][] values, int size, double noiseLevel, CurveType curveType, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        SplittableRandom[] rows = rowRandoms(random, size);
+
+        // Rows are independent: each one has its own random stream
+        IntStream.range(0, size).parallel().forEach(y -> {
+            SplittableRandom rowRandom = rows[y];
             for (int x = 0; x < size; x++) {
                 double t = (double) x / (size - 1);
                 double adjustedT = applyEasingCurve(t, curveType);
 
                 // Apply noise if needed
                 if (noiseLevel > 0) {
-                    double noise = (Math.random() - 0.5) * 2 * noiseLevel;
+                    double noise = (rowRandom.nextDouble() - 0.5) * 2 * noiseLevel;
                     adjustedT = Math.max(0, Math.min(1, adjustedT + noise));
                 }
 
-                pattern[y][x] = getInterpolatedBlock(startBlock, endBlock, adjustedT, useTopTexture);
+                values[y][x] = adjustedT;
             }
-        }
+        });
     }
 
     /**
      * Generates a vertical linear pattern
      */
-    private void generateLinearVerticalPattern(Block[][] pattern, Block startBlock, Block endBlock,
-                                          int size, double noiseLevel, CurveType curveType, boolean useTopTexture) {
-        for (int y = 0; y < size; y++) {
+    private void generateLinearVerticalPattern(double[][] values, int size, double noiseLevel, CurveType curveType, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        SplittableRandom[] rows = rowRandoms(random, size);
+
+        // Rows are independent: each one has its own random stream
+        IntStream.range(0, size).parallel().forEach(y -> {
+            SplittableRandom rowRandom = rows[y];
             double t = (double) y / (size - 1);
             double adjustedT = applyEasingCurve(t, curveType);
 
@@ -135,24 +270,28 @@ public class PatternGenerator {
                 // Apply noise if needed
                 double finalT = adjustedT;
                 if (noiseLevel > 0) {
-                    double noise = (Math.random() - 0.5) * 2 * noiseLevel;
+                    double noise = (rowRandom.nextDouble() - 0.5) * 2 * noiseLevel;
                     finalT = Math.max(0, Math.min(1, finalT + noise));
                 }
 
-                pattern[y][x] = getInterpolatedBlock(startBlock, endBlock, finalT, useTopTexture);
+                values[y][x] = finalT;
             }
-        }
+        });
     }
 
     /**
      * Generates a radial pattern
      */
-    private void generateRadialPattern(Block[][] pattern, Block startBlock, Block endBlock,
-                                   int size, double noiseLevel, CurveType curveType, boolean useTopTexture) {
+    private void generateRadialPattern(double[][] values, int size, double noiseLevel, CurveType curveType, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
         int center = size / 2;
         double maxDistance = center; // Use center as max distance
 
-        for (int y = 0; y < size; y++) {
+        SplittableRandom[] rows = rowRandoms(random, size);
+
+        // Rows are independent: each one has its own random stream
+        IntStream.range(0, size).parallel().forEach(y -> {
+            SplittableRandom rowRandom = rows[y];
             for (int x = 0; x < size; x++) {
                 // Calculate distance from center
                 double dx = x - center;
@@ -165,21 +304,25 @@ public class PatternGenerator {
 
                 // Apply noise if needed
                 if (noiseLevel > 0) {
-                    double noise = (Math.random() - 0.5) * 2 * noiseLevel;
+                    double noise = (rowRandom.nextDouble() - 0.5) * 2 * noiseLevel;
                     adjustedT = Math.max(0, Math.min(1, adjustedT + noise));
                 }
 
-                pattern[y][x] = getInterpolatedBlock(startBlock, endBlock, adjustedT, useTopTexture);
+                values[y][x] = adjustedT;
             }
-        }
+        });
     }
 
     /**
      * Generates a diagonal pattern
      */
-    private void generateDiagonalPattern(Block[][] pattern, Block startBlock, Block endBlock,
-                                     int size, double noiseLevel, CurveType curveType, boolean useTopTexture) {
-        for (int y = 0; y < size; y++) {
+    private void generateDiagonalPattern(double[][] values, int size, double noiseLevel, CurveType curveType, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        SplittableRandom[] rows = rowRandoms(random, size);
+
+        // Rows are independent: each one has its own random stream
+        IntStream.range(0, size).parallel().forEach(y -> {
+            SplittableRandom rowRandom = rows[y];
             for (int x = 0; x < size; x++) {
                 // Calculate position on diagonal (0 to 1)
                 double t = (x + y) / (double) (2 * (size - 1));
@@ -187,24 +330,28 @@ public class PatternGenerator {
 
                 // Apply noise if needed
                 if (noiseLevel > 0) {
-                    double noise = (Math.random() - 0.5) * 2 * noiseLevel;
+                    double noise = (rowRandom.nextDouble() - 0.5) * 2 * noiseLevel;
                     adjustedT = Math.max(0, Math.min(1, adjustedT + noise));
                 }
 
-                pattern[y][x] = getInterpolatedBlock(startBlock, endBlock, adjustedT, useTopTexture);
+                values[y][x] = adjustedT;
             }
-        }
+        });
     }
 
     /**
      * Generates a spiral pattern
      */
-    private void generateSpiralPattern(Block[][] pattern, Block startBlock, Block endBlock,
-                                   int size, double noiseLevel, CurveType curveType, boolean useTopTexture) {
+    private void generateSpiralPattern(double[][] values, int size, double noiseLevel, CurveType curveType, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
         int center = size / 2;
         double maxDistance = Math.sqrt(2) * center; // Max possible distance in the grid
 
-        for (int y = 0; y < size; y++) {
+        SplittableRandom[] rows = rowRandoms(random, size);
+
+        // Rows are independent: each one has its own random stream
+        IntStream.range(0, size).parallel().forEach(y -> {
+            SplittableRandom rowRandom = rows[y];
             for (int x = 0; x < size; x++) {
                 // Calculate angle and distance
                 double dx = x - center;
@@ -218,228 +365,116 @@ public class PatternGenerator {
 
                 // Apply noise if needed
                 if (noiseLevel > 0) {
-                    double noise = (Math.random() - 0.5) * 2 * noiseLevel;
+                    double noise = (rowRandom.nextDouble() - 0.5) * 2 * noiseLevel;
                     adjustedT = Math.max(0, Math.min(1, adjustedT + noise));
                 }
 
-                pattern[y][x] = getInterpolatedBlock(startBlock, endBlock, adjustedT, useTopTexture);
+                values[y][x] = adjustedT;
             }
-        }
+        });
     }
 
     /**
-     * Generates a proper Perlin noise pattern with improved quality
-     * while maintaining compatibility with the original implementation
+     * Generates a pattern from coherent noise: the noise value at each cell becomes t
      */
-    private void generatePerlinPattern(Block[][] pattern, Block startBlock, Block endBlock,
-                                    int size, double noiseLevel, CurveType curveType, boolean useTopTexture) {
-        // Seed for consistent noise generation
-        long seed = System.currentTimeMillis();
-        
-        // Parameters for improved Perlin noise
-        int octaves = 4;          // Number of noise layers to combine
-        double persistence = 0.5; // How much each octave contributes
-        double scale = 0.1;       // Base scale factor
-        
-        // Generate noise using proper frequency and amplitude scaling
-        for (int y = 0; y < size; y++) {
+    private void generateNoisePattern(double[][] values, int size, double noiseLevel, CurveType curveType, long seed,
+                                      Noise noise) {
+        // Fine-grained noise for the requested noise level, independent from the pattern octaves
+        Noise detail = new PerlinNoise(seed + 1000);
+
+        IntStream.range(0, size).parallel().forEach(y -> {
             for (int x = 0; x < size; x++) {
-                // Generate coherent noise value using multiple octaves
-                double noise = 0;
-                double amplitude = 1.0;
-                double frequency = 1.0;
-                double maxValue = 0;
-                
-                // Sum multiple octaves of noise
-                for (int i = 0; i < octaves; i++) {
-                    // Use consistent pseudo-random values based on coordinates and octave
-                    double nx = x * scale * frequency;
-                    double ny = y * scale * frequency;
-                    
-                    // Generate coherent noise value (improved from original sine/cosine approximation)
-                    double noiseValue = perlinNoise2D(nx, ny, seed + i);
-                    
-                    // Add weighted noise to the result
-                    noise += noiseValue * amplitude;
-                    
-                    // Track the maximum possible value
-                    maxValue += amplitude;
-                    
-                    // Prepare for next octave
-                    amplitude *= persistence;
-                    frequency *= 2;
-                }
-                
-                // Normalize to [0,1] range
-                double t = noise / maxValue;
-                
-                // Map to [0,1] range more precisely
-                t = (t + 1) * 0.5;
-                
+                double t = Noise.toUnit(noise.sample(x * NOISE_SCALE, y * NOISE_SCALE));
+
                 // Apply requested easing curve
                 double adjustedT = applyEasingCurve(t, curveType);
-                
-                // Apply additional noise if requested 
+
+                // Apply additional noise if requested
                 if (noiseLevel > 0) {
-                    // Use coherent random value based on position to maintain pattern consistency
-                    double extraNoise = (perlinNoise2D(x * 0.7, y * 0.7, seed + 1000) - 0.5) * 2 * noiseLevel;
+                    double extraNoise = detail.sample(x * 0.7, y * 0.7) * noiseLevel;
                     adjustedT = Math.max(0, Math.min(1, adjustedT + extraNoise));
                 }
-                
-                // Get the interpolated block based on the noise value
-                pattern[y][x] = getInterpolatedBlock(startBlock, endBlock, adjustedT, useTopTexture);
-            }
-        }
-    }
-
-    /**
-     * Generate 2D Perlin noise at the given coordinates
-     * This is a proper implementation replacing the simple sine/cosine approximation
-     */
-    private double perlinNoise2D(double x, double y, long seed) {
-        // Integer coordinates
-        int x0 = (int)Math.floor(x);
-        int y0 = (int)Math.floor(y);
-        int x1 = x0 + 1;
-        int y1 = y0 + 1;
-        
-        // Fractional coordinates
-        double sx = x - x0;
-        double sy = y - y0;
-        
-        // Smoothly interpolate between grid points
-        double n0 = dotGridGradient(x0, y0, x, y, seed);
-        double n1 = dotGridGradient(x1, y0, x, y, seed);
-        double ix0 = smoothInterpolate(n0, n1, sx);
-        
-        double n2 = dotGridGradient(x0, y1, x, y, seed);
-        double n3 = dotGridGradient(x1, y1, x, y, seed);
-        double ix1 = smoothInterpolate(n2, n3, sx);
-        
-        return smoothInterpolate(ix0, ix1, sy);
-    }
-
-    /**
-     * Calculate dot product of gradient and distance vectors
-     */
-    private double dotGridGradient(int ix, int iy, double x, double y, long seed) {
-        // Get gradient vector for grid point
-        double[] gradient = getRandomGradient(ix, iy, seed);
-        
-        // Distance vector from grid point to (x,y)
-        double dx = x - ix;
-        double dy = y - iy;
-        
-        // Dot product
-        return dx * gradient[0] + dy * gradient[1];
-    }
-
-    /**
-     * Get a deterministic random gradient vector for the given coordinates
-     */
-    private double[] getRandomGradient(int x, int y, long seed) {
-        // Create a deterministic hash for the coordinates
-        int hash = (x * 73856093) ^ (y * 19349663) ^ (int)seed;
-        hash = hash & 0x7fffffff; // Ensure positive
-        
-        // Convert hash to angle
-        double angle = (hash % 1000) / 1000.0 * 2 * Math.PI;
-        
-        // Create normalized gradient vector
-        return new double[] {Math.cos(angle), Math.sin(angle)};
-    }
 
-    /**
-     * Smooth interpolation function (improved from linear)
-     */
-    private double smoothInterpolate(double a, double b, double t) {
-        // Use improved smoothstep function for more natural transitions
-        t = t * t * (3 - 2 * t);
-        return a + t * (b - a);
+                values[y][x] = adjustedT;
+            }
+        });
     }
 
     /**
-     * Generates a Voronoi pattern
+     * Generates a Voronoi pattern: each cell takes the value of its nearest site
      */
-    private void generateVoronoiPattern(Block[][] pattern, Block startBlock, Block endBlock,
-                                     int size, double noiseLevel, CurveType curveType, boolean useTopTexture) {
-        // Generate random points for Voronoi cells
-        int points = 10;
-        double[][] seeds = new double[points][2];
-        for (int i = 0; i < points; i++) {
-            seeds[i][0] = Math.random() * size;
-            seeds[i][1] = Math.random() * size;
-        }
-
-        for (int y = 0; y < size; y++) {
+    private void generateVoronoiPattern(double[][] values, int size, double noiseLevel, CurveType curveType, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        WorleyNoise sites = new WorleyNoise(random, siteCount, size);
+        SplittableRandom[] rows = rowRandoms(random, size);
+
+        // Rows are independent: each one has its own random stream
+        IntStream.range(0, size).parallel().forEach(y -> {
+            SplittableRandom rowRandom = rows[y];
+            WorleyNoise.Result nearest = new WorleyNoise.Result();
             for (int x = 0; x < size; x++) {
-                double minDist = Double.POSITIVE_INFINITY;
-                double t = 0;
-
-                for (int i = 0; i < points; i++) {
-                    double dx = x - seeds[i][0];
-                    double dy = y - seeds[i][1];
-                    double dist = Math.sqrt(dx * dx + dy * dy);
-                    if (dist < minDist) {
-                        minDist = dist;
-                        t = (double) i / (points - 1); // Linear interpolation based on point index
-                    }
-                }
+                sites.query(x, y, nearest);
+                double t = siteCount > 1 ? (double) nearest.getSite() / (siteCount - 1) : 0;
 
                 double adjustedT = applyEasingCurve(t, curveType);
                 if (noiseLevel > 0) {
-                    double noise = (Math.random() - 0.5) * 2 * noiseLevel;
+                    double noise = (rowRandom.nextDouble() - 0.5) * 2 * noiseLevel;
                     adjustedT = Math.max(0, Math.min(1, adjustedT + noise));
                 }
 
-                pattern[y][x] = getInterpolatedBlock(startBlock, endBlock, adjustedT, useTopTexture);
+                values[y][x] = adjustedT;
             }
-        }
+        });
     }
 
 
     /**
-     * Generates a Cellular pattern
+     * Generates a Cellular pattern from the selected Worley distance
      */
-    private void generateCellularPattern(Block[][] pattern, Block startBlock, Block endBlock,
-                                      int size, double noiseLevel, CurveType curveType, boolean useTopTexture) {
-        int points = 20;
-        double[][] seeds = new double[points][2];
-        for (int i = 0; i < points; i++) {
-            seeds[i][0] = Math.random() * size;
-            seeds[i][1] = Math.random() * size;
-        }
-
-        for (int y = 0; y < size; y++) {
+    private void generateCellularPattern(double[][] values, int size, double noiseLevel, CurveType curveType, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        WorleyNoise sites = new WorleyNoise(random, siteCount, size);
+        WorleyNoise.Distance distance = distanceMode;
+        SplittableRandom[] rows = rowRandoms(random, size);
+
+        // Distances scale with the site spacing, so the pattern keeps its contrast whatever the site count
+        double spacing = sites.getSpacing();
+
+        // Rows are independent: each one has its own random stream
+        IntStream.range(0, size).parallel().forEach(y -> {
+            SplittableRandom rowRandom = rows[y];
+            WorleyNoise.Result nearest = new WorleyNoise.Result();
             for (int x = 0; x < size; x++) {
-                double minDist = Double.POSITIVE_INFINITY;
-                double t = 0;
-
-                for (int i = 0; i < points; i++) {
-                    double dx = x - seeds[i][0];
-                    double dy = y - seeds[i][1];
-                    double dist = Math.sqrt(dx * dx + dy * dy);
-                    if (dist < minDist) {
-                        minDist = dist;
-                        t = Math.min(1.0, dist / (size / 2)); // Normalize distance
-                    }
-                }
+                sites.query(x, y, nearest);
+                double t = Math.min(1.0, nearest.get(distance) / spacing); // Normalize distance
 
                 double adjustedT = applyEasingCurve(1 - t, curveType); // Invert for cellular effect
                 if (noiseLevel > 0) {
-                    double noise = (Math.random() - 0.5) * 2 * noiseLevel;
+                    double noise = (rowRandom.nextDouble() - 0.5) * 2 * noiseLevel;
                     adjustedT = Math.max(0, Math.min(1, adjustedT + noise));
                 }
 
-                pattern[y][x] = getInterpolatedBlock(startBlock, endBlock, adjustedT, useTopTexture);
+                values[y][x] = adjustedT;
             }
+        });
+    }
+
+    /**
+     * Splits one random stream per row, in row order, so the noise of a row
+     * does not depend on the thread that generates it
+     */
+    private static SplittableRandom[] rowRandoms(SplittableRandom random, int size) {
+        SplittableRandom[] rows = new SplittableRandom[size];
+        for (int y = 0; y < size; y++) {
+            rows[y] = random.split();
         }
+        return rows;
     }
 
     /**
      * Apply easing curve to the transition
      */
-    private double applyEasingCurve(double t, CurveType curveType) {
+    static double applyEasingCurve(double t, CurveType curveType) {
         switch (curveType) {
             case EASE_IN:
                 return t * t; // Quadratic ease in
@@ -454,38 +489,112 @@ public class PatternGenerator {
     }
 
     /**
-     * Get interpolated block between start and end blocks based on t parameter (0 to 1)
+     * Converts the interpolation parameter of every cell into a block.
+     * The block only depends on t, so the gradient is matched once into a ramp
+     * and every cell is then a single array load, whatever the pattern size.
+     * Quantizing t can only move a cell to the neighbouring band where two bands meet.
+     */
+    private Block[][] resolveBlocks(double[][] values, Block startBlock, Block endBlock, int size, boolean useTopTexture) {
+        Block[] ramp = buildRamp(startBlock, endBlock, useTopTexture);
+
+        Block[][] pattern = new Block[size][size];
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                pattern[y][x] = lookupRamp(ramp, values[y][x], startBlock, endBlock);
+            }
+        }
+        return pattern;
+    }
+
+    /**
+     * Returns the distinct blocks of the gradient between two blocks, in order.
+     * These are the bands a pattern between the two blocks is made of.
+     *
+     * @param startBlock The block the gradient starts with
+     * @param endBlock The block the gradient ends with
+     * @param useTopTexture Whether to use the top texture or side texture
+     * @return The blocks, from startBlock to endBlock, without consecutive duplicates
+     */
+    public List<Block> getBlockBands(Block startBlock, Block endBlock, boolean useTopTexture) {
+        List<Block> bands = new ArrayList<>();
+        bands.add(startBlock);
+        for (Block block : buildRamp(startBlock, endBlock, useTopTexture)) {
+            if (block != null && block != bands.get(bands.size() - 1)) {
+                bands.add(block);
+            }
+        }
+        if (bands.get(bands.size() - 1) != endBlock) {
+            bands.add(endBlock);
+        }
+        return bands;
+    }
+
+    /**
+     * Matches RAMP_SIZE evenly spaced colors between the two blocks in a single
+     * batch call. Entry k holds the block for t = k / (RAMP_SIZE - 1).
+     */
+    private Block[] buildRamp(Block startBlock, Block endBlock, boolean useTopTexture) {
+        Palette palette = TextureManager.getInstance().getPalette();
+        int[] indices = buildIndexRamp(palette, startBlock, endBlock, useTopTexture);
+
+        Block[] ramp = new Block[RAMP_SIZE];
+        for (int k = 0; k < RAMP_SIZE; k++) {
+            ramp[k] = indices[k] < 0 ? null : palette.getBlock(indices[k]);
+        }
+        return ramp;
+    }
+
+    /**
+     * Same ramp as palette indices (-1 where the filter leaves no block), for
+     * generators that store indices instead of blocks.
      */
-    private Block getInterpolatedBlock(Block startBlock, Block endBlock, double t, boolean useTopTexture) {
-        // For exact endpoints, return those blocks
-        if (t <= 0.0) return startBlock;
-        if (t >= 1.0) return endBlock;
-    
+    int[] buildIndexRamp(Palette palette, Block startBlock, Block endBlock, boolean useTopTexture) {
         // Get average colors
         Color startColor = useTopTexture ? startBlock.getAverageTopColor() : startBlock.getAverageSideColor();
         Color endColor = useTopTexture ? endBlock.getAverageTopColor() : endBlock.getAverageSideColor();
-    
-        if (startColor == null || endColor == null) {
-            // If still null, use black as fallback
-            if (startColor == null) startColor = Color.BLACK;
-            if (endColor == null) endColor = Color.BLACK;
+
+        // If still null, use black as fallback
+        if (startColor == null) startColor = Color.BLACK;
+        if (endColor == null) endColor = Color.BLACK;
+
+        int[] colors = new int[RAMP_SIZE];
+        for (int k = 0; k < RAMP_SIZE; k++) {
+            colors[k] = interpolateColor(startColor, endColor, (double) k / (RAMP_SIZE - 1));
         }
-    
-        // Interpolate color
+
+        // Find the closest matching block for every entry at once, in a single palette snapshot
+        return TextureManager.getInstance().findClosestBlockIndices(palette, colors, useTopTexture, useLookupTable,
+                ColorMetric.RGB, filter);
+    }
+
+    /**
+     * Looks up the block for an interpolation parameter in a ramp.
+     */
+    private static Block lookupRamp(Block[] ramp, double t, Block startBlock, Block endBlock) {
+        // For exact endpoints, use those blocks
+        if (t <= 0.0) {
+            return startBlock;
+        } else if (t >= 1.0) {
+            return endBlock;
+        }
+        return ramp[(int) Math.round(t * (RAMP_SIZE - 1))];
+    }
+
+    /**
+     * Interpolates between two colors based on t parameter (0 to 1)
+     *
+     * @return The opaque interpolated color as 0xAARRGGBB
+     */
+    private int interpolateColor(Color startColor, Color endColor, double t) {
         int r = (int) (startColor.getRed() + t * (endColor.getRed() - startColor.getRed()));
         int g = (int) (startColor.getGreen() + t * (endColor.getGreen() - startColor.getGreen()));
         int b = (int) (startColor.getBlue() + t * (endColor.getBlue() - startColor.getBlue()));
-    
-        Color interpolatedColor = new Color(
-            Math.max(0, Math.min(255, r)),
-            Math.max(0, Math.min(255, g)),
-            Math.max(0, Math.min(255, b))
-        );
-    
-        // Find the closest matching block by color
-        return TextureManager.getInstance().findClosestColorBlock(interpolatedColor, useTopTexture);
+
+        r = Math.max(0, Math.min(255, r));
+        g = Math.max(0, Math.min(255, g));
+        b = Math.max(0, Math.min(255, b));
+        return 0xFF000000 | (r << 16) | (g << 8) | b;
     }
-    
 
     /**
      * Get all available pattern types
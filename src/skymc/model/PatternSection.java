@@ -0,0 +1,128 @@
+package skymc.model;
+
+/**
+ * Section de 16x16x16 blocs d'un motif en volume, comme les sections des chunks de Minecraft.
+ *
+ * Comme {@link BlockMap}, chaque bloc est un indice de palette sur 16 bits, -1 pour un
+ * bloc vide (hors du volume, dans les sections du bord). Les indices sont rangés dans
+ * l'ordre des sections de Minecraft : x varie le plus vite, puis z, puis y.
+ */
+public final class PatternSection {
+    /**
+     * Côté d'une section, en blocs.
+     */
+    public static final int SIZE = 16;
+
+    /**
+     * Nombre de blocs d'une section.
+     */
+    public static final int VOLUME = SIZE * SIZE * SIZE;
+
+    /**
+     * Indice d'un bloc vide.
+     */
+    public static final short EMPTY = -1;
+
+    private final Palette palette;
+    private final int sectionX;
+    private final int sectionY;
+    private final int sectionZ;
+    private final short[] indices;
+
+    /**
+     * @param palette Palette dans laquelle les indices ont été calculés
+     * @param sectionX Position de la section en x, en sections
+     * @param sectionY Position de la section en y, en sections
+     * @param sectionZ Position de la section en z, en sections
+     * @param indices {@link #VOLUME} indices de palette, dans l'ordre de {@link #index(int, int, int)}
+     */
+    public PatternSection(Palette palette, int sectionX, int sectionY, int sectionZ, short[] indices) {
+        if (indices.length != VOLUME) {
+            throw new IllegalArgumentException("Une section attend " + VOLUME + " indices, " + indices.length + " reçus");
+        }
+        this.palette = palette;
+        this.sectionX = sectionX;
+        this.sectionY = sectionY;
+        this.sectionZ = sectionZ;
+        this.indices = indices;
+    }
+
+    /**
+     * Position d'un bloc dans le tableau des indices.
+     *
+     * @param x Position dans la section, de 0 à 15
+     * @param y Position dans la section, de 0 à 15
+     * @param z Position dans la section, de 0 à 15
+     * @return L'indice dans {@link #getPaletteIndices()}
+     */
+    public static int index(int x, int y, int z) {
+        return (y * SIZE + z) * SIZE + x;
+    }
+
+    public Palette getPalette() {
+        return palette;
+    }
+
+    public int getSectionX() {
+        return sectionX;
+    }
+
+    public int getSectionY() {
+        return sectionY;
+    }
+
+    public int getSectionZ() {
+        return sectionZ;
+    }
+
+    /**
+     * @return Position x du premier bloc de la section, en blocs
+     */
+    public int getOriginX() {
+        return sectionX * SIZE;
+    }
+
+    /**
+     * @return Position y du premier bloc de la section, en blocs
+     */
+    public int getOriginY() {
+        return sectionY * SIZE;
+    }
+
+    /**
+     * @return Position z du premier bloc de la section, en blocs
+     */
+    public int getOriginZ() {
+        return sectionZ * SIZE;
+    }
+
+    /**
+     * @param x Position dans la section, de 0 à 15
+     * @param y Position dans la section, de 0 à 15
+     * @param z Position dans la section, de 0 à 15
+     * @return L'indice de palette du bloc, ou {@link #EMPTY}
+     */
+    public int getPaletteIndex(int x, int y, int z) {
+        return indices[index(x, y, z)];
+    }
+
+    /**
+     * @param x Position dans la section, de 0 à 15
+     * @param y Position dans la section, de 0 à 15
+     * @param z Position dans la section, de 0 à 15
+     * @return Le bloc, ou null pour un bloc vide
+     */
+    public Block getBlock(int x, int y, int z) {
+        int index = indices[index(x, y, z)];
+        return index < 0 ? null : palette.getBlock(index);
+    }
+
+    /**
+     * Donne accès aux indices sans copie, par exemple pour les écrire dans un fichier.
+     *
+     * @return Le tableau des indices, à ne pas modifier
+     */
+    public short[] getPaletteIndices() {
+        return indices;
+    }
+}
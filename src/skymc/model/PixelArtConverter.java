@@ -3,6 +3,7 @@ package skymc.model;
 import java.awt.Color;
 import java.awt.Graphics2D;
 import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
 import java.io.File;
 import java.io.IOException;
 import javax.imageio.ImageIO;
@@ -12,8 +13,19 @@ import javax.imageio.ImageIO;
  */
 public class PixelArtConverter {
     
+    /**
+     * Taille maximale (en pixels, sur chaque côté) d'un rendu gardé en mémoire, de l'ordre
+     * de la taille d'affichage. Au-delà, l'aperçu est réduit et l'image complète n'est
+     * produite que par {@link #exportPixelArt(BlockMap, File)}.
+     */
+    public static final int MAX_PREVIEW_SIZE = 2048;
+    
     private TextureManager textureManager;
+    private PixelArtRenderer renderer;
     private boolean useTopTexture = true;
+    private boolean useLookupTable = false;
+    private ColorMetric colorMetric = ColorMetric.RGB;
+    private PaletteFilter filter;
     private int blockSize = 16; // Taille en pixels des blocs dans le rendu final
     
     /**
@@ -21,6 +33,7 @@ public class PixelArtConverter {
      */
     public PixelArtConverter() {
         this.textureManager = TextureManager.getInstance();
+        this.renderer = new PixelArtRenderer();
     }
     
     /**
@@ -32,6 +45,36 @@ public class PixelArtConverter {
         this.useTopTexture = useTopTexture;
     }
     
+    /**
+     * Active le mode table de correspondance : chaque pixel est associé à un bloc
+     * par une simple lecture dans une table RGB → bloc précalculée, au lieu d'une
+     * recherche dans la palette. Plus rapide pour les grandes conversions, au prix
+     * d'une légère quantification des couleurs.
+     * 
+     * @param useLookupTable true pour utiliser la table de correspondance
+     */
+    public void setUseLookupTable(boolean useLookupTable) {
+        this.useLookupTable = useLookupTable;
+    }
+    
+    /**
+     * Définit la mesure de distance utilisée pour associer chaque pixel à un bloc.
+     * 
+     * @param colorMetric Mesure de distance (RGB, CIELAB, OKLab, CIEDE2000…)
+     */
+    public void setColorMetric(ColorMetric colorMetric) {
+        this.colorMetric = colorMetric;
+    }
+    
+    /**
+     * Restreint les blocs utilisables à ceux gardés par un filtre.
+     * 
+     * @param filter Filtre de la palette (null pour utiliser tous les blocs)
+     */
+    public void setFilter(PaletteFilter filter) {
+        this.filter = filter;
+    }
+    
     /**
      * Charge une image depuis un fichier.
      * 
@@ -43,6 +86,31 @@ public class PixelArtConverter {
         return ImageIO.read(new File(filePath));
     }
     
+    /**
+     * Associe chaque pixel de l'image, redimensionnée à la taille désirée, au bloc le
+     * plus proche. C'est le résultat principal de la conversion : le rendu, la commande
+     * FAWE, les statistiques et l'export se font tous à partir de cette grille.
+     * 
+     * @param sourceImage Image source
+     * @param width Largeur désirée en blocs
+     * @param height Hauteur désirée en blocs (si -1, calculée proportionnellement)
+     * @return La grille des blocs choisis
+     */
+    public BlockMap createBlockMap(BufferedImage sourceImage, int width, int height) {
+        BufferedImage resizedImage = resize(sourceImage, width, height);
+        width = resizedImage.getWidth();
+        height = resizedImage.getHeight();
+        
+        // Trouver en un seul lot le bloc le plus proche de chaque pixel (-1 si transparent),
+        // dans l'instantané de la palette que la grille conservera
+        Palette palette = textureManager.getPalette();
+        int[] pixels = resizedImage.getRGB(0, 0, width, height, null, 0, width);
+        int[] blockIndices = textureManager.findClosestBlockIndices(palette, pixels, useTopTexture, useLookupTable,
+                colorMetric, filter);
+        
+        return new BlockMap(palette, useTopTexture, width, height, blockIndices);
+    }
+    
     /**
      * Convertit une image en pixel art fait de blocs Minecraft.
      * 
@@ -52,6 +120,115 @@ public class PixelArtConverter {
      * @return Image du pixel art généré
      */
     public BufferedImage convertToPixelArt(BufferedImage sourceImage, int width, int height) {
+        return renderPixelArt(createBlockMap(sourceImage, width, height));
+    }
+    
+    /**
+     * Dessine une grille de blocs en taille réelle, par bandes de lignes en parallèle.
+     * 
+     * @param blockMap Grille des blocs
+     * @return Image du pixel art
+     */
+    public BufferedImage renderPixelArt(BlockMap blockMap) {
+        return renderer.render(blockMap, getAtlas(blockMap, blockSize));
+    }
+    
+    /**
+     * Indique si le rendu en taille réelle dépasse {@link #MAX_PREVIEW_SIZE} et doit
+     * donc passer par un aperçu réduit et un export en flux.
+     * 
+     * @param blockMap Grille des blocs
+     * @return true si le rendu est trop grand pour être gardé en mémoire
+     */
+    public boolean exceedsPreviewSize(BlockMap blockMap) {
+        return (long) Math.max(blockMap.getWidth(), blockMap.getHeight()) * blockSize > MAX_PREVIEW_SIZE;
+    }
+    
+    /**
+     * Dessine une grille de blocs en réduction, de sorte qu'aucun côté ne dépasse
+     * {@link #MAX_PREVIEW_SIZE} pixels. Les blocs sont simplement dessinés plus petits ;
+     * s'il y a plus de blocs que de pixels, chaque pixel prend la couleur moyenne du
+     * bloc qu'il recouvre.
+     * 
+     * @param blockMap Grille des blocs
+     * @return Aperçu du pixel art
+     */
+    public BufferedImage renderPreview(BlockMap blockMap) {
+        int largestSide = Math.max(blockMap.getWidth(), blockMap.getHeight());
+        if (largestSide > MAX_PREVIEW_SIZE) {
+            return renderAverageColors(blockMap, (double) MAX_PREVIEW_SIZE / largestSide);
+        }
+        int previewBlockSize = Math.max(1, Math.min(blockSize, MAX_PREVIEW_SIZE / largestSide));
+        
+        return renderer.render(blockMap, getAtlas(blockMap, previewBlockSize));
+    }
+    
+    /**
+     * Aperçu à moins d'un pixel par bloc : chaque pixel prend la couleur moyenne du bloc
+     * le plus proche de son centre.
+     */
+    private BufferedImage renderAverageColors(BlockMap blockMap, double scale) {
+        int width = Math.max(1, (int) (blockMap.getWidth() * scale));
+        int height = Math.max(1, (int) (blockMap.getHeight() * scale));
+        BufferedImage preview = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        int[] pixels = ((DataBufferInt) preview.getRaster().getDataBuffer()).getData();
+        
+        // Couleur de chaque bloc de la palette, calculée à la première rencontre
+        Palette palette = blockMap.getPalette();
+        int[] colors = new int[palette.size()];
+        boolean[] known = new boolean[palette.size()];
+        
+        for (int py = 0; py < height; py++) {
+            int y = Math.min(blockMap.getHeight() - 1, (int) ((py + 0.5) / scale));
+            for (int px = 0; px < width; px++) {
+                int x = Math.min(blockMap.getWidth() - 1, (int) ((px + 0.5) / scale));
+                int index = blockMap.getIndex(x, y);
+                if (index < 0) {
+                    continue;
+                }
+                if (!known[index]) {
+                    Color color = palette.getBlock(index).getAverageColor(blockMap.isTopTexture());
+                    colors[index] = color == null ? 0 : color.getRGB();
+                    known[index] = true;
+                }
+                pixels[py * width + px] = colors[index];
+            }
+        }
+        return preview;
+    }
+    
+    /**
+     * Écrit le pixel art en taille réelle directement dans un fichier PNG, par bandes
+     * de lignes. L'image complète n'est jamais construite en mémoire, ce qui permet
+     * des rendus bien plus grands que le tas disponible.
+     * 
+     * @param blockMap Grille des blocs
+     * @param file Fichier PNG de destination
+     * @throws IOException Si une erreur survient lors de l'écriture
+     */
+    public void exportPixelArt(BlockMap blockMap, File file) throws IOException {
+        long start = System.currentTimeMillis();
+        try (PngStreamWriter writer = new PngStreamWriter(file,
+                blockMap.getWidth() * blockSize, blockMap.getHeight() * blockSize)) {
+            renderer.renderStreaming(blockMap, getAtlas(blockMap, blockSize),
+                    (pixels, rows) -> writer.writeRows(pixels, 0, rows));
+        }
+        System.out.println("Exported " + blockMap.getWidth() + "x" + blockMap.getHeight()
+                + " blocks to " + file.getName() + " in " + (System.currentTimeMillis() - start) + " ms");
+    }
+    
+    /**
+     * Obtient l'atlas de la palette d'une grille. Celui du TextureManager est réutilisé
+     * tant que les textures n'ont pas été rechargées depuis la création de la grille.
+     */
+    private TextureAtlas getAtlas(BlockMap blockMap, int tileSize) {
+        return textureManager.getAtlas(blockMap.getPalette(), tileSize);
+    }
+    
+    /**
+     * Redimensionne l'image source à un pixel par bloc.
+     */
+    private BufferedImage resize(BufferedImage sourceImage, int width, int height) {
         // Si la hauteur n'est pas spécifiée, la calculer proportionnellement
         if (height <= 0) {
             height = (int) ((double) sourceImage.getHeight() / sourceImage.getWidth() * width);
@@ -63,40 +240,7 @@ public class PixelArtConverter {
         g.drawImage(sourceImage, 0, 0, width, height, null);
         g.dispose();
         
-        // Créer l'image de rendu final avec la taille des blocs
-        BufferedImage pixelArt = new BufferedImage(
-            width * blockSize,
-            height * blockSize,
-            BufferedImage.TYPE_INT_ARGB
-        );
-        Graphics2D g2 = pixelArt.createGraphics();
-        
-        // Pour chaque pixel de l'image redimensionnée
-        for (int y = 0; y < height; y++) {
-            for (int x = 0; x < width; x++) {
-                // Obtenir la couleur du pixel
-                Color pixelColor = new Color(resizedImage.getRGB(x, y), true);
-                
-                // Si le pixel est transparent, passer au suivant
-                if (pixelColor.getAlpha() < 128) {
-                    continue;
-                }
-                
-                // Trouver le bloc le plus proche en couleur
-                Block block = textureManager.findClosestColorBlock(pixelColor, useTopTexture);
-                
-                if (block != null) {
-                    // Dessiner la texture du bloc à cet emplacement
-                    BufferedImage texture = block.getTexture(useTopTexture);
-                    if (texture != null) {
-                        g2.drawImage(texture, x * blockSize, y * blockSize, blockSize, blockSize, null);
-                    }
-                }
-            }
-        }
-        g2.dispose();
-        
-        return pixelArt;
+        return resizedImage;
     }
     
     /**
@@ -114,24 +258,15 @@ public class PixelArtConverter {
     /**
      * Génère la commande FAWE (FastAsyncWorldEdit) pour créer ce pixel art dans Minecraft.
      * 
-     * @param pixelArt Image du pixel art
+     * @param blockMap Grille des blocs
      * @return La commande FAWE
      */
-    public String generateFaweCommand(BufferedImage pixelArt) {
+    public String generateFaweCommand(BlockMap blockMap) {
         StringBuilder command = new StringBuilder("//set pattern:");
         
-        int width = pixelArt.getWidth() / blockSize;
-        int height = pixelArt.getHeight() / blockSize;
-        
-        for (int y = 0; y < height; y++) {
-            for (int x = 0; x < width; x++) {
-                Color pixelColor = new Color(pixelArt.getRGB(x * blockSize, y * blockSize), true);
-                
-                if (pixelColor.getAlpha() < 128) {
-                    continue;
-                }
-                
-                Block block = textureManager.findClosestColorBlock(pixelColor, useTopTexture);
+        for (int y = 0; y < blockMap.getHeight(); y++) {
+            for (int x = 0; x < blockMap.getWidth(); x++) {
+                Block block = blockMap.getBlock(x, y);
                 
                 if (block != null) {
                     command.append(block.getName()).append(",");
@@ -0,0 +1,165 @@
+package skymc.model;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Moteur de rendu du pixel art par bandes de lignes.
+ *
+ * La grille de blocs ({@link BlockMap}) est découpée en bandes horizontales traitées en
+ * parallèle sur un {@link ForkJoinPool} : chaque bande copie dans ses cases les tuiles
+ * d'un {@link TextureAtlas}. Les bandes écrivent dans des zones disjointes du même
+ * tableau de pixels, il n'y a donc ni verrou ni fusion à faire, et le résultat ne
+ * dépend pas du découpage.
+ */
+public class PixelArtRenderer {
+    /**
+     * Nombre de lignes de blocs par bande, par défaut.
+     */
+    public static final int DEFAULT_BAND_ROWS = 8;
+
+    // Nombre maximal de pixels d'une bande en mode flux (32 Mo en ARGB)
+    private static final int STREAM_BAND_PIXELS = 8 * 1024 * 1024;
+
+    private final ForkJoinPool pool;
+    private final int bandRows;
+
+    /**
+     * Crée un moteur utilisant le pool commun et la taille de bande par défaut.
+     */
+    public PixelArtRenderer() {
+        this(ForkJoinPool.commonPool(), DEFAULT_BAND_ROWS);
+    }
+
+    /**
+     * @param pool Pool d'exécution des bandes
+     * @param bandRows Nombre de lignes de blocs par bande (au moins 1)
+     */
+    public PixelArtRenderer(ForkJoinPool pool, int bandRows) {
+        if (bandRows < 1) {
+            throw new IllegalArgumentException("Une bande doit contenir au moins une ligne : " + bandRows);
+        }
+        this.pool = pool;
+        this.bandRows = bandRows;
+    }
+
+    /**
+     * Rend une grille de blocs en pixel art.
+     *
+     * @param blockMap Grille des blocs
+     * @param atlas Tuiles des blocs, construites pour la palette de la grille ; leur
+     *              taille est celle d'un bloc dans le rendu
+     * @return L'image du pixel art
+     */
+    public BufferedImage render(BlockMap blockMap, TextureAtlas atlas) {
+        checkPalette(blockMap, atlas);
+        BufferedImage pixelArt = atlas.createImage(blockMap.getWidth(), blockMap.getHeight());
+
+        pool.invoke(new BandTask(blockMap, atlas, TextureAtlas.getPixels(pixelArt), pixelArt.getWidth(),
+                0, 0, blockMap.getHeight()));
+        return pixelArt;
+    }
+
+    /**
+     * Rend le pixel art par bandes successives sans jamais construire l'image complète.
+     * Chaque bande est rendue en parallèle puis transmise à {@code sink} avant de
+     * passer à la suivante : la mémoire utilisée dépend de la largeur, pas de la hauteur.
+     *
+     * @param blockMap Grille des blocs
+     * @param atlas Tuiles des blocs, construites pour la palette de la grille
+     * @param sink Destination des lignes de pixels, dans l'ordre
+     * @throws IOException Si la destination échoue
+     */
+    public void renderStreaming(BlockMap blockMap, TextureAtlas atlas, RowSink sink) throws IOException {
+        checkPalette(blockMap, atlas);
+        int blockSize = atlas.getTileSize();
+        int height = blockMap.getHeight();
+        int pixelWidth = blockMap.getWidth() * blockSize;
+        long pixelsPerBlockRow = (long) pixelWidth * blockSize;
+        int rowsPerBand = (int) Math.max(1, Math.min(height, STREAM_BAND_PIXELS / pixelsPerBlockRow));
+
+        int[] band = new int[rowsPerBand * blockSize * pixelWidth];
+
+        for (int fromRow = 0; fromRow < height; fromRow += rowsPerBand) {
+            int toRow = Math.min(height, fromRow + rowsPerBand);
+            Arrays.fill(band, 0);
+            pool.invoke(new BandTask(blockMap, atlas, band, pixelWidth, fromRow, fromRow, toRow));
+            sink.writeRows(band, (toRow - fromRow) * blockSize);
+        }
+    }
+
+    private static void checkPalette(BlockMap blockMap, TextureAtlas atlas) {
+        if (atlas.getPalette() != blockMap.getPalette()) {
+            throw new IllegalArgumentException("L'atlas n'a pas été construit pour la palette de la grille");
+        }
+    }
+
+    /**
+     * Destination des lignes produites par {@link #renderStreaming}.
+     */
+    public interface RowSink {
+        /**
+         * @param argb Pixels des lignes, à partir de l'indice 0 (largeur = largeur du rendu)
+         * @param rows Nombre de lignes de pixels valides
+         */
+        void writeRows(int[] argb, int rows) throws IOException;
+    }
+
+    /**
+     * Tâche couvrant les lignes [fromRow, toRow) ; elle se divise en deux tant
+     * qu'elle dépasse la taille d'une bande. La première ligne du tableau de
+     * destination correspond à la ligne de blocs originRow.
+     */
+    private final class BandTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final BlockMap blockMap;
+        private final TextureAtlas atlas;
+        private final int[] destination;
+        private final int destinationWidth;
+        private final int originRow;
+        private final int fromRow;
+        private final int toRow;
+
+        BandTask(BlockMap blockMap, TextureAtlas atlas, int[] destination, int destinationWidth,
+                 int originRow, int fromRow, int toRow) {
+            this.blockMap = blockMap;
+            this.atlas = atlas;
+            this.destination = destination;
+            this.destinationWidth = destinationWidth;
+            this.originRow = originRow;
+            this.fromRow = fromRow;
+            this.toRow = toRow;
+        }
+
+        @Override
+        protected void compute() {
+            if (toRow - fromRow > bandRows) {
+                int middle = (fromRow + toRow) >>> 1;
+                invokeAll(
+                    new BandTask(blockMap, atlas, destination, destinationWidth, originRow, fromRow, middle),
+                    new BandTask(blockMap, atlas, destination, destinationWidth, originRow, middle, toRow));
+                return;
+            }
+            renderBand();
+        }
+
+        private void renderBand() {
+            int width = blockMap.getWidth();
+            boolean useTopTexture = blockMap.isTopTexture();
+
+            // Copier les tuiles dans les lignes de la bande
+            for (int y = fromRow; y < toRow; y++) {
+                for (int x = 0; x < width; x++) {
+                    int index = blockMap.getIndex(x, y);
+                    if (index >= 0) {
+                        atlas.blit(index, useTopTexture, destination, destinationWidth, x, y - originRow);
+                    }
+                }
+            }
+        }
+    }
+}
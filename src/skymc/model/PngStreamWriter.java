@@ -0,0 +1,204 @@
+package skymc.model;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Encodeur PNG (RGBA 8 bits) qui écrit l'image ligne par ligne.
+ *
+ * Contrairement à ImageIO, l'image n'a jamais besoin d'être entièrement en mémoire :
+ * les lignes sont filtrées, compressées et écrites dans des blocs IDAT au fur et à
+ * mesure. La mémoire utilisée ne dépend que de la largeur de l'image.
+ */
+public class PngStreamWriter implements Closeable {
+    private static final byte[] SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+    private static final int IDAT_CHUNK_SIZE = 1 << 16;
+    private static final int FILTER_SUB = 1;
+
+    private final DataOutputStream out;
+    private final int width;
+    private final int height;
+    private final Deflater deflater;
+    private final IdatOutputStream idat;
+    private final DeflaterOutputStream compressed;
+    private final byte[] scanline;
+    private int rowsWritten;
+    private boolean closed;
+
+    /**
+     * Crée le fichier et écrit l'en-tête PNG.
+     *
+     * @param file Fichier de destination
+     * @param width Largeur de l'image en pixels
+     * @param height Hauteur de l'image en pixels
+     * @throws IOException Si une erreur survient lors de l'écriture
+     */
+    public PngStreamWriter(File file, int width, int height) throws IOException {
+        this(new BufferedOutputStream(new FileOutputStream(file), IDAT_CHUNK_SIZE), width, height);
+    }
+
+    /**
+     * Écrit l'en-tête PNG dans un flux. Le flux est fermé par {@link #close()}.
+     *
+     * @param output Flux de destination
+     * @param width Largeur de l'image en pixels
+     * @param height Hauteur de l'image en pixels
+     * @throws IOException Si une erreur survient lors de l'écriture
+     */
+    public PngStreamWriter(OutputStream output, int width, int height) throws IOException {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("Dimensions invalides : " + width + "x" + height);
+        }
+        this.out = new DataOutputStream(output);
+        this.width = width;
+        this.height = height;
+        this.scanline = new byte[1 + width * 4];
+        this.deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+        this.idat = new IdatOutputStream();
+        this.compressed = new DeflaterOutputStream(idat, deflater, IDAT_CHUNK_SIZE);
+
+        out.write(SIGNATURE);
+        byte[] header = new byte[13];
+        writeInt(header, 0, width);
+        writeInt(header, 4, height);
+        header[8] = 8;  // 8 bits par canal
+        header[9] = 6;  // RGBA
+        header[10] = 0; // compression deflate
+        header[11] = 0; // filtrage adaptatif standard
+        header[12] = 0; // pas d'entrelacement
+        writeChunk("IHDR", header, header.length);
+    }
+
+    /**
+     * @return Nombre de lignes déjà écrites
+     */
+    public int getRowsWritten() {
+        return rowsWritten;
+    }
+
+    /**
+     * Écrit des lignes de pixels, à la suite des précédentes.
+     *
+     * @param argb Pixels au format 0xAARRGGBB, ligne par ligne (largeur = largeur de l'image)
+     * @param offset Position du premier pixel dans le tableau
+     * @param rows Nombre de lignes à écrire
+     * @throws IOException Si une erreur survient lors de l'écriture
+     */
+    public void writeRows(int[] argb, int offset, int rows) throws IOException {
+        if (rowsWritten + rows > height) {
+            throw new IllegalStateException("Trop de lignes pour une image de hauteur " + height);
+        }
+
+        for (int row = 0; row < rows; row++) {
+            int pixel = offset + row * width;
+            scanline[0] = FILTER_SUB;
+
+            // Filtre « Sub » : chaque octet est codé par différence avec le pixel de gauche
+            int previous = 0;
+            for (int x = 0, i = 1; x < width; x++, i += 4) {
+                int current = argb[pixel + x];
+                scanline[i] = (byte) ((current >> 16) - (previous >> 16));
+                scanline[i + 1] = (byte) ((current >> 8) - (previous >> 8));
+                scanline[i + 2] = (byte) (current - previous);
+                scanline[i + 3] = (byte) ((current >>> 24) - (previous >>> 24));
+                previous = current;
+            }
+            compressed.write(scanline);
+        }
+        rowsWritten += rows;
+    }
+
+    /**
+     * Termine la compression, écrit la fin du fichier et ferme le flux.
+     *
+     * @throws IOException Si une erreur survient, ou si toutes les lignes n'ont pas été écrites
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            compressed.finish();
+            idat.flush();
+            writeChunk("IEND", new byte[0], 0);
+        } finally {
+            deflater.end();
+            out.close();
+        }
+        if (rowsWritten != height) {
+            throw new IOException("Image incomplète : " + rowsWritten + " lignes écrites sur " + height);
+        }
+    }
+
+    private void writeChunk(String type, byte[] data, int length) throws IOException {
+        byte[] typeBytes = type.getBytes(StandardCharsets.US_ASCII);
+        CRC32 crc = new CRC32();
+        crc.update(typeBytes);
+        crc.update(data, 0, length);
+
+        out.writeInt(length);
+        out.write(typeBytes);
+        out.write(data, 0, length);
+        out.writeInt((int) crc.getValue());
+    }
+
+    private static void writeInt(byte[] buffer, int offset, int value) {
+        buffer[offset] = (byte) (value >>> 24);
+        buffer[offset + 1] = (byte) (value >>> 16);
+        buffer[offset + 2] = (byte) (value >>> 8);
+        buffer[offset + 3] = (byte) value;
+    }
+
+    /**
+     * Reçoit les données compressées et les découpe en blocs IDAT.
+     */
+    private final class IdatOutputStream extends OutputStream {
+        private final byte[] buffer = new byte[IDAT_CHUNK_SIZE];
+        private int length;
+
+        @Override
+        public void write(int b) throws IOException {
+            if (length == buffer.length) {
+                flushChunk();
+            }
+            buffer[length++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] data, int offset, int count) throws IOException {
+            while (count > 0) {
+                if (length == buffer.length) {
+                    flushChunk();
+                }
+                int n = Math.min(count, buffer.length - length);
+                System.arraycopy(data, offset, buffer, length, n);
+                length += n;
+                offset += n;
+                count -= n;
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            flushChunk();
+        }
+
+        private void flushChunk() throws IOException {
+            if (length > 0) {
+                writeChunk("IDAT", buffer, length);
+                length = 0;
+            }
+        }
+    }
+}
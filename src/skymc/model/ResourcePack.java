@@ -0,0 +1,277 @@
+package skymc.model;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+import javax.imageio.ImageIO;
+
+/**
+ * Textures de blocs lues directement dans un pack de ressources (.zip) ou dans le
+ * .jar du client Minecraft, sans extraction sur le disque.
+ *
+ * L'archive est ouverte comme un système de fichiers ({@link FileSystems#newFileSystem})
+ * et les entrées sont lues à la demande, depuis plusieurs threads si besoin. Une texture
+ * d'un pack est désignée par le chemin de l'archive suivi de {@link #SEPARATOR} et du
+ * chemin de l'entrée, par exemple {@code packs/vanilla.jar!/assets/minecraft/textures/block/stone.png} ;
+ * ces chemins s'utilisent partout comme ceux des fichiers de {@code textures/}.
+ *
+ * Les faces sont déduites des noms de fichiers : {@code X_top.png} donne le dessus du
+ * bloc X, {@code X_side.png} son côté, et {@code X.png} sert pour les faces qui n'ont pas
+ * de fichier dédié.
+ */
+public class ResourcePack {
+    /**
+     * Séparateur entre le chemin de l'archive et celui de l'entrée.
+     */
+    public static final String SEPARATOR = "!/";
+
+    // Répertoires des textures de blocs : depuis la 1.13, puis avant
+    private static final String[] BLOCK_TEXTURE_DIRS = {
+        "assets/minecraft/textures/block/",
+        "assets/minecraft/textures/blocks/"
+    };
+
+    // Archives ouvertes, par chemin ; rouvertes si le fichier a été remplacé
+    private static final Map<String, OpenArchive> ARCHIVES = new HashMap<>();
+
+    private final File file;
+    private final Map<String, String> topTexturePaths;
+    private final Map<String, String> sideTexturePaths;
+    private final List<String> blockNames;
+
+    private ResourcePack(File file, Map<String, String> topTexturePaths, Map<String, String> sideTexturePaths,
+                         List<String> blockNames) {
+        this.file = file;
+        this.topTexturePaths = topTexturePaths;
+        this.sideTexturePaths = sideTexturePaths;
+        this.blockNames = blockNames;
+    }
+
+    /**
+     * Ouvre un pack de ressources et recense ses textures de blocs.
+     *
+     * @param file Archive .zip ou .jar
+     * @return Le pack, avec ses blocs triés par nom
+     * @throws IOException Si l'archive est illisible ou ne contient aucune texture de bloc
+     */
+    public static ResourcePack open(File file) throws IOException {
+        OpenArchive archive = acquire(file);
+        try {
+            return open(file, archive.fileSystem);
+        } finally {
+            release(archive);
+        }
+    }
+
+    private static ResourcePack open(File file, FileSystem fileSystem) throws IOException {
+        String textureDir = null;
+        for (String dir : BLOCK_TEXTURE_DIRS) {
+            if (Files.isDirectory(fileSystem.getPath(dir))) {
+                textureDir = dir;
+                break;
+            }
+        }
+        if (textureDir == null) {
+            throw new IOException("Aucune texture de bloc dans " + file.getName());
+        }
+
+        // Textures par nom de fichier, triées pour que les indices ne dépendent pas de l'archive
+        Map<String, String> entries = new TreeMap<>();
+        try (Stream<Path> paths = Files.list(fileSystem.getPath(textureDir))) {
+            paths.map(path -> path.getFileName().toString())
+                    .filter(name -> name.toLowerCase().endsWith(".png"))
+                    .forEach(name -> entries.put(name.substring(0, name.length() - 4), name));
+        }
+
+        String prefix = file.getPath() + SEPARATOR + textureDir;
+        Map<String, String> tops = new HashMap<>();
+        Map<String, String> sides = new HashMap<>();
+        Map<String, String> plain = new HashMap<>();
+        for (Map.Entry<String, String> entry : entries.entrySet()) {
+            String name = entry.getKey();
+            String path = prefix + entry.getValue();
+            if (name.endsWith("_top")) {
+                tops.put(name.substring(0, name.length() - 4), path);
+            } else if (name.endsWith("_side")) {
+                sides.put(name.substring(0, name.length() - 5), path);
+            } else {
+                plain.put(name, path);
+            }
+        }
+
+        Map<String, String> topTexturePaths = new HashMap<>();
+        Map<String, String> sideTexturePaths = new HashMap<>();
+        TreeSet<String> names = new TreeSet<>(plain.keySet());
+        names.addAll(tops.keySet());
+        names.addAll(sides.keySet());
+        for (String name : names) {
+            String top = tops.getOrDefault(name, plain.get(name));
+            String side = sides.getOrDefault(name, plain.get(name));
+            if (top != null) {
+                topTexturePaths.put(name, top);
+            }
+            if (side != null) {
+                sideTexturePaths.put(name, side);
+            }
+        }
+
+        return new ResourcePack(file, topTexturePaths, sideTexturePaths,
+                Collections.unmodifiableList(new ArrayList<>(names)));
+    }
+
+    /**
+     * @return L'archive du pack
+     */
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * @return Les noms des blocs du pack, triés
+     */
+    public List<String> getBlockNames() {
+        return blockNames;
+    }
+
+    /**
+     * @param blockName Nom du bloc
+     * @return Chemin de la texture du dessus, ou null si le bloc n'en a pas
+     */
+    public String getTopTexturePath(String blockName) {
+        return topTexturePaths.get(blockName);
+    }
+
+    /**
+     * @param blockName Nom du bloc
+     * @return Chemin de la texture latérale, ou null si le bloc n'en a pas
+     */
+    public String getSideTexturePath(String blockName) {
+        return sideTexturePaths.get(blockName);
+    }
+
+    /**
+     * @param path Chemin d'une texture
+     * @return true si la texture se trouve dans un pack de ressources
+     */
+    public static boolean isPackPath(String path) {
+        return path.contains(SEPARATOR);
+    }
+
+    /**
+     * Obtient le fichier qui contient une texture : l'archive pour une texture de pack,
+     * le fichier lui-même sinon. Sa taille et sa date servent d'empreinte aux caches.
+     *
+     * @param path Chemin d'une texture
+     * @return Le fichier sur le disque
+     */
+    public static File getSourceFile(String path) {
+        int separator = path.indexOf(SEPARATOR);
+        return new File(separator < 0 ? path : path.substring(0, separator));
+    }
+
+    /**
+     * Lit une texture d'un pack. Les textures animées, rangées en bande verticale
+     * d'images carrées, sont réduites à leur première image.
+     *
+     * @param path Chemin de la texture (voir {@link #isPackPath(String)})
+     * @return L'image lue, ou null si son format n'est pas reconnu
+     * @throws IOException Si l'archive ou l'entrée ne peut pas être lue
+     */
+    static BufferedImage readImage(String path) throws IOException {
+        int separator = path.indexOf(SEPARATOR);
+        OpenArchive archive = acquire(new File(path.substring(0, separator)));
+
+        BufferedImage image;
+        try (InputStream in = Files.newInputStream(
+                archive.fileSystem.getPath(path.substring(separator + SEPARATOR.length())))) {
+            image = ImageIO.read(in);
+        } finally {
+            release(archive);
+        }
+        if (image != null && image.getHeight() > image.getWidth() && image.getHeight() % image.getWidth() == 0) {
+            image = image.getSubimage(0, 0, image.getWidth(), image.getWidth());
+        }
+        return image;
+    }
+
+    /**
+     * Obtient le système de fichiers d'une archive, en l'ouvrant au premier appel ou en
+     * ouvrant une nouvelle instance si l'archive a été remplacée depuis, et le réserve
+     * jusqu'à l'appel de {@link #release(OpenArchive)}.
+     *
+     * L'instance remplacée n'est pas fermée tout de suite : des lectures lancées en
+     * parallèle peuvent encore l'utiliser. Elle est fermée par la dernière d'entre elles.
+     */
+    private static OpenArchive acquire(File file) throws IOException {
+        String key = file.getAbsolutePath();
+        long lastModified = file.lastModified();
+        synchronized (ARCHIVES) {
+            OpenArchive archive = ARCHIVES.get(key);
+            if (archive != null && archive.lastModified != lastModified) {
+                ARCHIVES.remove(key);
+                archive.retired = true;
+                closeIfUnused(archive);
+                archive = null;
+            }
+            if (archive == null) {
+                if (!file.isFile()) {
+                    throw new IOException("Pack de ressources introuvable : " + file.getPath());
+                }
+                archive = new OpenArchive(FileSystems.newFileSystem(file.toPath(), (ClassLoader) null), lastModified);
+                ARCHIVES.put(key, archive);
+            }
+            archive.users++;
+            return archive;
+        }
+    }
+
+    /**
+     * Libère une archive obtenue par {@link #acquire(File)}.
+     */
+    private static void release(OpenArchive archive) {
+        synchronized (ARCHIVES) {
+            archive.users--;
+            closeIfUnused(archive);
+        }
+    }
+
+    // Appelée sous le verrou de ARCHIVES
+    private static void closeIfUnused(OpenArchive archive) {
+        if (archive.retired && archive.users == 0) {
+            try {
+                archive.fileSystem.close();
+            } catch (IOException e) {
+                System.err.println("Erreur lors de la fermeture d'un pack de ressources: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Archive ouverte, date du fichier au moment de l'ouverture et lectures en cours.
+     */
+    private static final class OpenArchive {
+        private final FileSystem fileSystem;
+        private final long lastModified;
+        // Protégés par le verrou de ARCHIVES
+        private int users;
+        private boolean retired;
+
+        OpenArchive(FileSystem fileSystem, long lastModified) {
+            this.fileSystem = fileSystem;
+            this.lastModified = lastModified;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package skymc.model;
+
+/**
+ * Implémentation scalaire du noyau du plus proche voisin.
+ * Utilisée lorsque l'API Vector (module jdk.incubator.vector) n'est pas disponible.
+ */
+public class ScalarNearestColorKernel implements NearestColorKernel {
+
+    @Override
+    public int nearest(float[] xs, float[] ys, float[] zs, int count, float x, float y, float z) {
+        int best = -1;
+        float bestDistance = Float.MAX_VALUE;
+
+        for (int i = 0; i < count; i++) {
+            float dx = xs[i] - x;
+            float dy = ys[i] - y;
+            float dz = zs[i] - z;
+            float distance = dx * dx + dy * dy + dz * dz;
+
+            if (distance < bestDistance) {
+                bestDistance = distance;
+                best = i;
+            }
+        }
+
+        return best;
+    }
+
+    @Override
+    public void distances(float[] xs, float[] ys, float[] zs, int count, float x, float y, float z, float[] out) {
+        for (int i = 0; i < count; i++) {
+            float dx = xs[i] - x;
+            float dy = ys[i] - y;
+            float dz = zs[i] - z;
+            out[i] = dx * dx + dy * dy + dz * dz;
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "scalar";
+    }
+}
@@ -0,0 +1,235 @@
+package skymc.model;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Écrit un motif en volume au format schematic de Sponge (version 2, fichiers .schem),
+ * lu par WorldEdit et FAWE, à mesure que {@link VolumePatternGenerator} remet les sections.
+ *
+ * Le format range les blocs couche par couche (y, puis z, puis x) : une tranche de
+ * sections de même hauteur forme donc une suite continue du fichier. Les sections sont
+ * gardées jusqu'à ce que leur tranche soit complète, puis la tranche est écrite dans un
+ * fichier temporaire et libérée ; seul le tableau final des blocs, dont la longueur
+ * n'est connue qu'à la fin, est recopié dans le schematic à la fermeture. Comme le
+ * générateur remet les tranches de bas en haut, au plus une tranche est gardée à la fois.
+ *
+ * Les blocs vides ({@link PatternSection#EMPTY}) deviennent de l'air. Les blocs sont
+ * nommés d'après leur texture, comme dans la commande FAWE du pixel art.
+ */
+public class SchematicWriter implements VolumePatternGenerator.SectionConsumer, Closeable {
+    private static final int SCHEMATIC_VERSION = 2;
+    // Minecraft 1.20.1
+    private static final int DATA_VERSION = 3465;
+    private static final String AIR = "minecraft:air";
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private static final int TAG_END = 0;
+    private static final int TAG_SHORT = 2;
+    private static final int TAG_INT = 3;
+    private static final int TAG_BYTE_ARRAY = 7;
+    private static final int TAG_COMPOUND = 10;
+
+    private final File file;
+    private final int width;
+    private final int height;
+    private final int length;
+    private final int sectionsX;
+    private final int sectionsZ;
+    private final int slabCount;
+
+    private final File blockDataFile;
+    private final OutputStream blockData;
+    private long blockDataLength;
+
+    // Tranches reçues en partie ou en attente des tranches précédentes
+    private final Map<Integer, PatternSection[]> pendingSlabs = new HashMap<>();
+    private final Map<Integer, Integer> pendingCounts = new HashMap<>();
+    private int nextSlab;
+
+    // Identifiant de chaque bloc dans le schematic, attribué à la première écriture
+    private final Map<String, Integer> stateIds = new LinkedHashMap<>();
+    private Palette palette;
+    private int[] paletteIds;
+    private int airId = -1;
+    private boolean closed;
+
+    /**
+     * Prépare l'écriture d'un volume. Le schematic n'est écrit qu'à la fermeture.
+     *
+     * @param file Fichier .schem de destination
+     * @param width Largeur du volume (x), en blocs
+     * @param height Hauteur du volume (y), en blocs
+     * @param length Profondeur du volume (z), en blocs
+     * @throws IOException Si le fichier temporaire ne peut pas être créé
+     */
+    public SchematicWriter(File file, int width, int height, int length) throws IOException {
+        if (width < 1 || height < 1 || length < 1 || width > 0xFFFF || height > 0xFFFF || length > 0xFFFF) {
+            throw new IllegalArgumentException("Dimensions invalides : " + width + "x" + height + "x" + length);
+        }
+        this.file = file;
+        this.width = width;
+        this.height = height;
+        this.length = length;
+        this.sectionsX = (width + PatternSection.SIZE - 1) / PatternSection.SIZE;
+        this.sectionsZ = (length + PatternSection.SIZE - 1) / PatternSection.SIZE;
+        this.slabCount = (height + PatternSection.SIZE - 1) / PatternSection.SIZE;
+
+        File parent = file.getAbsoluteFile().getParentFile();
+        this.blockDataFile = new File(parent, file.getName() + "." + System.nanoTime() + ".tmp");
+        this.blockData = new BufferedOutputStream(new FileOutputStream(blockDataFile), BUFFER_SIZE);
+    }
+
+    /**
+     * Reçoit une section. Appelée depuis les threads de {@link VolumePatternGenerator}.
+     *
+     * @throws UncheckedIOException Si l'écriture d'une tranche échoue, ce qui arrête la génération
+     */
+    @Override
+    public synchronized void accept(PatternSection section) {
+        if (closed) {
+            throw new IllegalStateException("Schematic déjà fermé");
+        }
+        int slab = section.getSectionY();
+        PatternSection[] sections = pendingSlabs.computeIfAbsent(slab, s -> new PatternSection[sectionsX * sectionsZ]);
+        sections[section.getSectionZ() * sectionsX + section.getSectionX()] = section;
+        pendingCounts.merge(slab, 1, Integer::sum);
+
+        try {
+            // Écrire dans l'ordre toutes les tranches complètes qui suivent la dernière écrite
+            while (pendingCounts.getOrDefault(nextSlab, 0) == sectionsX * sectionsZ) {
+                writeSlab(nextSlab, pendingSlabs.remove(nextSlab));
+                pendingCounts.remove(nextSlab);
+                nextSlab++;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeSlab(int slab, PatternSection[] sections) throws IOException {
+        int originY = slab * PatternSection.SIZE;
+        int top = Math.min(height, originY + PatternSection.SIZE);
+        for (int y = originY; y < top; y++) {
+            int ly = y - originY;
+            for (int z = 0; z < length; z++) {
+                int rowStart = (z / PatternSection.SIZE) * sectionsX;
+                int lz = z % PatternSection.SIZE;
+                for (int x = 0; x < width; x++) {
+                    PatternSection section = sections[rowStart + x / PatternSection.SIZE];
+                    writeVarInt(stateId(section, section.getPaletteIndex(x % PatternSection.SIZE, ly, lz)));
+                }
+            }
+        }
+    }
+
+    private int stateId(PatternSection section, int paletteIndex) {
+        if (paletteIndex < 0) {
+            if (airId < 0) {
+                airId = register(AIR);
+            }
+            return airId;
+        }
+
+        // Toutes les sections d'un volume partagent le même instantané de palette
+        if (section.getPalette() != palette) {
+            palette = section.getPalette();
+            paletteIds = new int[palette.size()];
+            Arrays.fill(paletteIds, -1);
+        }
+        if (paletteIds[paletteIndex] < 0) {
+            paletteIds[paletteIndex] = register("minecraft:" + palette.getBlock(paletteIndex).getName());
+        }
+        return paletteIds[paletteIndex];
+    }
+
+    private int register(String state) {
+        return stateIds.computeIfAbsent(state, s -> stateIds.size());
+    }
+
+    private void writeVarInt(int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            blockData.write((value & 0x7F) | 0x80);
+            blockDataLength++;
+            value >>>= 7;
+        }
+        blockData.write(value);
+        blockDataLength++;
+    }
+
+    /**
+     * Écrit le schematic et supprime le fichier temporaire.
+     *
+     * @throws IOException Si des sections manquent ou si l'écriture échoue
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+
+        try {
+            blockData.close();
+            if (nextSlab != slabCount) {
+                throw new IOException("Volume incomplet : " + nextSlab + " tranches écrites sur " + slabCount);
+            }
+            if (blockDataLength > Integer.MAX_VALUE) {
+                throw new IOException("Volume trop grand pour un schematic : " + blockDataLength + " octets");
+            }
+
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    new GZIPOutputStream(new FileOutputStream(file), BUFFER_SIZE), BUFFER_SIZE));
+                 InputStream in = new BufferedInputStream(new FileInputStream(blockDataFile), BUFFER_SIZE)) {
+                writeTag(out, TAG_COMPOUND, "Schematic");
+                writeTag(out, TAG_INT, "Version");
+                out.writeInt(SCHEMATIC_VERSION);
+                writeTag(out, TAG_INT, "DataVersion");
+                out.writeInt(DATA_VERSION);
+                writeTag(out, TAG_SHORT, "Width");
+                out.writeShort(width);
+                writeTag(out, TAG_SHORT, "Height");
+                out.writeShort(height);
+                writeTag(out, TAG_SHORT, "Length");
+                out.writeShort(length);
+
+                writeTag(out, TAG_INT, "PaletteMax");
+                out.writeInt(stateIds.size());
+                writeTag(out, TAG_COMPOUND, "Palette");
+                for (Map.Entry<String, Integer> entry : stateIds.entrySet()) {
+                    writeTag(out, TAG_INT, entry.getKey());
+                    out.writeInt(entry.getValue());
+                }
+                out.writeByte(TAG_END);
+
+                writeTag(out, TAG_BYTE_ARRAY, "BlockData");
+                out.writeInt((int) blockDataLength);
+                in.transferTo(out);
+
+                out.writeByte(TAG_END);
+            }
+        } finally {
+            blockDataFile.delete();
+        }
+    }
+
+    // Type et nom d'une balise NBT (les noms NBT sont en UTF-8 modifié, comme writeUTF)
+    private static void writeTag(DataOutputStream out, int type, String name) throws IOException {
+        out.writeByte(type);
+        out.writeUTF(name);
+    }
+}
@@ -0,0 +1,294 @@
+package skymc.model;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.IntStream;
+
+/**
+ * Atlas des textures de tous les blocs d'une palette, à une résolution donnée.
+ *
+ * Chaque face (dessus et côté) de chaque bloc est mise à l'échelle une seule fois en une
+ * tuile de {@code tileSize²} pixels ARGB, et toutes les tuiles sont rangées bout à bout
+ * dans un unique tampon d'entiers. Deux tables, indexées par indice de palette, donnent
+ * la position de la tuile de chaque face. Le rendu d'une case se réduit à
+ * {@code tileSize} copies de lignes depuis ce tableau contigu, sans passer par les
+ * {@link BufferedImage} de types variés des textures d'origine.
+ *
+ * Le tampon est un tableau du tas pour un atlas construit, ou une projection en mémoire
+ * du fichier pour un atlas relu depuis le disque : les tuiles sont alors lues directement
+ * dans le cache de pages du système, sans copie dans le tas.
+ *
+ * Un atlas est immuable et peut être partagé entre plusieurs threads.
+ */
+public class TextureAtlas {
+    /**
+     * Résolution par défaut d'une tuile, celle des textures de Minecraft.
+     */
+    public static final int DEFAULT_TILE_SIZE = 16;
+
+    private static final int FILE_MAGIC = 0x534B4154; // "SKAT"
+    private static final int FILE_VERSION = 1;
+    private static final int HEADER_BYTES = 4 * Integer.BYTES + Long.BYTES + Integer.BYTES;
+
+    private final Palette palette;
+    private final int tileSize;
+    private final int[] topOffsets;
+    private final int[] sideOffsets;
+    private final IntBuffer pixels;
+
+    TextureAtlas(Palette palette, int tileSize, int[] topOffsets, int[] sideOffsets, IntBuffer pixels) {
+        this.palette = palette;
+        this.tileSize = tileSize;
+        this.topOffsets = topOffsets;
+        this.sideOffsets = sideOffsets;
+        this.pixels = pixels;
+    }
+
+    /**
+     * Construit l'atlas en parallèle à partir des textures des blocs. Une texture
+     * illisible laisse sa tuile transparente.
+     *
+     * @param palette Palette dont les indices servent à adresser les tuiles
+     * @param tileSize Taille en pixels d'une tuile
+     * @return L'atlas construit
+     */
+    public static TextureAtlas build(Palette palette, int tileSize) {
+        if (tileSize < 1) {
+            throw new IllegalArgumentException("Taille de tuile invalide : " + tileSize);
+        }
+
+        int count = palette.size();
+        int[] topOffsets = new int[count];
+        int[] sideOffsets = new int[count];
+        int tilePixels = tileSize * tileSize;
+        long total = 0;
+        for (int i = 0; i < count; i++) {
+            Block block = palette.getBlock(i);
+            topOffsets[i] = block.hasTexture(true) ? (int) total : -1;
+            total += block.hasTexture(true) ? tilePixels : 0;
+            sideOffsets[i] = block.hasTexture(false) ? (int) total : -1;
+            total += block.hasTexture(false) ? tilePixels : 0;
+            if (total > Integer.MAX_VALUE - 8) {
+                throw new IllegalStateException("Atlas trop grand pour des tuiles de " + tileSize + " pixels");
+            }
+        }
+
+        int[] pixels = new int[(int) total];
+
+        // Chaque tâche écrit ses propres tuiles : zones disjointes du tableau
+        IntStream.range(0, count).parallel().forEach(i -> {
+            Block block = palette.getBlock(i);
+            copyTile(block.getTexture(true), tileSize, pixels, topOffsets[i]);
+            copyTile(block.getTexture(false), tileSize, pixels, sideOffsets[i]);
+        });
+
+        return new TextureAtlas(palette, tileSize, topOffsets, sideOffsets, IntBuffer.wrap(pixels));
+    }
+
+    /**
+     * Charge un atlas depuis le disque s'il correspond à la palette et aux textures courantes.
+     *
+     * @param file Fichier de l'atlas
+     * @param palette Palette courante
+     * @param tileSize Taille de tuile attendue
+     * @param fingerprint Empreinte attendue des textures
+     * @return L'atlas chargé, ou null si le fichier est absent ou périmé
+     * @throws IOException Si une erreur survient lors de la lecture
+     */
+    public static TextureAtlas load(File file, Palette palette, int tileSize, long fingerprint) throws IOException {
+        if (!file.isFile()) {
+            return null;
+        }
+
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        int count = palette.size();
+        if (buffer.capacity() < HEADER_BYTES
+                || buffer.getInt() != FILE_MAGIC || buffer.getInt() != FILE_VERSION
+                || buffer.getInt() != tileSize || buffer.getLong() != fingerprint
+                || buffer.getInt() != count) {
+            return null;
+        }
+
+        int length = buffer.getInt();
+        if (buffer.remaining() != (2L * count + length) * Integer.BYTES) {
+            return null;
+        }
+
+        IntBuffer ints = buffer.asIntBuffer();
+        int[] topOffsets = new int[count];
+        int[] sideOffsets = new int[count];
+        ints.get(topOffsets).get(sideOffsets);
+        return new TextureAtlas(palette, tileSize, topOffsets, sideOffsets, ints.slice());
+    }
+
+    /**
+     * Sauvegarde l'atlas sur le disque. Le fichier est remplacé atomiquement : un atlas
+     * relu depuis l'ancien fichier garde ses tuiles (voir {@link AtomicFiles}).
+     *
+     * @param file Fichier de destination
+     * @param fingerprint Empreinte des textures ayant servi à la construction
+     * @throws IOException Si une erreur survient lors de l'écriture ou du remplacement
+     */
+    public void save(File file, long fingerprint) throws IOException {
+        AtomicFiles.write(file, out -> {
+            out.writeInt(FILE_MAGIC);
+            out.writeInt(FILE_VERSION);
+            out.writeInt(tileSize);
+            out.writeLong(fingerprint);
+            out.writeInt(palette.size());
+            out.writeInt(pixels.capacity());
+            writeTables(out);
+            writePixels(out);
+        });
+    }
+
+    /**
+     * Écrit les deux tables de positions (dessus puis côté).
+     */
+    void writeTables(DataOutputStream out) throws IOException {
+        for (int offset : topOffsets) {
+            out.writeInt(offset);
+        }
+        for (int offset : sideOffsets) {
+            out.writeInt(offset);
+        }
+    }
+
+    /**
+     * Écrit les pixels de toutes les tuiles, par morceaux de 64 Ko.
+     */
+    void writePixels(DataOutputStream out) throws IOException {
+        byte[] chunk = new byte[1 << 16];
+        IntBuffer source = pixels.duplicate();
+        source.clear();
+        while (source.hasRemaining()) {
+            int n = Math.min(source.remaining(), chunk.length / Integer.BYTES);
+            IntBuffer view = ByteBuffer.wrap(chunk).asIntBuffer();
+            view.put(source.slice().limit(n));
+            source.position(source.position() + n);
+            out.write(chunk, 0, n * Integer.BYTES);
+        }
+    }
+
+    /**
+     * @return La palette dont les indices adressent les tuiles
+     */
+    public Palette getPalette() {
+        return palette;
+    }
+
+    /**
+     * @return Taille en pixels d'une tuile
+     */
+    public int getTileSize() {
+        return tileSize;
+    }
+
+    /**
+     * @return Nombre total de pixels de l'atlas, toutes tuiles confondues
+     */
+    public int getPixelCount() {
+        return pixels.capacity();
+    }
+
+    /**
+     * Obtient les pixels d'une tuile, sans copie.
+     *
+     * @param index Indice de palette du bloc
+     * @param useTopTexture true pour la face du dessus, false pour la face latérale
+     * @return Les {@code tileSize²} pixels ARGB de la tuile, ligne par ligne et en lecture
+     *         seule, ou null si le bloc n'a pas de texture pour cette face
+     */
+    public IntBuffer getTile(int index, boolean useTopTexture) {
+        int offset = getOffset(index, useTopTexture);
+        return offset < 0 ? null : pixels.slice(offset, tileSize * tileSize).asReadOnlyBuffer();
+    }
+
+    /**
+     * Obtient la position d'une tuile dans l'atlas, en pixels. La tuile occupe
+     * ensuite {@code tileSize²} pixels, ligne par ligne.
+     *
+     * @param index Indice de palette du bloc
+     * @param useTopTexture true pour la face du dessus, false pour la face latérale
+     * @return La position du premier pixel, ou -1 si le bloc n'a pas de texture pour cette face
+     */
+    public int getOffset(int index, boolean useTopTexture) {
+        return useTopTexture ? topOffsets[index] : sideOffsets[index];
+    }
+
+    /**
+     * Crée une image de rendu dont les pixels peuvent être écrits directement.
+     *
+     * @param widthInBlocks Largeur en blocs
+     * @param heightInBlocks Hauteur en blocs
+     * @return Une image TYPE_INT_ARGB entièrement transparente
+     */
+    public BufferedImage createImage(int widthInBlocks, int heightInBlocks) {
+        return new BufferedImage(widthInBlocks * tileSize, heightInBlocks * tileSize, BufferedImage.TYPE_INT_ARGB);
+    }
+
+    /**
+     * Obtient les pixels d'une image TYPE_INT_ARGB créée par {@link #createImage(int, int)}.
+     *
+     * @param image Image de rendu
+     * @return Le tableau de pixels partagé avec l'image
+     */
+    public static int[] getPixels(BufferedImage image) {
+        return ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+    }
+
+    /**
+     * Copie la tuile d'un bloc dans la case (blockX, blockY) d'une image de rendu.
+     * Un bloc sans texture pour cette face laisse la case inchangée.
+     *
+     * @param index Indice de palette du bloc
+     * @param useTopTexture true pour la face du dessus, false pour la face latérale
+     * @param destination Pixels de l'image de rendu (voir {@link #getPixels(BufferedImage)})
+     * @param destinationWidth Largeur de l'image de rendu en pixels
+     * @param blockX Colonne de la case, en blocs
+     * @param blockY Ligne de la case, en blocs
+     */
+    public void blit(int index, boolean useTopTexture, int[] destination, int destinationWidth, int blockX, int blockY) {
+        int source = getOffset(index, useTopTexture);
+        if (source < 0) {
+            return;
+        }
+
+        int offset = blockY * tileSize * destinationWidth + blockX * tileSize;
+        for (int row = 0; row < tileSize; row++) {
+            pixels.get(source, destination, offset, tileSize);
+            source += tileSize;
+            offset += destinationWidth;
+        }
+    }
+
+    /**
+     * Met une texture à l'échelle d'une tuile et la copie dans l'atlas. La mise à
+     * l'échelle passe par le même drawImage que l'ancien rendu case par case, le
+     * résultat est donc le même.
+     */
+    private static void copyTile(BufferedImage texture, int tileSize, int[] pixels, int offset) {
+        if (texture == null || offset < 0) {
+            return;
+        }
+
+        BufferedImage scaled = new BufferedImage(tileSize, tileSize, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = scaled.createGraphics();
+        g.drawImage(texture, 0, 0, tileSize, tileSize, null);
+        g.dispose();
+        System.arraycopy(getPixels(scaled), 0, pixels, offset, tileSize * tileSize);
+    }
+}
@@ -0,0 +1,171 @@
+package skymc.model;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.imageio.ImageIO;
+
+/**
+ * Cache des textures décodées, partagé par les rendus et les vues.
+ *
+ * Les blocs ne gardent que leurs couleurs moyennes et les chemins de leurs textures ;
+ * les images sont décodées à la demande et conservées ici dans la limite d'un budget
+ * en octets. Au-delà, les textures les moins récemment utilisées sont libérées, si bien
+ * que la mémoire occupée ne grandit pas avec la taille ou la résolution du pack.
+ */
+public class TextureCache {
+    /**
+     * Budget par défaut : 64 Mo, soit 65 536 textures 16x16 ou 1 024 textures 128x128.
+     */
+    public static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+
+    private static final TextureCache INSTANCE = new TextureCache(DEFAULT_MAX_BYTES);
+
+    // Ordre d'accès : la première entrée est la moins récemment utilisée
+    private final LinkedHashMap<String, BufferedImage> textures = new LinkedHashMap<>(256, 0.75f, true);
+    private long maxBytes;
+    private long usedBytes;
+    private long hits;
+    private long misses;
+
+    /**
+     * Obtient le cache partagé.
+     *
+     * @return L'instance du cache
+     */
+    public static TextureCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * @param maxBytes Taille maximale des textures conservées, en octets
+     */
+    public TextureCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Obtient une texture, en la décodant si elle n'est pas (ou plus) en cache.
+     * Le décodage se fait hors verrou : deux threads peuvent décoder la même texture
+     * en même temps, le second résultat remplace simplement le premier.
+     *
+     * @param path Chemin du fichier de la texture
+     * @return La texture au format TYPE_INT_ARGB
+     * @throws IOException Si le fichier ne peut pas être lu ou décodé
+     */
+    public BufferedImage get(String path) throws IOException {
+        synchronized (this) {
+            BufferedImage texture = textures.get(path);
+            if (texture != null) {
+                hits++;
+                return texture;
+            }
+            misses++;
+        }
+
+        BufferedImage texture = read(path);
+        put(path, texture);
+        return texture;
+    }
+
+    /**
+     * Ajoute une texture déjà décodée, par exemple lors du calcul des couleurs moyennes.
+     *
+     * @param path Chemin du fichier de la texture
+     * @param texture Texture au format TYPE_INT_ARGB
+     */
+    public synchronized void put(String path, BufferedImage texture) {
+        BufferedImage previous = textures.put(path, texture);
+        if (previous != null) {
+            usedBytes -= sizeOf(previous);
+        }
+        usedBytes += sizeOf(texture);
+        evict();
+    }
+
+    /**
+     * Retire une texture du cache, par exemple après la modification de son fichier.
+     *
+     * @param path Chemin du fichier de la texture
+     */
+    public synchronized void invalidate(String path) {
+        BufferedImage previous = textures.remove(path);
+        if (previous != null) {
+            usedBytes -= sizeOf(previous);
+        }
+    }
+
+    /**
+     * Vide le cache, par exemple après un rechargement des textures.
+     */
+    public synchronized void clear() {
+        textures.clear();
+        usedBytes = 0;
+    }
+
+    /**
+     * Modifie le budget du cache et libère immédiatement ce qui le dépasse.
+     *
+     * @param maxBytes Taille maximale des textures conservées, en octets
+     */
+    public synchronized void setMaxBytes(long maxBytes) {
+        this.maxBytes = maxBytes;
+        evict();
+    }
+
+    public synchronized long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public synchronized long getUsedBytes() {
+        return usedBytes;
+    }
+
+    public synchronized long getHitCount() {
+        return hits;
+    }
+
+    public synchronized long getMissCount() {
+        return misses;
+    }
+
+    /**
+     * Lit une texture et la convertit au format TYPE_INT_ARGB, quel que soit le
+     * format du fichier (palette, niveaux de gris, RGB sans alpha…), pour que ses
+     * pixels puissent être lus directement dans le DataBuffer. Le chemin peut désigner
+     * un fichier ou une entrée d'un pack de ressources (voir {@link ResourcePack}).
+     *
+     * @param path Chemin de la texture
+     * @return La texture au format TYPE_INT_ARGB
+     * @throws IOException Si le fichier ne peut pas être lu ou décodé
+     */
+    static BufferedImage read(String path) throws IOException {
+        BufferedImage image = ResourcePack.isPackPath(path) ? ResourcePack.readImage(path) : ImageIO.read(new File(path));
+        if (image == null) {
+            throw new IOException("Format d'image non reconnu : " + new File(path).getName());
+        }
+
+        BufferedImage texture = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = texture.createGraphics();
+        g.drawImage(image, 0, 0, null);
+        g.dispose();
+        return texture;
+    }
+
+    // Libère les textures les plus anciennes, en gardant toujours la dernière ajoutée
+    private void evict() {
+        Iterator<Map.Entry<String, BufferedImage>> iterator = textures.entrySet().iterator();
+        while (usedBytes > maxBytes && textures.size() > 1 && iterator.hasNext()) {
+            usedBytes -= sizeOf(iterator.next().getValue());
+            iterator.remove();
+        }
+    }
+
+    private static long sizeOf(BufferedImage texture) {
+        return (long) texture.getWidth() * texture.getHeight() * Integer.BYTES;
+    }
+}
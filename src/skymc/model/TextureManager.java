@@ -1,14 +1,27 @@
 package skymc.model;
 
 import java.awt.Color;
+import java.awt.image.Raster;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
 
 import org.fusesource.jansi.Ansi;
 
@@ -16,13 +29,65 @@ import org.fusesource.jansi.Ansi;
  * Gère le chargement et le stockage des textures de blocs Minecraft.
  */
 public class TextureManager {
+    /**
+     * Les pixels dont l'alpha est inférieur à ce seuil sont considérés comme transparents.
+     */
+    public static final int OPAQUE_ALPHA_THRESHOLD = 128;
+
+    /**
+     * Fichier de palette précalculé (voir {@link PaletteFile}), utilisé au chargement
+     * si aucune texture n'a changé depuis sa génération.
+     */
+    public static final String PREBUILT_PALETTE_FILE = "textures/palette.skpal";
+
+    /**
+     * Propriété système désignant un pack de ressources (.zip) ou un .jar du client à
+     * charger au lancement à la place des répertoires de textures.
+     */
+    public static final String RESOURCE_PACK_PROPERTY = "skymc.resourcePack";
+
     private static final String TOP_TEXTURE_DIR = "textures/top/";
     private static final String SIDE_TEXTURE_DIR = "textures/side/";
+    private static final String CACHE_DIR = "textures/cache/";
+    private static final String PALETTE_CACHE_FILE = CACHE_DIR + "palette.bin";
+
+    // Découpage des recherches par lot et taille du cache des couleurs déjà résolues
+    private static final int BATCH_CHUNK_SIZE = 16384;
+    private static final int MATCH_CACHE_SIZE = 4096;
+
+    // Threads de décodage des textures, et durée de chargement au-delà de laquelle on avertit
+    private static final int LOADER_THREADS = Math.max(1, Runtime.getRuntime().availableProcessors());
+    private static final long LOAD_TIME_BUDGET_MS = 2000;
 
-    private final Map<String, Block> blockMap = new HashMap<>();
-    private final List<Block> blocks = new ArrayList<>();
+    // Instantané immuable de la palette (blocs, tableaux parallèles + index), remplacé d'un
+    // seul coup à chaque chargement : un traitement en cours garde l'instantané qu'il a lu
+    private volatile Palette palette = new Palette(new ArrayList<>());
 
-    private static TextureManager instance;
+    // Un seul chargement (complet ou partiel) à la fois
+    private final Object reloadLock = new Object();
+    private TextureWatcher watcher;
+
+    // Pack de ressources dont vient la palette courante, null pour les répertoires de textures
+    private volatile File resourcePack;
+
+    // Tables de correspondance RGB → bloc de la palette publiée, construites à la demande (une par
+    // index de recherche, c'est-à-dire par face, mesure de distance et filtre). Une table en cours
+    // de construction est une future que les autres appels attendent : la construction se fait
+    // hors du verrou de l'objet, qui reste libre pour les atlas et les réglages
+    private final Map<LookupKey, CompletableFuture<ColorLookupTable>> lookupTables = new ConcurrentHashMap<>();
+    private volatile int lookupTableBits = 6;
+    private volatile boolean persistLookupTables = true;
+
+    // Atlas des textures, construits à la demande (un par taille de tuile)
+    private final Map<Integer, TextureAtlas> atlases = new HashMap<>();
+
+    /**
+     * Porteur de l'instance unique : la JVM ne l'initialise qu'au premier appel de
+     * {@link #getInstance()}, une seule fois et de façon sûre entre threads.
+     */
+    private static final class Holder {
+        private static final TextureManager INSTANCE = new TextureManager();
+    }
 
     /**
      * Obtient l'instance unique du TextureManager.
@@ -30,25 +95,68 @@ public class TextureManager {
      * @return L'instance de TextureManager
      */
     public static TextureManager getInstance() {
-        if (instance == null) {
-            instance = new TextureManager();
-        }
-        return instance;
+        return Holder.INSTANCE;
     }
 
     /**
      * Constructeur privé pour le singleton.
      */
     private TextureManager() {
-        loadTextures();
+        String pack = System.getProperty(RESOURCE_PACK_PROPERTY);
+        if (pack == null || pack.isEmpty()) {
+            loadTextures();
+            return;
+        }
+
+        try {
+            loadResourcePack(new File(pack));
+        } catch (IOException e) {
+            System.err.println("Erreur lors de la lecture du pack de ressources " + pack + ": " + e.getMessage());
+            loadTextures();
+        }
     }
 
     /**
      * Charge toutes les textures des blocs.
+     *
+     * Les PNG sont décodés et leurs couleurs moyennes calculées en parallèle sur un
+     * pool borné au nombre de cœurs ; les blocs sont ensuite ajoutés dans l'ordre des
+     * fichiers, si bien que les indices de la palette ne dépendent pas du parallélisme.
+     * Les blocs dont les fichiers n'ont pas changé depuis le lancement précédent sont
+     * repris du cache disque (voir {@link PaletteCache}) sans être décodés ; le cache
+     * est réécrit si un bloc a dû être décodé. La durée de chaque phase est affichée
+     * à la fin du chargement.
+     *
+     * Si un fichier de palette précalculé ({@link #PREBUILT_PALETTE_FILE}) correspond encore
+     * aux textures (mêmes fichiers, de même taille et de même date), il est projeté en
+     * mémoire à la place et aucune texture n'est décodée. Une texture ajoutée, supprimée ou
+     * retouchée écarte le fichier jusqu'à ce qu'il soit régénéré.
+     *
+     * La nouvelle palette n'est publiée qu'une fois entièrement construite.
      */
     public void loadTextures() {
-        blocks.clear();
-        blockMap.clear();
+        synchronized (reloadLock) {
+            loadAllTextures();
+        }
+    }
+
+    /**
+     * Recharge toutes les textures des répertoires, sauf si la palette vient d'un pack de
+     * ressources : comme pour {@link #reloadTextures(Collection)}, les répertoires ne sont
+     * alors pas utilisés et la palette du pack est gardée.
+     */
+    public void reloadAllTextures() {
+        synchronized (reloadLock) {
+            if (resourcePack != null) {
+                return;
+            }
+            loadAllTextures();
+        }
+    }
+
+    private void loadAllTextures() {
+        long start = System.nanoTime();
+        TextureCache.getInstance().clear();
 
         File topDir = new File(TOP_TEXTURE_DIR);
         File sideDir = new File(SIDE_TEXTURE_DIR);
@@ -72,67 +180,746 @@ public class TextureManager {
         // Obtenir tous les fichiers du répertoire top
         File[] topFiles = topDir.listFiles((dir, name) -> name.endsWith(".png"));
         File[] sideFiles = sideDir.listFiles((dir, name) -> name.toLowerCase().endsWith(".png"));
+        long listed = System.nanoTime();
+
+        File prebuilt = new File(PREBUILT_PALETTE_FILE);
+        if (prebuilt.isFile() && loadPrebuiltPalette(prebuilt, start, topFiles, sideFiles)) {
+            return;
+        }
+
+        PaletteCache cache = PaletteCache.empty();
+        try {
+            cache = PaletteCache.load(new File(PALETTE_CACHE_FILE));
+        } catch (IOException e) {
+            System.err.println("Erreur lors de la lecture du cache de la palette: " + e.getMessage());
+        }
+        PaletteCache paletteCache = cache;
+        AtomicInteger decodedCount = new AtomicInteger();
+        List<Block> blocks = new ArrayList<>();
+        Set<String> loadedNames = new HashSet<>();
+        long cacheLoaded = System.nanoTime();
+
+        ExecutorService loader = newLoader();
+        try {
+            // Lancement du décodage des textures 'top' (avec leur face 'side' éventuelle)
+            List<String> topNames = new ArrayList<>();
+            List<Future<Block>> topBlocks = new ArrayList<>();
+            if (topFiles != null) {
+                System.out.println("Found " + topFiles.length + " top texture files");
+                for (File topFile : topFiles) {
+                    String blockName = topFile.getName().replace(".png", "");
+                    String topPath = topFile.getPath();
+                    String sidePath = SIDE_TEXTURE_DIR + topFile.getName();
+                    String existingSidePath = new File(sidePath).exists() ? sidePath : null;
+
+                    topNames.add(blockName);
+                    topBlocks.add(loader.submit(
+                            () -> loadBlock(paletteCache, decodedCount, blockName, topPath, existingSidePath)));
+                }
+            } else {
+                System.out.println("No top texture files found or directory inaccessible");
+            }
+
+            // Lancement du décodage des textures 'side' uniquement
+            Set<String> topNameSet = new HashSet<>(topNames);
+            List<String> sideNames = new ArrayList<>();
+            List<String> sidePaths = new ArrayList<>();
+            List<Future<Block>> sideBlocks = new ArrayList<>();
+            if (sideFiles != null) {
+                System.out.println("Found " + sideFiles.length + " side texture files");
+                for (File sideFile : sideFiles) {
+                    String blockName = sideFile.getName().replace(".png", "");
+                    String sidePath = sideFile.getPath();
+
+                    sideNames.add(blockName);
+                    sidePaths.add(sidePath);
+                    // Un bloc qui a une texture 'top' n'est chargé seul que si celle-ci échoue
+                    sideBlocks.add(topNameSet.contains(blockName) ? null
+                            : loader.submit(() -> loadBlock(paletteCache, decodedCount, blockName, null, sidePath)));
+                }
+            } else {
+                System.out.println("No side texture files found or directory inaccessible");
+            }
+
+            // Assemblage dans l'ordre des fichiers
+            for (int i = 0; i < topNames.size(); i++) {
+                collectBlock(topNames.get(i), topBlocks.get(i), blocks, loadedNames);
+            }
+            for (int i = 0; i < sideNames.size(); i++) {
+                String blockName = sideNames.get(i);
+
+                // Si le bloc n'a pas déjà été ajouté
+                if (!loadedNames.contains(blockName)) {
+                    Future<Block> block = sideBlocks.get(i);
+                    if (block == null) {
+                        String sidePath = sidePaths.get(i);
+                        block = loader.submit(() -> loadBlock(paletteCache, decodedCount, blockName, null, sidePath));
+                    }
+                    collectBlock(blockName, block, blocks, loadedNames);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.err.println("Chargement des textures interrompu");
+        } finally {
+            loader.shutdownNow();
+        }
+        long decoded = System.nanoTime();
+
+        publish(new Palette(blocks), null);
+        resourcePack = null;
+        long indexed = System.nanoTime();
+
+        // Réécrire le cache si des textures ont été décodées ou si des blocs ont disparu
+        if (decodedCount.get() > 0 || paletteCache.size() != blocks.size()) {
+            try {
+                PaletteCache.save(new File(PALETTE_CACHE_FILE), blocks);
+            } catch (IOException e) {
+                System.err.println("Erreur lors de la sauvegarde du cache de la palette: " + e.getMessage());
+            }
+        }
+        long saved = System.nanoTime();
 
-        // Vérification et ajout des textures 'top'
-        if (topFiles != null) {
-            System.out.println("Found " + topFiles.length + " top texture files");
-            for (File topFile : topFiles) {
-                String blockName = topFile.getName().replace(".png", "");
-                String topPath = topFile.getPath();
-                String sidePath = SIDE_TEXTURE_DIR + topFile.getName();
+        long totalMillis = TimeUnit.NANOSECONDS.toMillis(saved - start);
+        System.out.println(String.format("Texture loading: listing %d ms, cache %d ms, decoding %d ms "
+                        + "(%d of %d blocks decoded, %d threads), palette %d ms, cache save %d ms",
+                TimeUnit.NANOSECONDS.toMillis(listed - start), TimeUnit.NANOSECONDS.toMillis(cacheLoaded - listed),
+                TimeUnit.NANOSECONDS.toMillis(decoded - cacheLoaded), decodedCount.get(), blocks.size(),
+                LOADER_THREADS, TimeUnit.NANOSECONDS.toMillis(indexed - decoded),
+                TimeUnit.NANOSECONDS.toMillis(saved - indexed)));
+        if (totalMillis > LOAD_TIME_BUDGET_MS) {
+            System.out.println(Ansi.ansi().fgBrightYellow().a("Texture loading took " + totalMillis
+                    + " ms, over the " + LOAD_TIME_BUDGET_MS + " ms startup budget").reset());
+        }
+        System.out.println(Ansi.ansi().fgBrightGreen().a("Finished loading textures. Total blocks loaded: "
+                + blocks.size() + " in " + totalMillis + " ms").reset());
+    }
+
+    /**
+     * Charge la palette et son atlas depuis un fichier précalculé.
+     *
+     * @return true si le fichier a pu être lu et correspond aux textures, false pour revenir
+     *         au décodage des textures
+     */
+    private boolean loadPrebuiltPalette(File file, long start, File[] topFiles, File[] sideFiles) {
+        try {
+            PaletteFile paletteFile = PaletteFile.open(file);
 
+            List<String> texturePaths = new ArrayList<>();
+            for (File[] files : new File[][] {topFiles, sideFiles}) {
+                if (files != null) {
+                    for (File texture : files) {
+                        texturePaths.add(texture.getPath());
+                    }
+                }
+            }
+            if (!paletteFile.isUpToDate(texturePaths)) {
+                System.out.println("Prebuilt palette " + file.getName() + " is out of date, decoding textures");
+                return false;
+            }
+
+            Palette loaded = new Palette(paletteFile.getBlocks());
+            publish(loaded, paletteFile.createAtlas(loaded));
+            resourcePack = null;
+
+            System.out.println(Ansi.ansi().fgBrightGreen().a("Finished loading textures from " + file.getName()
+                    + ". Total blocks loaded: " + loaded.size() + " in "
+                    + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms").reset());
+            return true;
+        } catch (IOException e) {
+            System.err.println("Erreur lors de la lecture de la palette précalculée: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Charge les textures de blocs directement depuis un pack de ressources ou un .jar du
+     * client Minecraft (voir {@link ResourcePack}), sans rien extraire sur le disque. Les
+     * entrées sont décodées en parallèle comme pour les répertoires, et les blocs déjà
+     * connus sont repris d'un cache propre au pack tant que l'archive n'a pas changé.
+     *
+     * @param file Archive .zip ou .jar
+     * @throws IOException Si l'archive est illisible ou ne contient aucune texture de bloc
+     */
+    public void loadResourcePack(File file) throws IOException {
+        synchronized (reloadLock) {
+            long start = System.nanoTime();
+            ResourcePack pack = ResourcePack.open(file);
+            TextureCache.getInstance().clear();
+            System.out.println("Resource pack: " + file.getAbsolutePath() + " (" + pack.getBlockNames().size()
+                    + " blocks)");
+
+            File cacheFile = new File(CACHE_DIR + "palette-" + file.getName() + ".bin");
+            PaletteCache cache = PaletteCache.empty();
+            try {
+                cache = PaletteCache.load(cacheFile);
+            } catch (IOException e) {
+                System.err.println("Erreur lors de la lecture du cache de la palette: " + e.getMessage());
+            }
+            PaletteCache paletteCache = cache;
+            AtomicInteger decodedCount = new AtomicInteger();
+            List<Block> blocks = new ArrayList<>();
+            Set<String> loadedNames = new HashSet<>();
+
+            ExecutorService loader = newLoader();
+            try {
+                List<Future<Block>> futures = new ArrayList<>();
+                for (String blockName : pack.getBlockNames()) {
+                    String topPath = pack.getTopTexturePath(blockName);
+                    String sidePath = pack.getSideTexturePath(blockName);
+                    futures.add(loader.submit(() -> loadBlock(paletteCache, decodedCount, blockName, topPath, sidePath)));
+                }
+                for (int i = 0; i < futures.size(); i++) {
+                    collectBlock(pack.getBlockNames().get(i), futures.get(i), blocks, loadedNames);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                System.err.println("Chargement des textures interrompu");
+            } finally {
+                loader.shutdownNow();
+            }
+
+            publish(new Palette(blocks), null);
+            resourcePack = file;
+
+            if (decodedCount.get() > 0 || paletteCache.size() != blocks.size()) {
                 try {
-                    Block block = new Block(blockName, topPath, new File(sidePath).exists() ? sidePath : null);
-                    blocks.add(block);
-                    blockMap.put(blockName, block);
+                    PaletteCache.save(cacheFile, blocks);
                 } catch (IOException e) {
-                    System.err.println("Erreur lors du chargement de la texture pour " + blockName + ": " + e.getMessage());
-                    e.printStackTrace();
+                    System.err.println("Erreur lors de la sauvegarde du cache de la palette: " + e.getMessage());
                 }
             }
-        } else {
-            System.out.println("No top texture files found or directory inaccessible");
+
+            System.out.println(Ansi.ansi().fgBrightGreen().a("Finished loading textures from " + file.getName()
+                    + ". Total blocks loaded: " + blocks.size() + " (" + decodedCount.get() + " decoded) in "
+                    + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms").reset());
         }
+    }
 
-        // Vérification et ajout des textures 'side' uniquement
-        if (sideFiles != null) {
-            System.out.println("Found " + sideFiles.length + " side texture files");
-            for (File sideFile : sideFiles) {
-                String blockName = sideFile.getName().replace(".png", "");
+    /**
+     * @return Le pack de ressources dont vient la palette courante, ou null pour les répertoires de textures
+     */
+    public File getResourcePack() {
+        return resourcePack;
+    }
 
-                // Si le bloc n'a pas déjà été ajouté
-                if (!blockMap.containsKey(blockName)) {
-                    String sidePath = sideFile.getPath();
+    /**
+     * Recharge uniquement les blocs dont les fichiers ont été créés, modifiés ou supprimés,
+     * sans relire les autres textures. Les blocs inchangés gardent leur indice, les nouveaux
+     * blocs sont ajoutés à la fin et les blocs dont les deux fichiers ont disparu sont retirés.
+     * Une texture illisible (par exemple en cours d'écriture) laisse l'ancien bloc en place.
+     *
+     * La nouvelle palette est construite à part puis publiée d'un seul coup : les conversions
+     * en cours terminent avec l'ancienne, les suivantes utilisent la nouvelle.
+     *
+     * @param blockNames Noms des blocs à recharger (nom du fichier sans l'extension .png)
+     */
+    public void reloadTextures(Collection<String> blockNames) {
+        synchronized (reloadLock) {
+            if (resourcePack != null) {
+                // La palette vient d'un pack : les répertoires de textures ne sont pas utilisés
+                return;
+            }
+            long start = System.nanoTime();
+            Set<String> touched = new LinkedHashSet<>(blockNames);
+            TextureCache textureCache = TextureCache.getInstance();
+            for (String blockName : touched) {
+                textureCache.invalidate(TOP_TEXTURE_DIR + blockName + ".png");
+                textureCache.invalidate(SIDE_TEXTURE_DIR + blockName + ".png");
+            }
 
-                    try {
-                        Block block = new Block(blockName, null, sidePath);
-                        blocks.add(block);
-                        blockMap.put(blockName, block);
-                    } catch (IOException e) {
-                        System.err.println("Erreur lors du chargement de la texture pour " + blockName + ": " + e.getMessage());
-                        e.printStackTrace();
-                    }
+            Palette current = palette;
+            List<Block> blocks = new ArrayList<>(current.size() + touched.size());
+            int decoded = 0;
+            int removed = 0;
+            for (Block block : current.getBlocks()) {
+                if (!touched.remove(block.getName())) {
+                    blocks.add(block);
+                    continue;
+                }
+
+                Block reloaded = reloadBlock(block.getName(), block);
+                if (reloaded == null) {
+                    removed++;
                 } else {
+                    blocks.add(reloaded);
+                    decoded += reloaded != block ? 1 : 0;
                 }
             }
-        } else {
-            System.out.println("No side texture files found or directory inaccessible");
+
+            // Noms restants : blocs absents de la palette courante
+            int added = 0;
+            for (String blockName : touched) {
+                Block reloaded = reloadBlock(blockName, null);
+                if (reloaded != null) {
+                    blocks.add(reloaded);
+                    added++;
+                }
+            }
+
+            publish(new Palette(blocks), null);
+
+            try {
+                PaletteCache.save(new File(PALETTE_CACHE_FILE), blocks);
+            } catch (IOException e) {
+                System.err.println("Erreur lors de la sauvegarde du cache de la palette: " + e.getMessage());
+            }
+
+            System.out.println(Ansi.ansi().fgBrightGreen().a("Reloaded textures: " + decoded + " updated, "
+                    + added + " added, " + removed + " removed, " + blocks.size() + " blocks in "
+                    + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms").reset());
         }
-        System.out.println(Ansi.ansi().fgBrightGreen().a("Finished loading textures. Total blocks loaded:").reset());
     }
 
     /**
-     * @return Liste de tous les blocs chargés
+     * Décode à nouveau les textures d'un bloc, avec le même repli que le chargement complet :
+     * si la texture du dessus échoue, le bloc est chargé avec sa seule texture latérale.
+     *
+     * @param blockName Nom du bloc
+     * @param previous Bloc actuellement chargé sous ce nom (peut être null)
+     * @return Le nouveau bloc, l'ancien si ses textures sont illisibles, ou null si elles n'existent plus
+     */
+    private static Block reloadBlock(String blockName, Block previous) {
+        File topFile = new File(TOP_TEXTURE_DIR + blockName + ".png");
+        File sideFile = new File(SIDE_TEXTURE_DIR + blockName + ".png");
+        String sidePath = sideFile.exists() ? sideFile.getPath() : null;
+
+        try {
+            if (topFile.exists()) {
+                try {
+                    return new Block(blockName, topFile.getPath(), sidePath);
+                } catch (IOException e) {
+                    if (sidePath == null) {
+                        throw e;
+                    }
+                }
+            }
+            return sidePath == null ? null : new Block(blockName, null, sidePath);
+        } catch (IOException e) {
+            System.err.println("Erreur lors du rechargement de la texture pour " + blockName + ": " + e.getMessage());
+            return previous;
+        }
+    }
+
+    /**
+     * Publie une nouvelle palette et écarte les tables et atlas construits pour l'ancienne.
+     *
+     * @param next Palette entièrement construite
+     * @param atlas Atlas déjà disponible pour cette palette (peut être null)
+     */
+    private synchronized void publish(Palette next, TextureAtlas atlas) {
+        palette = next;
+        invalidateLookupTables();
+        atlases.clear();
+        if (atlas != null) {
+            atlases.put(atlas.getTileSize(), atlas);
+        }
+    }
+
+    /**
+     * Surveille les répertoires de textures et recharge automatiquement les fichiers
+     * créés, modifiés ou supprimés (voir {@link TextureWatcher}).
+     *
+     * @return true si la surveillance est active
+     */
+    public synchronized boolean startWatching() {
+        if (watcher != null) {
+            return true;
+        }
+        try {
+            watcher = new TextureWatcher(this, new File(TOP_TEXTURE_DIR), new File(SIDE_TEXTURE_DIR));
+            watcher.start();
+            return true;
+        } catch (IOException e) {
+            System.err.println("Impossible de surveiller les répertoires de textures: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Arrête la surveillance des répertoires de textures.
+     */
+    public synchronized void stopWatching() {
+        if (watcher == null) {
+            return;
+        }
+        try {
+            watcher.close();
+        } catch (IOException e) {
+            System.err.println("Erreur lors de l'arrêt de la surveillance des textures: " + e.getMessage());
+        }
+        watcher = null;
+    }
+
+    /**
+     * Écrit la palette courante et son atlas dans un fichier précalculé.
+     *
+     * @param file Fichier de destination (voir {@link #PREBUILT_PALETTE_FILE})
+     * @param tileSize Taille en pixels des tuiles de l'atlas
+     * @throws IOException Si une erreur survient lors de l'écriture
+     */
+    public void writePaletteFile(File file, int tileSize) throws IOException {
+        TextureAtlas atlas = getAtlas(tileSize);
+        PaletteFile.write(file, atlas.getPalette(), atlas);
+    }
+
+    /**
+     * Crée le pool de décodage des textures, borné au nombre de cœurs.
+     */
+    private static ExecutorService newLoader() {
+        return Executors.newFixedThreadPool(LOADER_THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "texture-loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Reprend un bloc du cache s'il est à jour, sinon décode ses textures.
+     */
+    private static Block loadBlock(PaletteCache cache, AtomicInteger decodedCount,
+                                   String blockName, String topPath, String sidePath) throws IOException {
+        Block block = cache.restore(blockName, topPath, sidePath);
+        if (block == null) {
+            block = new Block(blockName, topPath, sidePath);
+            decodedCount.incrementAndGet();
+        }
+        return block;
+    }
+
+    /**
+     * Attend le décodage d'un bloc et l'ajoute à la liste ; un échec est signalé sans
+     * interrompre le chargement des autres textures.
+     *
+     * @param blockName Nom du bloc
+     * @param block Décodage en cours
+     * @param blocks Blocs chargés, dans l'ordre des fichiers
+     * @param loadedNames Noms des blocs chargés
+     * @throws InterruptedException Si le chargement est interrompu
+     */
+    private static void collectBlock(String blockName, Future<Block> block, List<Block> blocks,
+                                     Set<String> loadedNames) throws InterruptedException {
+        try {
+            Block loaded = block.get();
+            blocks.add(loaded);
+            loadedNames.add(blockName);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            System.err.println("Erreur lors du chargement de la texture pour " + blockName + ": " + cause.getMessage());
+            cause.printStackTrace();
+        }
+    }
+
+    /**
+     * Obtient l'instantané compact de la palette chargée. L'instantané est immuable :
+     * un traitement qui le lit une fois en début de travail voit un ensemble de blocs
+     * cohérent, même si les textures sont rechargées pendant ce temps.
+     *
+     * @return La palette
+     */
+    public Palette getPalette() {
+        return palette;
+    }
+
+    /**
+     * Obtient l'index spatial des couleurs moyennes pour une face.
+     * Les identifiants renvoyés par l'index sont utilisables avec {@link #getBlock(int)}.
+     *
+     * @param useTopTexture true pour la texture du dessus, false pour la texture latérale
+     * @return L'arbre k-d correspondant
+     */
+    public ColorKdTree getColorIndex(boolean useTopTexture) {
+        return palette.getFace(useTopTexture).getIndex();
+    }
+
+    /**
+     * Définit la précision des tables de correspondance RGB → bloc.
+     * Les tables déjà construites avec une autre précision sont invalidées.
+     *
+     * @param bits Nombre de bits par canal (5 = 32³ cellules, 6 = 64³, 8 = toutes les couleurs)
+     */
+    public synchronized void setLookupTableBits(int bits) {
+        if (bits < 1 || bits > 8) {
+            throw new IllegalArgumentException("Le nombre de bits par canal doit être compris entre 1 et 8 : " + bits);
+        }
+        if (bits != lookupTableBits) {
+            lookupTableBits = bits;
+            invalidateLookupTables();
+        }
+    }
+
+    /**
+     * Active ou désactive la sauvegarde des tables de correspondance et des atlas sur le disque.
+     *
+     * @param persist true pour conserver les tables et les atlas entre deux lancements
+     */
+    public synchronized void setPersistLookupTables(boolean persist) {
+        this.persistLookupTables = persist;
+    }
+
+    /**
+     * Obtient la table de correspondance RGB → bloc pour une face, en la
+     * construisant (ou en la relisant depuis le disque) au premier appel.
+     *
+     * @param useTopTexture true pour la texture du dessus, false pour la texture latérale
+     * @return La table de correspondance ; ses valeurs sont utilisables avec {@link #getBlock(int)}
+     */
+    public ColorLookupTable getLookupTable(boolean useTopTexture) {
+        return getLookupTable(useTopTexture, ColorMetric.RGB);
+    }
+
+    /**
+     * Obtient la table de correspondance RGB → bloc pour une face et une mesure de distance.
+     *
+     * @param useTopTexture true pour la texture du dessus, false pour la texture latérale
+     * @param metric Mesure de distance utilisée pour remplir la table
+     * @return La table de correspondance ; ses valeurs sont utilisables avec {@link #getBlock(int)}
+     */
+    public ColorLookupTable getLookupTable(boolean useTopTexture, ColorMetric metric) {
+        return getLookupTable(palette, useTopTexture, metric);
+    }
+
+    /**
+     * Table de correspondance d'une palette donnée. Seules les tables de la palette
+     * publiée sont gardées en mémoire ; celles d'un ancien instantané, encore utilisé
+     * par une conversion en cours, sont construites (ou relues) sans être conservées.
+     */
+    private ColorLookupTable getLookupTable(Palette palette, boolean useTopTexture, ColorMetric metric) {
+        if (palette.size() > Short.MAX_VALUE) {
+            throw new IllegalStateException("Trop de blocs pour une table de correspondance : " + palette.size());
+        }
+
+        int bits = lookupTableBits;
+        LookupKey key = new LookupKey(palette.getFace(useTopTexture).getSpace(metric), bits);
+        return getLookupTable(palette, key, () -> loadOrBuildLookupTable(palette, useTopTexture, metric, bits));
+    }
+
+    private ColorLookupTable loadOrBuildLookupTable(Palette palette, boolean useTopTexture, ColorMetric metric, int bits) {
+        long fingerprint = palette.fingerprint(useTopTexture);
+        File file = new File(CACHE_DIR + "lut-" + (useTopTexture ? "top" : "side") + "-"
+                + metric.name().toLowerCase() + "-" + bits + ".bin");
+
+        ColorLookupTable table = null;
+        if (persistLookupTables) {
+            try {
+                table = ColorLookupTable.load(file, bits, fingerprint);
+            } catch (IOException e) {
+                System.err.println("Erreur lors de la lecture de la table de correspondance: " + e.getMessage());
+            }
+        }
+
+        if (table == null) {
+            long start = System.currentTimeMillis();
+            table = ColorLookupTable.build(palette.getFace(useTopTexture).getSpace(metric), bits, fingerprint);
+            System.out.println("Built " + (1 << (3 * bits)) + "-entry lookup table in "
+                    + (System.currentTimeMillis() - start) + " ms");
+
+            if (persistLookupTables) {
+                try {
+                    table.save(file);
+                } catch (IOException e) {
+                    System.err.println("Erreur lors de la sauvegarde de la table de correspondance: " + e.getMessage());
+                }
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Table de correspondance d'une face restreinte par un filtre, gardée en mémoire
+     * seulement. Les tables de la face complète restent celles de
+     * {@link #getLookupTable(Palette, boolean, ColorMetric)}.
+     */
+    private ColorLookupTable getLookupTable(Palette palette, boolean useTopTexture, ColorMetric metric,
+                                            PaletteFilter filter) {
+        Palette.Face face = palette.getFace(useTopTexture, filter);
+        if (face == palette.getFace(useTopTexture)) {
+            return getLookupTable(palette, useTopTexture, metric);
+        }
+
+        Palette.Space space = face.getSpace(metric);
+        int bits = lookupTableBits;
+        return getLookupTable(palette, new LookupKey(space, bits), () -> {
+            long start = System.currentTimeMillis();
+            ColorLookupTable table = ColorLookupTable.build(space, bits,
+                    palette.fingerprint(useTopTexture) ^ palette.getMask(filter).hashCode());
+            System.out.println("Built " + (1 << (3 * bits)) + "-entry lookup table for filter \""
+                    + filter.getName() + "\" in " + (System.currentTimeMillis() - start) + " ms");
+            return table;
+        });
+    }
+
+    /**
+     * Renvoie la table d'une clé, en la construisant au premier appel. Les appels
+     * simultanés pour la même clé attendent la même construction ; ceux pour d'autres
+     * clés, et les autres méthodes de la classe, ne sont pas bloqués.
+     */
+    private ColorLookupTable getLookupTable(Palette palette, LookupKey key, Supplier<ColorLookupTable> loader) {
+        if (palette != this.palette) {
+            return loader.get();
+        }
+
+        CompletableFuture<ColorLookupTable> created = new CompletableFuture<>();
+        CompletableFuture<ColorLookupTable> pending = lookupTables.putIfAbsent(key, created);
+        if (pending != null) {
+            return pending.join();
+        }
+
+        try {
+            created.complete(loader.get());
+        } catch (RuntimeException | Error e) {
+            // Un prochain appel retentera la construction
+            lookupTables.remove(key, created);
+            created.completeExceptionally(e);
+            throw e;
+        }
+        if (palette != this.palette) {
+            // Palette remplacée pendant la construction : la table ne sert plus qu'à cet appel
+            lookupTables.remove(key, created);
+        }
+        return created.join();
+    }
+
+    private void invalidateLookupTables() {
+        lookupTables.clear();
+    }
+
+    /**
+     * Index de recherche et précision d'une table de correspondance.
+     */
+    private static final class LookupKey {
+        private final Palette.Space space;
+        private final int bits;
+
+        LookupKey(Palette.Space space, int bits) {
+            this.space = space;
+            this.bits = bits;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof LookupKey)) {
+                return false;
+            }
+            LookupKey key = (LookupKey) other;
+            return space == key.space && bits == key.bits;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(space) * 31 + bits;
+        }
+    }
+
+    /**
+     * Obtient l'atlas des textures de la palette courante pour une taille de tuile,
+     * en le construisant (ou en le relisant depuis le disque) au premier appel.
+     *
+     * @param tileSize Taille en pixels d'une tuile
+     * @return L'atlas ; ses tuiles sont adressées par les indices de {@link #getPalette()}
+     */
+    public synchronized TextureAtlas getAtlas(int tileSize) {
+        return getAtlas(palette, tileSize);
+    }
+
+    /**
+     * Obtient l'atlas des textures d'une palette donnée, par exemple celle d'une
+     * {@link BlockMap} construite avant un rechargement. Comme pour les tables de
+     * correspondance, seuls les atlas de la palette publiée sont conservés.
+     *
+     * @param palette Palette dont les indices adressent les tuiles
+     * @param tileSize Taille en pixels d'une tuile
+     * @return L'atlas de cette palette
+     */
+    public synchronized TextureAtlas getAtlas(Palette palette, int tileSize) {
+        boolean current = palette == this.palette;
+        TextureAtlas atlas = current ? atlases.get(tileSize) : null;
+        if (atlas != null) {
+            return atlas;
+        }
+
+        long fingerprint = textureFingerprint(palette);
+        File file = new File(CACHE_DIR + "atlas-" + tileSize + ".bin");
+
+        if (persistLookupTables) {
+            try {
+                atlas = TextureAtlas.load(file, palette, tileSize, fingerprint);
+            } catch (IOException e) {
+                System.err.println("Erreur lors de la lecture de l'atlas des textures: " + e.getMessage());
+            }
+        }
+
+        if (atlas == null) {
+            long start = System.currentTimeMillis();
+            atlas = TextureAtlas.build(palette, tileSize);
+            System.out.println("Built " + tileSize + "px texture atlas in " + (System.currentTimeMillis() - start) + " ms");
+
+            if (persistLookupTables) {
+                try {
+                    atlas.save(file, fingerprint);
+                } catch (IOException e) {
+                    // L'atlas construit reste utilisable en mémoire ; il sera reconstruit au prochain lancement
+                    System.err.println("Erreur lors de la sauvegarde de l'atlas des textures: " + e.getMessage());
+                }
+            }
+        }
+
+        if (current) {
+            atlases.put(tileSize, atlas);
+        }
+        return atlas;
+    }
+
+    /**
+     * Empreinte des textures d'une palette : noms et ordre des blocs, chemins,
+     * taille et date de modification de chaque fichier.
+     */
+    private static long textureFingerprint(Palette palette) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < palette.size(); i++) {
+            Block block = palette.getBlock(i);
+            hash = fingerprint(hash, block.getName());
+            for (String path : new String[] {block.getTopTexturePath(), block.getSideTexturePath()}) {
+                hash = fingerprint(hash, path == null ? "" : path);
+                if (path != null) {
+                    File file = ResourcePack.getSourceFile(path);
+                    hash = (hash ^ file.length()) * 0x100000001b3L;
+                    hash = (hash ^ file.lastModified()) * 0x100000001b3L;
+                }
+            }
+        }
+        return hash;
+    }
+
+    private static long fingerprint(long hash, String value) {
+        for (int c = 0; c < value.length(); c++) {
+            hash = (hash ^ value.charAt(c)) * 0x100000001b3L;
+        }
+        return (hash ^ 0xFF) * 0x100000001b3L;
+    }
+
+    /**
+     * Obtient un bloc par son indice dans la liste chargée.
+     *
+     * @param index Indice du bloc
+     * @return Le bloc correspondant
+     */
+    public Block getBlock(int index) {
+        return palette.getBlock(index);
+    }
+
+    /**
+     * @return Liste non modifiable de tous les blocs chargés, partagée avec la palette courante (sans copie)
      */
     public List<Block> getAllBlocks() {
-        return new ArrayList<>(blocks);
+        return palette.getBlocks();
     }
 
     /**
      * @return Set de tous les blocs chargés (sans doublons)
      */
     public Set<Block> getAllBlocksAsSet() {
-        return new HashSet<>(blocks);
+        return new HashSet<>(palette.getBlocks());
     }
 
     /**
@@ -142,7 +929,7 @@ public class TextureManager {
      * @return Le bloc correspondant, ou null s'il n'existe pas
      */
     public Block getBlockByName(String name) {
-        return blockMap.get(name);
+        return palette.getBlockByName(name);
     }
 
     /**
@@ -153,27 +940,199 @@ public class TextureManager {
      * @return Le bloc dont la couleur est la plus proche
      */
     public Block findClosestColorBlock(Color targetColor, boolean useTopTexture) {
-        if (blocks.isEmpty()) {
+        return findClosestColorBlock(targetColor, useTopTexture, ColorMetric.RGB);
+    }
+
+    /**
+     * Trouve le bloc qui correspond le mieux à une couleur donnée selon une mesure de distance.
+     *
+     * @param targetColor Couleur cible
+     * @param useTopTexture true pour utiliser la texture du dessus, false pour la texture latérale
+     * @param metric Mesure de distance entre couleurs
+     * @return Le bloc dont la couleur est la plus proche
+     */
+    public Block findClosestColorBlock(Color targetColor, boolean useTopTexture, ColorMetric metric) {
+        return findClosestColorBlock(targetColor, useTopTexture, metric, null);
+    }
+
+    /**
+     * Trouve le bloc qui correspond le mieux à une couleur donnée parmi ceux gardés par un filtre.
+     *
+     * @param targetColor Couleur cible
+     * @param useTopTexture true pour utiliser la texture du dessus, false pour la texture latérale
+     * @param metric Mesure de distance entre couleurs
+     * @param filter Filtre des blocs autorisés (null pour toute la palette)
+     * @return Le bloc dont la couleur est la plus proche, ou null si aucun bloc n'est autorisé
+     */
+    public Block findClosestColorBlock(Color targetColor, boolean useTopTexture, ColorMetric metric,
+                                       PaletteFilter filter) {
+        if (targetColor == null) {
             return null;
         }
 
-        Block closestBlock = null;
-        double minDistance = Double.MAX_VALUE;
+        Palette current = palette;
+        float[] coordinates = new float[3];
+        metric.toCoordinates(targetColor.getRGB(), coordinates);
+        int closest = current.getFace(useTopTexture, filter).getSpace(metric)
+                .findClosest(coordinates[0], coordinates[1], coordinates[2]);
+        return closest < 0 ? null : current.getBlock(closest);
+    }
 
-        for (Block block : blocks) {
-            Color blockColor = useTopTexture ? block.getAverageTopColor() : block.getAverageSideColor();
+    /**
+     * Trouve en une seule fois le bloc le plus proche de chaque couleur d'un tableau.
+     * C'est le chemin de recherche commun à tous les convertisseurs.
+     *
+     * Les couleurs répétées ne sont recherchées qu'une fois par tranche, les pixels
+     * transparents (alpha inférieur à {@link #OPAQUE_ALPHA_THRESHOLD}) sont ignorés
+     * et le travail est réparti sur tous les cœurs disponibles.
+     *
+     * @param argb Couleurs au format 0xAARRGGBB
+     * @param useTopTexture true pour utiliser la texture du dessus, false pour la texture latérale
+     * @return Pour chaque couleur, l'indice du bloc le plus proche (utilisable avec {@link #getBlock(int)}),
+     *         ou -1 si le pixel est transparent ou qu'aucun bloc ne correspond
+     */
+    public int[] findClosestBlockIndices(int[] argb, boolean useTopTexture) {
+        return findClosestBlockIndices(argb, useTopTexture, false);
+    }
+
+    /**
+     * Variante de {@link #findClosestBlockIndices(int[], boolean)} pouvant passer par
+     * la table de correspondance RGB → bloc précalculée.
+     *
+     * @param argb Couleurs au format 0xAARRGGBB
+     * @param useTopTexture true pour utiliser la texture du dessus, false pour la texture latérale
+     * @param useLookupTable true pour utiliser la table de correspondance
+     * @return Pour chaque couleur, l'indice du bloc le plus proche, ou -1
+     */
+    public int[] findClosestBlockIndices(int[] argb, boolean useTopTexture, boolean useLookupTable) {
+        return findClosestBlockIndices(argb, useTopTexture, useLookupTable, ColorMetric.RGB);
+    }
+
+    /**
+     * Variante de {@link #findClosestBlockIndices(int[], boolean, boolean)} avec une mesure
+     * de distance au choix. Les couleurs de la palette sont déjà converties dans l'espace
+     * de la mesure ; chaque couleur distincte du lot n'est convertie qu'une fois.
+     *
+     * @param argb Couleurs au format 0xAARRGGBB
+     * @param useTopTexture true pour utiliser la texture du dessus, false pour la texture latérale
+     * @param useLookupTable true pour utiliser la table de correspondance
+     * @param metric Mesure de distance entre couleurs
+     * @return Pour chaque couleur, l'indice du bloc le plus proche, ou -1
+     */
+    public int[] findClosestBlockIndices(int[] argb, boolean useTopTexture, boolean useLookupTable, ColorMetric metric) {
+        return findClosestBlockIndices(palette, argb, useTopTexture, useLookupTable, metric);
+    }
+
+    /**
+     * Variante de {@link #findClosestBlockIndices(int[], boolean, boolean, ColorMetric)}
+     * dans un instantané donné de la palette. L'appelant qui garde les indices (par exemple
+     * dans une {@link BlockMap}) lit la palette une fois et la passe ici, pour que les
+     * indices renvoyés correspondent bien à celle qu'il conserve.
+     *
+     * @param palette Instantané de la palette (voir {@link #getPalette()})
+     * @param argb Couleurs au format 0xAARRGGBB
+     * @param useTopTexture true pour utiliser la texture du dessus, false pour la texture latérale
+     * @param useLookupTable true pour utiliser la table de correspondance
+     * @param metric Mesure de distance entre couleurs
+     * @return Pour chaque couleur, l'indice du bloc le plus proche dans cette palette, ou -1
+     */
+    public int[] findClosestBlockIndices(Palette palette, int[] argb, boolean useTopTexture,
+                                         boolean useLookupTable, ColorMetric metric) {
+        return findClosestBlockIndices(palette, argb, useTopTexture, useLookupTable, metric, null);
+    }
+
+    /**
+     * Variante de {@link #findClosestBlockIndices(Palette, int[], boolean, boolean, ColorMetric)}
+     * limitée aux blocs gardés par un filtre. L'index de recherche (et la table de
+     * correspondance) de la face restreinte sont construits une fois puis réutilisés.
+     *
+     * @param palette Instantané de la palette (voir {@link #getPalette()})
+     * @param argb Couleurs au format 0xAARRGGBB
+     * @param useTopTexture true pour utiliser la texture du dessus, false pour la texture latérale
+     * @param useLookupTable true pour utiliser la table de correspondance
+     * @param metric Mesure de distance entre couleurs
+     * @param filter Filtre des blocs autorisés (null pour toute la palette)
+     * @return Pour chaque couleur, l'indice du bloc le plus proche dans cette palette, ou -1
+     */
+    public int[] findClosestBlockIndices(Palette palette, int[] argb, boolean useTopTexture,
+                                         boolean useLookupTable, ColorMetric metric, PaletteFilter filter) {
+        int[] indices = new int[argb.length];
+        Palette.Space space = palette.getFace(useTopTexture, filter).getSpace(metric);
+        ColorLookupTable lookupTable = useLookupTable ? getLookupTable(palette, useTopTexture, metric, filter) : null;
 
-            // Si la texture n'existe pas, passer au bloc suivant
-            if (blockColor == null) continue;
+        int chunks = (argb.length + BATCH_CHUNK_SIZE - 1) / BATCH_CHUNK_SIZE;
+        IntStream.range(0, chunks).parallel().forEach(chunk -> {
+            int from = chunk * BATCH_CHUNK_SIZE;
+            int to = Math.min(argb.length, from + BATCH_CHUNK_SIZE);
+            matchChunk(argb, indices, from, to, space, lookupTable);
+        });
 
-            double distance = ColorUtils.colorDistance(targetColor, blockColor);
+        return indices;
+    }
 
-            if (distance < minDistance) {
-                minDistance = distance;
-                closestBlock = block;
+    /**
+     * Trouve le bloc le plus proche de chaque pixel d'un raster.
+     * Les trois premières bandes sont lues comme rouge, vert et bleu, la quatrième
+     * (si elle existe) comme alpha.
+     *
+     * @param raster Raster source
+     * @param useTopTexture true pour utiliser la texture du dessus, false pour la texture latérale
+     * @return Les indices de blocs, ligne par ligne, ou -1 pour les pixels transparents
+     */
+    public int[] findClosestBlockIndices(Raster raster, boolean useTopTexture) {
+        int width = raster.getWidth();
+        int height = raster.getHeight();
+        int bands = raster.getNumBands();
+        int[] argb = new int[width * height];
+        int[] samples = new int[width * bands];
+
+        for (int y = 0; y < height; y++) {
+            raster.getPixels(raster.getMinX(), raster.getMinY() + y, width, 1, samples);
+            for (int x = 0, s = 0; x < width; x++, s += bands) {
+                int red = samples[s];
+                int green = bands > 2 ? samples[s + 1] : red;
+                int blue = bands > 2 ? samples[s + 2] : red;
+                int alpha = bands > 3 ? samples[s + 3] : 0xFF;
+                argb[y * width + x] = (alpha << 24) | (red << 16) | (green << 8) | blue;
             }
         }
 
-        return closestBlock;
+        return findClosestBlockIndices(argb, useTopTexture);
+    }
+
+    /**
+     * Résout une tranche du lot. Un petit cache à correspondance directe évite de
+     * relancer la conversion et la recherche pour les couleurs qui se répètent.
+     */
+    private static void matchChunk(int[] argb, int[] indices, int from, int to,
+                                   Palette.Space space, ColorLookupTable lookupTable) {
+        int[] cachedColors = lookupTable == null ? new int[MATCH_CACHE_SIZE] : null;
+        int[] cachedIndices = lookupTable == null ? new int[MATCH_CACHE_SIZE] : null;
+        ColorMetric metric = space.getMetric();
+        float[] coordinates = new float[3];
+
+        for (int i = from; i < to; i++) {
+            int pixel = argb[i];
+            if ((pixel >>> 24) < OPAQUE_ALPHA_THRESHOLD) {
+                indices[i] = -1;
+                continue;
+            }
+
+            int rgb = pixel & 0xFFFFFF;
+            if (lookupTable != null) {
+                indices[i] = lookupTable.lookup(rgb);
+                continue;
+            }
+
+            // Le bit 24 marque une case occupée, pour distinguer le noir d'une case vide
+            int key = rgb | 0x1000000;
+            int slot = ((rgb * 0x9E3779B1) >>> 20) & (MATCH_CACHE_SIZE - 1);
+            if (cachedColors[slot] != key) {
+                cachedColors[slot] = key;
+                metric.toCoordinates(rgb, coordinates);
+                cachedIndices[slot] = space.findClosest(coordinates[0], coordinates[1], coordinates[2]);
+            }
+            indices[i] = cachedIndices[slot];
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,71 @@
+package skymc.model;
+
+import java.io.File;
+
+/**
+ * Empreinte du fichier d'une texture : sa taille et sa date de modification.
+ *
+ * Un bloc relève l'empreinte de chaque texture juste avant de la décoder, et les caches
+ * l'enregistrent avec la couleur moyenne calculée : si le fichier change pendant ou après
+ * le décodage, l'empreinte enregistrée ne correspond plus et le bloc est décodé à nouveau.
+ * Une texture de pack prend l'empreinte de son archive ; un fichier absent a une
+ * empreinte nulle, si bien que l'absence aussi est mise en cache.
+ */
+final class TextureStamp {
+    /**
+     * Empreinte d'une face sans texture ou d'un fichier absent.
+     */
+    static final TextureStamp NONE = new TextureStamp(0, 0);
+
+    private final long size;
+    private final long lastModified;
+
+    TextureStamp(long size, long lastModified) {
+        this.size = size;
+        this.lastModified = lastModified;
+    }
+
+    /**
+     * Relève l'empreinte actuelle d'une texture.
+     *
+     * @param path Chemin de la texture (peut être null)
+     * @return L'empreinte, {@link #NONE} si le chemin est null
+     */
+    static TextureStamp of(String path) {
+        if (path == null) {
+            return NONE;
+        }
+        File file = ResourcePack.getSourceFile(path);
+        return new TextureStamp(file.length(), file.lastModified());
+    }
+
+    /**
+     * @param path Chemin de la texture (peut être null)
+     * @return true si le fichier a toujours cette empreinte
+     */
+    boolean matches(String path) {
+        return equals(of(path));
+    }
+
+    long getSize() {
+        return size;
+    }
+
+    long getLastModified() {
+        return lastModified;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof TextureStamp)) {
+            return false;
+        }
+        TextureStamp stamp = (TextureStamp) other;
+        return size == stamp.size && lastModified == stamp.lastModified;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(size) * 31 + Long.hashCode(lastModified);
+    }
+}
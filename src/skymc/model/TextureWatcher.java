@@ -0,0 +1,121 @@
+package skymc.model;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Surveille les répertoires de textures et recharge les blocs dont les fichiers changent.
+ *
+ * Les événements sont regroupés jusqu'à ce que les répertoires restent calmes pendant
+ * {@link #QUIET_PERIOD_MS} ms, si bien qu'une copie de plusieurs fichiers ou un éditeur
+ * qui enregistre en plusieurs étapes ne provoque qu'un seul rechargement. Le rechargement
+ * se fait sur le thread de surveillance, en arrière-plan de l'interface.
+ */
+public class TextureWatcher implements Closeable {
+    /**
+     * Durée sans nouvel événement avant de lancer le rechargement.
+     */
+    public static final long QUIET_PERIOD_MS = 300;
+
+    private final TextureManager manager;
+    private final WatchService watchService;
+    private final Thread thread;
+
+    /**
+     * @param manager Gestionnaire à recharger
+     * @param directories Répertoires de textures à surveiller
+     * @throws IOException Si un répertoire ne peut pas être surveillé
+     */
+    public TextureWatcher(TextureManager manager, File... directories) throws IOException {
+        this.manager = manager;
+        this.watchService = FileSystems.getDefault().newWatchService();
+        try {
+            for (File directory : directories) {
+                directory.toPath().register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+            }
+        } catch (IOException e) {
+            watchService.close();
+            throw e;
+        }
+
+        this.thread = new Thread(this::watch, "texture-watcher");
+        this.thread.setDaemon(true);
+    }
+
+    /**
+     * Démarre la surveillance.
+     */
+    public void start() {
+        thread.start();
+    }
+
+    /**
+     * Arrête la surveillance. Un rechargement déjà commencé va jusqu'au bout.
+     */
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+    }
+
+    private void watch() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                Set<String> blockNames = new LinkedHashSet<>();
+                boolean overflow = false;
+                while (key != null) {
+                    overflow |= collect(key, blockNames);
+                    key = watchService.poll(QUIET_PERIOD_MS, TimeUnit.MILLISECONDS);
+                }
+
+                try {
+                    if (overflow) {
+                        // Des événements ont été perdus : on ne sait plus quels fichiers ont changé
+                        manager.reloadAllTextures();
+                    } else if (!blockNames.isEmpty()) {
+                        manager.reloadTextures(blockNames);
+                    }
+                } catch (RuntimeException e) {
+                    System.err.println("Erreur lors du rechargement des textures: " + e.getMessage());
+                    e.printStackTrace();
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Surveillance arrêtée
+        }
+    }
+
+    /**
+     * Ajoute les noms des blocs concernés par les événements d'une clé.
+     *
+     * @return true si des événements ont été perdus
+     */
+    private static boolean collect(WatchKey key, Set<String> blockNames) {
+        boolean overflow = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                overflow = true;
+                continue;
+            }
+
+            String fileName = ((Path) event.context()).getFileName().toString();
+            if (fileName.toLowerCase().endsWith(".png")) {
+                blockNames.add(fileName.replace(".png", ""));
+            }
+        }
+        key.reset();
+        return overflow;
+    }
+}
@@ -0,0 +1,102 @@
+package skymc.model;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Implémentation vectorielle (SIMD) du noyau du plus proche voisin, basée sur
+ * l'API Vector incubée ({@code jdk.incubator.vector}).
+ *
+ * Chaque itération calcule la distance entre la cible et autant d'entrées de la
+ * palette que la largeur des registres le permet, et conserve par voie le minimum
+ * courant et sa position. Nécessite {@code --add-modules jdk.incubator.vector}
+ * à la compilation et à l'exécution ; sinon {@link NearestColorKernels} se replie
+ * sur {@link ScalarNearestColorKernel}.
+ */
+public class VectorNearestColorKernel implements NearestColorKernel {
+    private static final VectorSpecies<Float> FLOATS = FloatVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Integer> INTS = VectorSpecies.of(int.class, FLOATS.vectorShape());
+
+    @Override
+    public int nearest(float[] xs, float[] ys, float[] zs, int count, float x, float y, float z) {
+        int best = -1;
+        float bestDistance = Float.MAX_VALUE;
+        int bound = FLOATS.loopBound(count);
+
+        if (bound > 0) {
+            FloatVector vx = FloatVector.broadcast(FLOATS, x);
+            FloatVector vy = FloatVector.broadcast(FLOATS, y);
+            FloatVector vz = FloatVector.broadcast(FLOATS, z);
+            FloatVector minDistances = FloatVector.broadcast(FLOATS, Float.MAX_VALUE);
+            IntVector minPositions = IntVector.zero(INTS);
+            IntVector lanes = IntVector.zero(INTS).addIndex(1);
+
+            for (int i = 0; i < bound; i += FLOATS.length()) {
+                FloatVector dx = FloatVector.fromArray(FLOATS, xs, i).sub(vx);
+                FloatVector dy = FloatVector.fromArray(FLOATS, ys, i).sub(vy);
+                FloatVector dz = FloatVector.fromArray(FLOATS, zs, i).sub(vz);
+                FloatVector distances = dx.mul(dx).add(dy.mul(dy)).add(dz.mul(dz));
+
+                // Inégalité stricte : chaque voie garde la première position à distance minimale
+                VectorMask<Float> closer = distances.lt(minDistances);
+                minDistances = minDistances.blend(distances, closer);
+                minPositions = minPositions.blend(lanes.add(i), closer.cast(INTS));
+            }
+
+            // Réduction des voies : plus petite distance, puis plus petite position
+            float[] laneDistances = minDistances.toArray();
+            int[] lanePositions = minPositions.toArray();
+            for (int lane = 0; lane < laneDistances.length; lane++) {
+                float distance = laneDistances[lane];
+                if (distance < bestDistance || (distance == bestDistance && lanePositions[lane] < best)) {
+                    bestDistance = distance;
+                    best = lanePositions[lane];
+                }
+            }
+        }
+
+        // Reste scalaire : ces positions sont toutes supérieures à celles déjà vues
+        for (int i = bound; i < count; i++) {
+            float dx = xs[i] - x;
+            float dy = ys[i] - y;
+            float dz = zs[i] - z;
+            float distance = dx * dx + dy * dy + dz * dz;
+
+            if (distance < bestDistance) {
+                bestDistance = distance;
+                best = i;
+            }
+        }
+
+        return best;
+    }
+
+    @Override
+    public void distances(float[] xs, float[] ys, float[] zs, int count, float x, float y, float z, float[] out) {
+        int bound = FLOATS.loopBound(count);
+        FloatVector vx = FloatVector.broadcast(FLOATS, x);
+        FloatVector vy = FloatVector.broadcast(FLOATS, y);
+        FloatVector vz = FloatVector.broadcast(FLOATS, z);
+
+        for (int i = 0; i < bound; i += FLOATS.length()) {
+            FloatVector dx = FloatVector.fromArray(FLOATS, xs, i).sub(vx);
+            FloatVector dy = FloatVector.fromArray(FLOATS, ys, i).sub(vy);
+            FloatVector dz = FloatVector.fromArray(FLOATS, zs, i).sub(vz);
+            dx.mul(dx).add(dy.mul(dy)).add(dz.mul(dz)).intoArray(out, i);
+        }
+
+        for (int i = bound; i < count; i++) {
+            float dx = xs[i] - x;
+            float dy = ys[i] - y;
+            float dz = zs[i] - z;
+            out[i] = dx * dx + dy * dy + dz * dz;
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "vector-" + FLOATS.length() + "x" + Float.SIZE;
+    }
+}
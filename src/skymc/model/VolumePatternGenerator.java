@@ -0,0 +1,237 @@
+package skymc.model;
+
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+import skymc.model.noise.FractalNoise;
+import skymc.model.noise.Noise;
+import skymc.model.noise.PerlinNoise;
+import skymc.model.noise.SimplexNoise;
+import skymc.model.noise.WorleyNoise;
+
+/**
+ * Motifs en volume (murs, dômes, terrains) : les types de {@link PatternGenerator.PatternType}
+ * étendus à trois dimensions, avec du bruit 3D et des distances dans l'espace.
+ *
+ * Le volume est produit section par section ({@link PatternSection}, 16x16x16 blocs), chaque
+ * section étant calculée sur un thread du pool commun et remise aussitôt au consommateur.
+ * Les sections sont calculées tranche par tranche, de bas en haut : une tranche (toutes les
+ * sections de même hauteur) est entièrement remise avant que la suivante ne commence. Un
+ * consommateur qui écrit dans l'ordre des y, comme {@link SchematicWriter}, n'a donc jamais
+ * plus d'une tranche à garder. Aucun tableau du volume entier n'est construit, si bien que
+ * des volumes de plusieurs millions de blocs se génèrent sans Block[][][].
+ *
+ * Le dégradé, le filtre de palette, la table de correspondance, le nombre de sites et la
+ * distance cellulaire sont ceux du {@link PatternGenerator} passé au constructeur. Comme en
+ * 2D, une même graine donne toujours le même volume.
+ */
+public class VolumePatternGenerator {
+    /**
+     * Reçoit les sections d'un volume.
+     */
+    @FunctionalInterface
+    public interface SectionConsumer {
+        /**
+         * Appelé une fois par section, depuis plusieurs threads à la fois. Les tranches sont
+         * remises de bas en haut, mais les sections d'une même tranche dans un ordre
+         * quelconque. Le consommateur doit donc être thread-safe ; il peut garder la section.
+         *
+         * @param section Section terminée
+         */
+        void accept(PatternSection section);
+    }
+
+    /**
+     * Valeur t d'un motif en un bloc, avant la courbe et le bruit.
+     */
+    @FunctionalInterface
+    private interface Field {
+        double value(int x, int y, int z, WorleyNoise.Result nearest);
+    }
+
+    // Décorrèle les flux aléatoires des sections
+    private static final long SECTION_MIX = 0xBF58476D1CE4E5B9L;
+
+    private final PatternGenerator settings;
+
+    /**
+     * @param settings Générateur 2D dont les réglages sont repris
+     */
+    public VolumePatternGenerator(PatternGenerator settings) {
+        this.settings = settings;
+    }
+
+    /**
+     * Génère un volume et le remet section par section. La méthode rend la main quand
+     * toutes les sections ont été remises.
+     *
+     * @param startBlock Bloc de début du dégradé
+     * @param endBlock Bloc de fin du dégradé
+     * @param width Largeur du volume (x), en blocs
+     * @param height Hauteur du volume (y), en blocs
+     * @param depth Profondeur du volume (z), en blocs
+     * @param noiseLevel Quantité de bruit ajoutée (0-1)
+     * @param patternType Type de motif
+     * @param curveType Courbe appliquée au dégradé
+     * @param useTopTexture true pour choisir les blocs d'après leur face du dessus
+     * @param seed Graine de tous les tirages
+     * @param consumer Destinataire des sections
+     */
+    public void generate(Block startBlock, Block endBlock, int width, int height, int depth, double noiseLevel,
+                         PatternGenerator.PatternType patternType, PatternGenerator.CurveType curveType,
+                         boolean useTopTexture, long seed, SectionConsumer consumer) {
+        if (width < 1 || height < 1 || depth < 1) {
+            throw new IllegalArgumentException("Volume vide : " + width + "x" + height + "x" + depth);
+        }
+
+        // Dégradé calculé une fois, sur un seul instantané de la palette
+        Palette palette = TextureManager.getInstance().getPalette();
+        if (palette.size() > Short.MAX_VALUE) {
+            throw new IllegalStateException("Trop de blocs pour des sections compactes : " + palette.size());
+        }
+        int[] ramp = settings.buildIndexRamp(palette, startBlock, endBlock, useTopTexture);
+        int startIndex = palette.indexOf(startBlock) >= 0 ? palette.indexOf(startBlock) : ramp[0];
+        int endIndex = palette.indexOf(endBlock) >= 0 ? palette.indexOf(endBlock) : ramp[ramp.length - 1];
+
+        SplittableRandom random = new SplittableRandom(seed);
+        Field field = createField(patternType, width, height, depth, seed, random);
+        Noise detail = isNoisePattern(patternType) ? new PerlinNoise(seed + 1000) : null;
+        long noiseSeed = random.nextLong();
+
+        int sectionsX = (width + PatternSection.SIZE - 1) / PatternSection.SIZE;
+        int sectionsY = (height + PatternSection.SIZE - 1) / PatternSection.SIZE;
+        int sectionsZ = (depth + PatternSection.SIZE - 1) / PatternSection.SIZE;
+        long sectionCount = (long) sectionsX * sectionsY * sectionsZ;
+        if (sectionCount > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Volume trop grand : " + sectionCount + " sections");
+        }
+        int slabSize = sectionsX * sectionsZ;
+
+        // Une tranche à la fois, en parallèle à l'intérieur de la tranche
+        for (int slab = 0; slab < sectionsY; slab++) {
+            int firstSection = slab * slabSize;
+            IntStream.range(firstSection, firstSection + slabSize).parallel().forEach(i -> {
+                int sectionX = i % sectionsX;
+                int sectionZ = (i / sectionsX) % sectionsZ;
+                int sectionY = i / (sectionsX * sectionsZ);
+
+                // Flux propre à la section : le bruit ne dépend pas de l'ordre de calcul
+                SplittableRandom sectionRandom = new SplittableRandom(noiseSeed ^ (i * SECTION_MIX));
+                WorleyNoise.Result nearest = new WorleyNoise.Result();
+                short[] indices = new short[PatternSection.VOLUME];
+
+                for (int ly = 0; ly < PatternSection.SIZE; ly++) {
+                    int y = sectionY * PatternSection.SIZE + ly;
+                    for (int lz = 0; lz < PatternSection.SIZE; lz++) {
+                        int z = sectionZ * PatternSection.SIZE + lz;
+                        for (int lx = 0; lx < PatternSection.SIZE; lx++) {
+                            int x = sectionX * PatternSection.SIZE + lx;
+                            int index = PatternSection.index(lx, ly, lz);
+                            if (x >= width || y >= height || z >= depth) {
+                                indices[index] = PatternSection.EMPTY;
+                                continue;
+                            }
+
+                            double t = PatternGenerator.applyEasingCurve(field.value(x, y, z, nearest), curveType);
+                            if (noiseLevel > 0) {
+                                double noise = detail != null
+                                        ? detail.sample(x * 0.7, y * 0.7, z * 0.7) * noiseLevel
+                                        : (sectionRandom.nextDouble() - 0.5) * 2 * noiseLevel;
+                                t = Math.max(0, Math.min(1, t + noise));
+                            }
+
+                            int blockIndex;
+                            if (t <= 0.0) {
+                                blockIndex = startIndex;
+                            } else if (t >= 1.0) {
+                                blockIndex = endIndex;
+                            } else {
+                                blockIndex = ramp[(int) Math.round(t * (PatternGenerator.RAMP_SIZE - 1))];
+                            }
+                            indices[index] = (short) blockIndex;
+                        }
+                    }
+                }
+
+                consumer.accept(new PatternSection(palette, sectionX, sectionY, sectionZ, indices));
+            });
+        }
+    }
+
+    private static boolean isNoisePattern(PatternGenerator.PatternType patternType) {
+        return patternType == PatternGenerator.PatternType.PERLIN
+                || patternType == PatternGenerator.PatternType.SIMPLEX
+                || patternType == PatternGenerator.PatternType.RIDGED;
+    }
+
+    /**
+     * Construit la fonction t(x, y, z) d'un type de motif. y est la hauteur, comme dans Minecraft.
+     */
+    private Field createField(PatternGenerator.PatternType patternType, int width, int height, int depth,
+                              long seed, SplittableRandom random) {
+        double centerX = width / 2.0;
+        double centerY = height / 2.0;
+        double centerZ = depth / 2.0;
+
+        switch (patternType) {
+            case LINEAR_HORIZONTAL:
+                return (x, y, z, nearest) -> width > 1 ? (double) x / (width - 1) : 0;
+            case LINEAR_VERTICAL:
+                return (x, y, z, nearest) -> height > 1 ? (double) y / (height - 1) : 0;
+            case RADIAL:
+                // Distance au centre rapportée aux demi-côtés : une sphère, ou un ellipsoïde
+                // qui touche les faces d'un volume allongé
+                return (x, y, z, nearest) -> {
+                    double dx = (x - centerX) / centerX;
+                    double dy = (y - centerY) / centerY;
+                    double dz = (z - centerZ) / centerZ;
+                    return Math.min(1.0, Math.sqrt(dx * dx + dy * dy + dz * dz));
+                };
+            case DIAGONAL: {
+                double span = Math.max(1, (width - 1) + (height - 1) + (depth - 1));
+                return (x, y, z, nearest) -> (x + y + z) / span;
+            }
+            case SPIRAL: {
+                // Hélice autour de l'axe vertical : la spirale 2D tourne d'un tour sur la hauteur
+                double maxDistance = Math.sqrt(centerX * centerX + centerZ * centerZ);
+                return (x, y, z, nearest) -> {
+                    double dx = x - centerX;
+                    double dz = z - centerZ;
+                    double angle = Math.atan2(dz, dx);
+                    double distance = Math.sqrt(dx * dx + dz * dz);
+                    return (distance / maxDistance + (angle + Math.PI) / (2 * Math.PI) + (double) y / height) % 1.0;
+                };
+            }
+            case PERLIN:
+                return noiseField(FractalNoise.fbm(new PerlinNoise(seed), PatternGenerator.NOISE_OCTAVES));
+            case SIMPLEX:
+                return noiseField(FractalNoise.fbm(new SimplexNoise(seed), PatternGenerator.NOISE_OCTAVES));
+            case RIDGED:
+                return noiseField(new FractalNoise(new PerlinNoise(seed), FractalNoise.Mode.RIDGED,
+                        PatternGenerator.NOISE_OCTAVES, 2.0, 0.5));
+            case VORONOI: {
+                int siteCount = settings.getSiteCount();
+                WorleyNoise sites = new WorleyNoise(random, siteCount, width, height, depth);
+                return (x, y, z, nearest) -> {
+                    sites.query(x, y, z, nearest);
+                    return siteCount > 1 ? (double) nearest.getSite() / (siteCount - 1) : 0;
+                };
+            }
+            case CELLULAR: {
+                WorleyNoise sites = new WorleyNoise(random, settings.getSiteCount(), width, height, depth);
+                WorleyNoise.Distance distance = settings.getDistanceMode();
+                double spacing = sites.getSpacing();
+                return (x, y, z, nearest) -> {
+                    sites.query(x, y, z, nearest);
+                    return 1 - Math.min(1.0, nearest.get(distance) / spacing);
+                };
+            }
+            default:
+                throw new IllegalArgumentException("Type de motif non géré : " + patternType);
+        }
+    }
+
+    private static Field noiseField(Noise noise) {
+        double scale = PatternGenerator.NOISE_SCALE;
+        return (x, y, z, nearest) -> Noise.toUnit(noise.sample(x * scale, y * scale, z * scale));
+    }
+}
@@ -0,0 +1,118 @@
+package skymc.model.noise;
+
+/**
+ * Somme de plusieurs octaves d'un bruit : chaque octave double (par défaut) la fréquence
+ * et divise par deux l'amplitude de la précédente, ce qui ajoute des détails de plus en
+ * plus fins à la forme générale.
+ *
+ * Trois façons de combiner les octaves :
+ * <ul>
+ *   <li>{@link Mode#FBM} : somme directe (mouvement brownien fractionnaire), des nuages ;</li>
+ *   <li>{@link Mode#RIDGED} : 1 - |bruit|, au carré, des crêtes fines comme des veines ou des chaînes de montagnes ;</li>
+ *   <li>{@link Mode#TURBULENCE} : |bruit|, des plis arrondis comme de la fumée ou du marbre.</li>
+ * </ul>
+ * Le résultat est normalisé dans [-1, 1] quel que soit le mode.
+ */
+public final class FractalNoise implements Noise {
+    /**
+     * Combinaison des octaves.
+     */
+    public enum Mode {
+        FBM,
+        RIDGED,
+        TURBULENCE
+    }
+
+    // Décalage de chaque octave, pour qu'elles ne s'annulent pas toutes à l'origine
+    private static final double OCTAVE_OFFSET = 71.37;
+
+    private final Noise noise;
+    private final Mode mode;
+    private final int octaves;
+    private final double lacunarity;
+    private final double gain;
+    private final double amplitudeSum;
+
+    /**
+     * @param noise Bruit de base
+     * @param mode Combinaison des octaves
+     * @param octaves Nombre d'octaves, au moins 1
+     * @param lacunarity Facteur de fréquence entre deux octaves (2 en général)
+     * @param gain Facteur d'amplitude entre deux octaves (0.5 en général)
+     */
+    public FractalNoise(Noise noise, Mode mode, int octaves, double lacunarity, double gain) {
+        if (octaves < 1) {
+            throw new IllegalArgumentException("Au moins une octave est nécessaire : " + octaves);
+        }
+        this.noise = noise;
+        this.mode = mode;
+        this.octaves = octaves;
+        this.lacunarity = lacunarity;
+        this.gain = gain;
+
+        double sum = 0;
+        double amplitude = 1;
+        for (int i = 0; i < octaves; i++) {
+            sum += amplitude;
+            amplitude *= gain;
+        }
+        this.amplitudeSum = sum;
+    }
+
+    /**
+     * Crée un fBm classique : fréquence doublée et amplitude divisée par deux à chaque octave.
+     *
+     * @param noise Bruit de base
+     * @param octaves Nombre d'octaves
+     * @return Le bruit fractal
+     */
+    public static FractalNoise fbm(Noise noise, int octaves) {
+        return new FractalNoise(noise, Mode.FBM, octaves, 2.0, 0.5);
+    }
+
+    @Override
+    public double sample(double x, double y) {
+        double sum = 0;
+        double amplitude = 1;
+        double frequency = 1;
+        for (int i = 0; i < octaves; i++) {
+            double offset = i * OCTAVE_OFFSET;
+            sum += amplitude * shape(noise.sample(x * frequency + offset, y * frequency + offset));
+            amplitude *= gain;
+            frequency *= lacunarity;
+        }
+        return normalize(sum);
+    }
+
+    @Override
+    public double sample(double x, double y, double z) {
+        double sum = 0;
+        double amplitude = 1;
+        double frequency = 1;
+        for (int i = 0; i < octaves; i++) {
+            double offset = i * OCTAVE_OFFSET;
+            sum += amplitude * shape(noise.sample(x * frequency + offset, y * frequency + offset, z * frequency + offset));
+            amplitude *= gain;
+            frequency *= lacunarity;
+        }
+        return normalize(sum);
+    }
+
+    private double shape(double value) {
+        switch (mode) {
+            case RIDGED:
+                double ridge = 1 - Math.abs(value);
+                return ridge * ridge;
+            case TURBULENCE:
+                return Math.abs(value);
+            default:
+                return value;
+        }
+    }
+
+    // fBm est déjà centré ; les deux autres modes donnent une somme dans [0, amplitudeSum]
+    private double normalize(double sum) {
+        double value = sum / amplitudeSum;
+        return mode == Mode.FBM ? value : value * 2 - 1;
+    }
+}
@@ -0,0 +1,35 @@
+package skymc.model.noise;
+
+/**
+ * Bruit cohérent : une fonction pseudo-aléatoire et continue de l'espace, entièrement
+ * déterminée par sa graine.
+ *
+ * Les valeurs sont comprises à peu près dans [-1, 1]. Les implémentations n'allouent
+ * rien par échantillon et peuvent être lues depuis plusieurs threads à la fois.
+ */
+public interface Noise {
+    /**
+     * @param x Abscisse
+     * @param y Ordonnée
+     * @return Valeur du bruit au point, environ dans [-1, 1]
+     */
+    double sample(double x, double y);
+
+    /**
+     * @param x Abscisse
+     * @param y Ordonnée
+     * @param z Profondeur
+     * @return Valeur du bruit au point, environ dans [-1, 1]
+     */
+    double sample(double x, double y, double z);
+
+    /**
+     * Ramène une valeur de bruit dans [0, 1].
+     *
+     * @param value Valeur dans [-1, 1]
+     * @return Valeur dans [0, 1], bornée
+     */
+    static double toUnit(double value) {
+        return Math.max(0, Math.min(1, (value + 1) * 0.5));
+    }
+}
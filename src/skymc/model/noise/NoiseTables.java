@@ -0,0 +1,68 @@
+package skymc.model.noise;
+
+import java.util.SplittableRandom;
+
+/**
+ * Tables partagées par les bruits à gradients : permutation tirée de la graine et
+ * gradients précalculés, pour qu'un échantillon ne coûte ni allocation ni appel
+ * à Math.cos ou Math.sin.
+ */
+final class NoiseTables {
+    /**
+     * Gradients 2D : 32 directions unitaires régulières, décalées d'un demi-pas pour
+     * qu'aucune ne soit alignée sur les axes. Indice : hash & 31.
+     */
+    static final double[] GRAD2_X = new double[32];
+    static final double[] GRAD2_Y = new double[32];
+
+    /**
+     * Gradients 3D : les 12 milieux des arêtes du cube, complétés à 16 comme dans le
+     * bruit de Perlin amélioré (2002). Indice : hash & 15.
+     */
+    static final double[] GRAD3_X = {1, -1, 1, -1, 1, -1, 1, -1, 0, 0, 0, 0, 1, 0, -1, 0};
+    static final double[] GRAD3_Y = {1, 1, -1, -1, 0, 0, 0, 0, 1, -1, 1, -1, 1, -1, 1, -1};
+    static final double[] GRAD3_Z = {0, 0, 0, 0, 1, 1, -1, -1, 1, 1, -1, -1, 0, 1, 0, -1};
+
+    static {
+        for (int i = 0; i < GRAD2_X.length; i++) {
+            double angle = (i + 0.5) * 2 * Math.PI / GRAD2_X.length;
+            GRAD2_X[i] = Math.cos(angle);
+            GRAD2_Y[i] = Math.sin(angle);
+        }
+    }
+
+    private NoiseTables() {
+    }
+
+    /**
+     * Tire une permutation de 0..255 et la duplique, pour que perm[i + 1] et
+     * perm[perm[i] + j] se lisent sans modulo.
+     *
+     * @param seed Graine
+     * @return Table de 512 entrées
+     */
+    static int[] permutation(long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        int[] perm = new int[512];
+        for (int i = 0; i < 256; i++) {
+            perm[i] = i;
+        }
+        // Mélange de Fisher-Yates
+        for (int i = 255; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int temp = perm[i];
+            perm[i] = perm[j];
+            perm[j] = temp;
+        }
+        System.arraycopy(perm, 0, perm, 256, 256);
+        return perm;
+    }
+
+    /**
+     * Partie entière inférieure, plus rapide que (int) Math.floor(value).
+     */
+    static int floor(double value) {
+        int i = (int) value;
+        return value < i ? i - 1 : i;
+    }
+}
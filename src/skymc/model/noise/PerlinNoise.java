@@ -0,0 +1,93 @@
+package skymc.model.noise;
+
+/**
+ * Bruit de Perlin amélioré (Ken Perlin, 2002) : gradients aux sommets d'une grille
+ * entière, choisis par une table de permutation, et interpolés avec la courbe
+ * 6t^5 - 15t^4 + 10t^3.
+ *
+ * Le bruit se répète tous les 256 unités dans chaque direction.
+ */
+public final class PerlinNoise implements Noise {
+    // Amplitude maximale du bruit 2D à gradients unitaires : √2 / 2
+    private static final double SCALE_2D = Math.sqrt(2);
+
+    private final int[] perm;
+
+    /**
+     * @param seed Graine : deux bruits de même graine sont identiques
+     */
+    public PerlinNoise(long seed) {
+        this.perm = NoiseTables.permutation(seed);
+    }
+
+    @Override
+    public double sample(double x, double y) {
+        int x0 = NoiseTables.floor(x);
+        int y0 = NoiseTables.floor(y);
+        double fx = x - x0;
+        double fy = y - y0;
+        int X = x0 & 255;
+        int Y = y0 & 255;
+
+        int a = perm[X] + Y;
+        int b = perm[X + 1] + Y;
+        double n00 = grad(perm[a], fx, fy);
+        double n10 = grad(perm[b], fx - 1, fy);
+        double n01 = grad(perm[a + 1], fx, fy - 1);
+        double n11 = grad(perm[b + 1], fx - 1, fy - 1);
+
+        double u = fade(fx);
+        double v = fade(fy);
+        return SCALE_2D * lerp(v, lerp(u, n00, n10), lerp(u, n01, n11));
+    }
+
+    @Override
+    public double sample(double x, double y, double z) {
+        int x0 = NoiseTables.floor(x);
+        int y0 = NoiseTables.floor(y);
+        int z0 = NoiseTables.floor(z);
+        double fx = x - x0;
+        double fy = y - y0;
+        double fz = z - z0;
+        int X = x0 & 255;
+        int Y = y0 & 255;
+        int Z = z0 & 255;
+
+        // Hachages des 8 coins du cube
+        int A = perm[X] + Y;
+        int AA = perm[A] + Z;
+        int AB = perm[A + 1] + Z;
+        int B = perm[X + 1] + Y;
+        int BA = perm[B] + Z;
+        int BB = perm[B + 1] + Z;
+
+        double u = fade(fx);
+        double v = fade(fy);
+        double w = fade(fz);
+        return lerp(w,
+                lerp(v,
+                        lerp(u, grad(perm[AA], fx, fy, fz), grad(perm[BA], fx - 1, fy, fz)),
+                        lerp(u, grad(perm[AB], fx, fy - 1, fz), grad(perm[BB], fx - 1, fy - 1, fz))),
+                lerp(v,
+                        lerp(u, grad(perm[AA + 1], fx, fy, fz - 1), grad(perm[BA + 1], fx - 1, fy, fz - 1)),
+                        lerp(u, grad(perm[AB + 1], fx, fy - 1, fz - 1), grad(perm[BB + 1], fx - 1, fy - 1, fz - 1))));
+    }
+
+    private static double grad(int hash, double x, double y) {
+        int h = hash & 31;
+        return NoiseTables.GRAD2_X[h] * x + NoiseTables.GRAD2_Y[h] * y;
+    }
+
+    private static double grad(int hash, double x, double y, double z) {
+        int h = hash & 15;
+        return NoiseTables.GRAD3_X[h] * x + NoiseTables.GRAD3_Y[h] * y + NoiseTables.GRAD3_Z[h] * z;
+    }
+
+    private static double fade(double t) {
+        return t * t * t * (t * (t * 6 - 15) + 10);
+    }
+
+    private static double lerp(double t, double a, double b) {
+        return a + t * (b - a);
+    }
+}
@@ -0,0 +1,130 @@
+package skymc.model.noise;
+
+/**
+ * Bruit simplexe (Ken Perlin, 2001) : la grille carrée du bruit de Perlin est remplacée
+ * par des triangles (des tétraèdres en 3D), si bien qu'un échantillon ne combine que
+ * 3 gradients en 2D et 4 en 3D, au lieu de 4 et 8. Les motifs n'ont pas non plus
+ * l'alignement sur les axes du bruit de Perlin.
+ *
+ * Les gradients et la permutation sont ceux de {@link PerlinNoise}.
+ */
+public final class SimplexNoise implements Noise {
+    // Passage de la grille carrée à la grille de triangles, et retour
+    private static final double F2 = 0.5 * (Math.sqrt(3) - 1);
+    private static final double G2 = (3 - Math.sqrt(3)) / 6;
+    private static final double F3 = 1.0 / 3;
+    private static final double G3 = 1.0 / 6;
+
+    // Ramènent l'amplitude maximale à 1
+    private static final double SCALE_2D = 99.2;
+    private static final double SCALE_3D = 32.7;
+
+    private final int[] perm;
+
+    /**
+     * @param seed Graine : deux bruits de même graine sont identiques
+     */
+    public SimplexNoise(long seed) {
+        this.perm = NoiseTables.permutation(seed);
+    }
+
+    @Override
+    public double sample(double x, double y) {
+        // Triangle qui contient le point
+        double s = (x + y) * F2;
+        int i = NoiseTables.floor(x + s);
+        int j = NoiseTables.floor(y + s);
+        double t = (i + j) * G2;
+        double x0 = x - (i - t);
+        double y0 = y - (j - t);
+
+        // Triangle du bas ou du haut de la cellule
+        int i1 = x0 > y0 ? 1 : 0;
+        int j1 = 1 - i1;
+
+        double x1 = x0 - i1 + G2;
+        double y1 = y0 - j1 + G2;
+        double x2 = x0 - 1 + 2 * G2;
+        double y2 = y0 - 1 + 2 * G2;
+
+        int ii = i & 255;
+        int jj = j & 255;
+        double n = corner(perm[ii + perm[jj]], x0, y0)
+                + corner(perm[ii + i1 + perm[jj + j1]], x1, y1)
+                + corner(perm[ii + 1 + perm[jj + 1]], x2, y2);
+        return SCALE_2D * n;
+    }
+
+    @Override
+    public double sample(double x, double y, double z) {
+        // Tétraèdre qui contient le point
+        double s = (x + y + z) * F3;
+        int i = NoiseTables.floor(x + s);
+        int j = NoiseTables.floor(y + s);
+        int k = NoiseTables.floor(z + s);
+        double t = (i + j + k) * G3;
+        double x0 = x - (i - t);
+        double y0 = y - (j - t);
+        double z0 = z - (k - t);
+
+        // Les deux sommets intermédiaires dépendent de l'ordre des coordonnées
+        int i1, j1, k1, i2, j2, k2;
+        if (x0 >= y0) {
+            if (y0 >= z0) {
+                i1 = 1; j1 = 0; k1 = 0; i2 = 1; j2 = 1; k2 = 0;
+            } else if (x0 >= z0) {
+                i1 = 1; j1 = 0; k1 = 0; i2 = 1; j2 = 0; k2 = 1;
+            } else {
+                i1 = 0; j1 = 0; k1 = 1; i2 = 1; j2 = 0; k2 = 1;
+            }
+        } else {
+            if (y0 < z0) {
+                i1 = 0; j1 = 0; k1 = 1; i2 = 0; j2 = 1; k2 = 1;
+            } else if (x0 < z0) {
+                i1 = 0; j1 = 1; k1 = 0; i2 = 0; j2 = 1; k2 = 1;
+            } else {
+                i1 = 0; j1 = 1; k1 = 0; i2 = 1; j2 = 1; k2 = 0;
+            }
+        }
+
+        double x1 = x0 - i1 + G3;
+        double y1 = y0 - j1 + G3;
+        double z1 = z0 - k1 + G3;
+        double x2 = x0 - i2 + 2 * G3;
+        double y2 = y0 - j2 + 2 * G3;
+        double z2 = z0 - k2 + 2 * G3;
+        double x3 = x0 - 1 + 3 * G3;
+        double y3 = y0 - 1 + 3 * G3;
+        double z3 = z0 - 1 + 3 * G3;
+
+        int ii = i & 255;
+        int jj = j & 255;
+        int kk = k & 255;
+        double n = corner(perm[ii + perm[jj + perm[kk]]], x0, y0, z0)
+                + corner(perm[ii + i1 + perm[jj + j1 + perm[kk + k1]]], x1, y1, z1)
+                + corner(perm[ii + i2 + perm[jj + j2 + perm[kk + k2]]], x2, y2, z2)
+                + corner(perm[ii + 1 + perm[jj + 1 + perm[kk + 1]]], x3, y3, z3);
+        return SCALE_3D * n;
+    }
+
+    // Contribution d'un sommet : gradient atténué par (r² - d²)^4, nulle au-delà du rayon
+    private static double corner(int hash, double x, double y) {
+        double t = 0.5 - x * x - y * y;
+        if (t <= 0) {
+            return 0;
+        }
+        int h = hash & 31;
+        t *= t;
+        return t * t * (NoiseTables.GRAD2_X[h] * x + NoiseTables.GRAD2_Y[h] * y);
+    }
+
+    private static double corner(int hash, double x, double y, double z) {
+        double t = 0.6 - x * x - y * y - z * z;
+        if (t <= 0) {
+            return 0;
+        }
+        int h = hash & 15;
+        t *= t;
+        return t * t * (NoiseTables.GRAD3_X[h] * x + NoiseTables.GRAD3_Y[h] * y + NoiseTables.GRAD3_Z[h] * z);
+    }
+}
@@ -0,0 +1,290 @@
+package skymc.model.noise;
+
+import java.util.SplittableRandom;
+
+/**
+ * Bruit cellulaire de Worley : des sites tirés au hasard dans un rectangle ou un pavé,
+ * et pour chaque point la distance au site le plus proche (F1), au deuxième (F2) ou
+ * leur différence, qui dessine les frontières entre cellules de Voronoï.
+ *
+ * Les sites sont rangés dans une grille d'environ un site par case. Une recherche part de
+ * la case du point et s'étend anneau par anneau, jusqu'à ce que les cases restantes
+ * soient toutes plus loin que le site cherché : le coût d'un échantillon ne dépend donc
+ * pas du nombre de sites. Les distances sont comparées au carré ; la racine n'est prise
+ * qu'une fois, sur le résultat.
+ */
+public final class WorleyNoise {
+    /**
+     * Distance renvoyée par {@link Result#get(Distance)}.
+     */
+    public enum Distance {
+        F1("F1 (Nearest site)"),
+        F2("F2 (Second nearest)"),
+        F2_MINUS_F1("F2 - F1 (Cell edges)");
+
+        private final String displayName;
+
+        Distance(String displayName) {
+            this.displayName = displayName;
+        }
+
+        @Override
+        public String toString() {
+            return displayName;
+        }
+    }
+
+    private final int siteCount;
+    private final int gridX;
+    private final int gridY;
+    private final int gridZ;
+    private final double cellX;
+    private final double cellY;
+    private final double cellZ;
+    private final double spacing;
+
+    // Sites triés par case : ceux de la case b vont de bucketStart[b] à bucketStart[b + 1] exclu
+    private final int[] bucketStart;
+    private final double[] siteX;
+    private final double[] siteY;
+    private final double[] siteZ;
+    private final int[] siteIndex;
+
+    /**
+     * Tire les sites, uniformément dans le carré [0, size)².
+     *
+     * @param random Générateur des sites
+     * @param siteCount Nombre de sites, au moins 1
+     * @param size Côté du carré
+     */
+    public WorleyNoise(SplittableRandom random, int siteCount, double size) {
+        this(random, siteCount, size, size, 0);
+    }
+
+    /**
+     * Tire les sites, uniformément dans le pavé [0, width) × [0, height) × [0, depth),
+     * ou dans le rectangle [0, width) × [0, height) si depth vaut 0.
+     *
+     * @param random Générateur des sites
+     * @param siteCount Nombre de sites, au moins 1
+     * @param width Largeur (x)
+     * @param height Hauteur (y)
+     * @param depth Profondeur (z), 0 pour des sites dans le plan
+     */
+    public WorleyNoise(SplittableRandom random, int siteCount, double width, double height, double depth) {
+        if (siteCount < 1) {
+            throw new IllegalArgumentException("Au moins un site est nécessaire : " + siteCount);
+        }
+        this.siteCount = siteCount;
+
+        // Côté d'une case pour qu'il y ait environ un site par case
+        double cell = depth > 0
+                ? Math.cbrt(width * height * depth / siteCount)
+                : Math.sqrt(width * height / siteCount);
+        this.gridX = Math.max(1, (int) Math.round(width / cell));
+        this.gridY = Math.max(1, (int) Math.round(height / cell));
+        this.gridZ = depth > 0 ? Math.max(1, (int) Math.round(depth / cell)) : 1;
+        this.cellX = width / gridX;
+        this.cellY = height / gridY;
+        this.cellZ = depth > 0 ? depth / gridZ : 1;
+        this.spacing = depth > 0 ? Math.cbrt(cellX * cellY * cellZ) : Math.sqrt(cellX * cellY);
+
+        double[] xs = new double[siteCount];
+        double[] ys = new double[siteCount];
+        double[] zs = new double[siteCount];
+        int[] buckets = new int[siteCount];
+        int bucketCount = gridX * gridY * gridZ;
+        this.bucketStart = new int[bucketCount + 1];
+        for (int i = 0; i < siteCount; i++) {
+            xs[i] = random.nextDouble() * width;
+            ys[i] = random.nextDouble() * height;
+            if (depth > 0) {
+                zs[i] = random.nextDouble() * depth;
+            }
+            buckets[i] = bucket(cell(xs[i], cellX, gridX), cell(ys[i], cellY, gridY), cell(zs[i], cellZ, gridZ));
+            bucketStart[buckets[i] + 1]++;
+        }
+
+        // Tri par dénombrement des sites selon leur case
+        for (int b = 0; b < bucketCount; b++) {
+            bucketStart[b + 1] += bucketStart[b];
+        }
+        int[] next = bucketStart.clone();
+        this.siteX = new double[siteCount];
+        this.siteY = new double[siteCount];
+        this.siteZ = new double[siteCount];
+        this.siteIndex = new int[siteCount];
+        for (int i = 0; i < siteCount; i++) {
+            int k = next[buckets[i]]++;
+            siteX[k] = xs[i];
+            siteY[k] = ys[i];
+            siteZ[k] = zs[i];
+            siteIndex[k] = i;
+        }
+    }
+
+    /**
+     * @return Nombre de sites
+     */
+    public int getSiteCount() {
+        return siteCount;
+    }
+
+    /**
+     * Distance moyenne entre sites voisins, pour ramener les distances à une échelle
+     * qui ne dépend pas du nombre de sites.
+     *
+     * @return Côté moyen d'une case de la grille
+     */
+    public double getSpacing() {
+        return spacing;
+    }
+
+    /**
+     * Cherche les deux sites les plus proches d'un point du plan.
+     *
+     * @param x Abscisse
+     * @param y Ordonnée
+     * @param result Résultat à remplir, réutilisable d'un appel à l'autre
+     */
+    public void query(double x, double y, Result result) {
+        query(x, y, 0, result);
+    }
+
+    /**
+     * Cherche les deux sites les plus proches d'un point de l'espace.
+     *
+     * @param x Abscisse
+     * @param y Ordonnée
+     * @param z Profondeur
+     * @param result Résultat à remplir, réutilisable d'un appel à l'autre
+     */
+    public void query(double x, double y, double z, Result result) {
+        double f1 = Double.POSITIVE_INFINITY;
+        double f2 = Double.POSITIVE_INFINITY;
+        int nearest = -1;
+
+        int cx = cell(x, cellX, gridX);
+        int cy = cell(y, cellY, gridY);
+        int cz = cell(z, cellZ, gridZ);
+        for (int r = 0; ; r++) {
+            int minX = cx - r;
+            int maxX = cx + r;
+            int minY = cy - r;
+            int maxY = cy + r;
+            int minZ = cz - r;
+            int maxZ = cz + r;
+
+            // Cases de l'anneau r : la surface du cube de côté 2r + 1 ; à l'intérieur d'une
+            // rangée qui ne touche pas cette surface, seules ses deux extrémités en font partie
+            for (int bz = Math.max(0, minZ); bz <= Math.min(gridZ - 1, maxZ); bz++) {
+                boolean faceZ = bz == minZ || bz == maxZ;
+                for (int by = Math.max(0, minY); by <= Math.min(gridY - 1, maxY); by++) {
+                    boolean fullRow = faceZ || by == minY || by == maxY;
+                    int step = fullRow || r == 0 ? 1 : 2 * r;
+                    for (int bx = fullRow ? Math.max(0, minX) : minX; bx <= Math.min(gridX - 1, maxX); bx += step) {
+                        if (bx < 0) {
+                            continue;
+                        }
+                        int bucket = bucket(bx, by, bz);
+                        for (int k = bucketStart[bucket]; k < bucketStart[bucket + 1]; k++) {
+                            double dx = siteX[k] - x;
+                            double dy = siteY[k] - y;
+                            double dz = siteZ[k] - z;
+                            double d = dx * dx + dy * dy + dz * dz;
+                            if (d < f1) {
+                                f2 = f1;
+                                f1 = d;
+                                nearest = siteIndex[k];
+                            } else if (d < f2) {
+                                f2 = d;
+                            }
+                        }
+                    }
+                }
+            }
+
+            // Distance du point aux cases pas encore visitées, face par face ; une face hors
+            // de la grille ne contient aucun site
+            double reach = Double.POSITIVE_INFINITY;
+            if (minX > 0) {
+                reach = Math.min(reach, x - minX * cellX);
+            }
+            if (maxX < gridX - 1) {
+                reach = Math.min(reach, (maxX + 1) * cellX - x);
+            }
+            if (minY > 0) {
+                reach = Math.min(reach, y - minY * cellY);
+            }
+            if (maxY < gridY - 1) {
+                reach = Math.min(reach, (maxY + 1) * cellY - y);
+            }
+            if (minZ > 0) {
+                reach = Math.min(reach, z - minZ * cellZ);
+            }
+            if (maxZ < gridZ - 1) {
+                reach = Math.min(reach, (maxZ + 1) * cellZ - z);
+            }
+            if (reach == Double.POSITIVE_INFINITY || f2 <= reach * reach) {
+                break;
+            }
+        }
+
+        result.f1 = Math.sqrt(f1);
+        result.f2 = Math.sqrt(f2);
+        result.site = nearest;
+    }
+
+    private int bucket(int bx, int by, int bz) {
+        return (bz * gridY + by) * gridX + bx;
+    }
+
+    private static int cell(double coordinate, double cellSize, int gridSize) {
+        return Math.max(0, Math.min(gridSize - 1, (int) (coordinate / cellSize)));
+    }
+
+    /**
+     * Résultat d'une recherche : les deux plus petites distances et l'indice du site le plus proche.
+     */
+    public static final class Result {
+        private double f1;
+        private double f2;
+        private int site;
+
+        /**
+         * @return Distance au site le plus proche
+         */
+        public double getF1() {
+            return f1;
+        }
+
+        /**
+         * @return Distance au deuxième site le plus proche, infinie s'il n'y a qu'un site
+         */
+        public double getF2() {
+            return f2;
+        }
+
+        /**
+         * @return Indice du site le plus proche, dans l'ordre du tirage
+         */
+        public int getSite() {
+            return site;
+        }
+
+        /**
+         * @param distance Distance voulue
+         * @return Sa valeur
+         */
+        public double get(Distance distance) {
+            switch (distance) {
+                case F2:
+                    return f2;
+                case F2_MINUS_F1:
+                    return f2 - f1;
+                default:
+                    return f1;
+            }
+        }
+    }
+}
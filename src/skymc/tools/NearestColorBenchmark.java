@@ -0,0 +1,113 @@
+package skymc.tools;
+
+import java.util.Random;
+
+import skymc.model.ColorKdTree;
+import skymc.model.NearestColorKernel;
+import skymc.model.NearestColorKernels;
+
+/**
+ * Mesure le coût d'une recherche du plus proche voisin selon la taille de la palette,
+ * pour le noyau scalaire, le noyau vectoriel et l'arbre k-d.
+ *
+ * Lancement (le noyau vectoriel n'est mesuré que si le module est ajouté) :
+ * <pre>
+ * java --add-modules jdk.incubator.vector -cp ... skymc.tools.NearestColorBenchmark
+ * </pre>
+ */
+public class NearestColorBenchmark {
+    private static final int[] PALETTE_SIZES = {16, 64, 256, 1024, 4096, 16384};
+    private static final int QUERIES = 200_000;
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) {
+        NearestColorKernel scalar = NearestColorKernels.scalar();
+        NearestColorKernel vector = NearestColorKernels.vector();
+        if (vector == null) {
+            System.out.println("jdk.incubator.vector absent : seul le noyau scalaire est mesuré.");
+        }
+
+        Random random = new Random(42);
+        float[] queries = new float[QUERIES * 3];
+        for (int i = 0; i < queries.length; i++) {
+            queries[i] = random.nextInt(256);
+        }
+
+        System.out.printf("%8s %14s %14s %14s%n", "palette", "scalar ns/op",
+                vector != null ? vector.getName() + " ns/op" : "vector ns/op", "k-d tree ns/op");
+
+        for (int size : PALETTE_SIZES) {
+            float[] reds = new float[size];
+            float[] greens = new float[size];
+            float[] blues = new float[size];
+            int[] ids = new int[size];
+            for (int i = 0; i < size; i++) {
+                reds[i] = random.nextInt(256);
+                greens[i] = random.nextInt(256);
+                blues[i] = random.nextInt(256);
+                ids[i] = i;
+            }
+            ColorKdTree tree = new ColorKdTree(reds, greens, blues, ids, size);
+
+            checkAgreement(scalar, vector, tree, reds, greens, blues, queries);
+
+            double scalarTime = measure(() -> runKernel(scalar, reds, greens, blues, queries));
+            double vectorTime = vector == null ? Double.NaN
+                    : measure(() -> runKernel(vector, reds, greens, blues, queries));
+            double treeTime = measure(() -> runTree(tree, queries));
+
+            System.out.printf("%8d %14.1f %14.1f %14.1f%n", size, scalarTime, vectorTime, treeTime);
+        }
+    }
+
+    private static long runKernel(NearestColorKernel kernel, float[] reds, float[] greens, float[] blues,
+                                  float[] queries) {
+        long sum = 0;
+        for (int q = 0; q < queries.length; q += 3) {
+            sum += kernel.nearest(reds, greens, blues, reds.length, queries[q], queries[q + 1], queries[q + 2]);
+        }
+        return sum;
+    }
+
+    private static long runTree(ColorKdTree tree, float[] queries) {
+        long sum = 0;
+        for (int q = 0; q < queries.length; q += 3) {
+            sum += tree.nearest(queries[q], queries[q + 1], queries[q + 2]);
+        }
+        return sum;
+    }
+
+    /**
+     * Exécute plusieurs tours et renvoie le meilleur temps moyen par requête, en nanosecondes.
+     */
+    private static double measure(Workload workload) {
+        long checksum = 0;
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            checksum += workload.run();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        if (checksum == Long.MIN_VALUE) {
+            System.out.println(checksum); // empêche l'élimination du calcul
+        }
+        return (double) best / QUERIES;
+    }
+
+    private static void checkAgreement(NearestColorKernel scalar, NearestColorKernel vector, ColorKdTree tree,
+                                       float[] reds, float[] greens, float[] blues, float[] queries) {
+        for (int q = 0; q < 3000; q += 3) {
+            int expected = scalar.nearest(reds, greens, blues, reds.length, queries[q], queries[q + 1], queries[q + 2]);
+            int fromTree = tree.nearest(queries[q], queries[q + 1], queries[q + 2]);
+            int fromVector = vector == null ? expected
+                    : vector.nearest(reds, greens, blues, reds.length, queries[q], queries[q + 1], queries[q + 2]);
+            if (fromTree != expected || fromVector != expected) {
+                throw new IllegalStateException("Résultats divergents pour la requête " + q / 3);
+            }
+        }
+    }
+
+    private interface Workload {
+        long run();
+    }
+}
@@ -0,0 +1,38 @@
+package skymc.tools;
+
+import java.io.File;
+import java.io.IOException;
+
+import skymc.model.TextureAtlas;
+import skymc.model.TextureManager;
+
+/**
+ * Génère le fichier de palette précalculé (noms, couleurs moyennes et atlas des textures)
+ * à partir des répertoires textures/top et textures/side. Au lancement suivant, le
+ * TextureManager projette ce fichier en mémoire au lieu de décoder les PNG.
+ *
+ * Lancement depuis le répertoire de l'application :
+ * <pre>
+ * java -cp ... skymc.tools.PaletteFileGenerator [fichier de sortie] [taille des tuiles]
+ * </pre>
+ */
+public class PaletteFileGenerator {
+    public static void main(String[] args) throws IOException {
+        File output = new File(args.length > 0 ? args[0] : TextureManager.PREBUILT_PALETTE_FILE);
+        int tileSize = args.length > 1 ? Integer.parseInt(args[1]) : TextureAtlas.DEFAULT_TILE_SIZE;
+
+        // L'ancien fichier ne doit pas servir de source : on repart des textures
+        File prebuilt = new File(TextureManager.PREBUILT_PALETTE_FILE);
+        if (prebuilt.getCanonicalFile().equals(output.getCanonicalFile()) && prebuilt.isFile() && !prebuilt.delete()) {
+            throw new IOException("Impossible de remplacer " + prebuilt.getPath());
+        }
+
+        long start = System.currentTimeMillis();
+        TextureManager textureManager = TextureManager.getInstance();
+        textureManager.writePaletteFile(output, tileSize);
+
+        System.out.println("Wrote " + textureManager.getPalette().size() + " blocks (" + tileSize + "px tiles) to "
+                + output.getPath() + ": " + output.length() / 1024 + " KB in "
+                + (System.currentTimeMillis() - start) + " ms");
+    }
+}
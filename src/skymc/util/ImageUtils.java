@@ -1,9 +1,15 @@
 package skymc.util;
 
 import javafx.scene.image.Image;
+import javafx.scene.image.PixelFormat;
 import javafx.scene.image.PixelReader;
 import javafx.scene.image.WritableImage;
 import javafx.scene.paint.Color;
+import skymc.model.Block;
+import skymc.model.TextureAtlas;
+
+import java.awt.image.BufferedImage;
+import java.nio.IntBuffer;
 
 public class ImageUtils {
     public static Image resizeImage(Image image, int width, int height) {
@@ -35,4 +41,23 @@ public class ImageUtils {
 
         return Color.color(red / pixelCount, green / pixelCount, blue / pixelCount);
     }
+
+    // Copie la tuile d'un bloc depuis l'atlas ; un bloc absent de l'atlas (textures rechargées) est lu directement
+    public static Image toFXImage(TextureAtlas atlas, Block block, boolean useTopTexture) {
+        int index = atlas.getPalette().indexOf(block);
+        if (index < 0) {
+            BufferedImage texture = block.getTexture(useTopTexture);
+            return texture == null ? null : FileUtils.toFXImage(texture);
+        }
+
+        IntBuffer tile = atlas.getTile(index, useTopTexture);
+        if (tile == null) {
+            return null;
+        }
+
+        int size = atlas.getTileSize();
+        WritableImage image = new WritableImage(size, size);
+        image.getPixelWriter().setPixels(0, 0, size, size, PixelFormat.getIntArgbInstance(), tile, size);
+        return image;
+    }
 }
\ No newline at end of file
@@ -12,7 +12,9 @@ import javafx.scene.shape.Rectangle;
 import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
 import skymc.model.Block;
+import skymc.model.ColorMetric;
 import skymc.model.ColorToBlockConverter;
+import skymc.model.PaletteFilter;
 import skymc.view.components.CircularColorPicker;
 import skymc.view.components.BlockResultItem;
 
@@ -33,6 +35,9 @@ public class ColorToBlockView {
     private Spinner<Integer> resultsAmountSpinner;
     private RadioButton useTopTextureRadio;
     private RadioButton useSideTextureRadio;
+    private ComboBox<ColorMetric> colorMetricComboBox;
+    private ComboBox<PaletteFilter> filterComboBox;
+    private Button customFilterButton;
     private Button findBlocksButton;
     private ScrollPane resultsScrollPane;
     private VBox resultsContainer;
@@ -145,6 +150,33 @@ public class ColorToBlockView {
         useSideTextureRadio.setToggleGroup(textureGroup);
         useSideTextureRadio.getStyleClass().add("texture-radio");
 
+        // Color distance metric
+        Label metricLabel = new Label("Color Matching");
+        metricLabel.setFont(Font.font("System", FontWeight.BOLD, 14));
+        metricLabel.setTextFill(Color.WHITE);
+
+        colorMetricComboBox = new ComboBox<>();
+        colorMetricComboBox.getItems().addAll(ColorMetric.values());
+        colorMetricComboBox.setValue(ColorMetric.RGB);
+        colorMetricComboBox.getStyleClass().add("combo-box");
+        colorMetricComboBox.setMaxWidth(Double.MAX_VALUE);
+
+        // Palette filter
+        Label filterLabel = new Label("Blocks");
+        filterLabel.setFont(Font.font("System", FontWeight.BOLD, 14));
+        filterLabel.setTextFill(Color.WHITE);
+
+        filterComboBox = new ComboBox<>();
+        filterComboBox.getItems().addAll(PaletteFilter.getPresets());
+        filterComboBox.setValue(PaletteFilter.ALL);
+        filterComboBox.getStyleClass().add("combo-box");
+        filterComboBox.setMaxWidth(Double.MAX_VALUE);
+
+        // User-picked block list
+        customFilterButton = new Button("Custom list...");
+        customFilterButton.getStyleClass().add("generate-button");
+        customFilterButton.setMaxWidth(Double.MAX_VALUE);
+
         // Find blocks button
         findBlocksButton = new Button("Find Blocks");
         findBlocksButton.getStyleClass().add("generate-button");
@@ -161,6 +193,11 @@ public class ColorToBlockView {
             optionsLabel,
             useTopTextureRadio,
             useSideTextureRadio,
+            metricLabel,
+            colorMetricComboBox,
+            filterLabel,
+            filterComboBox,
+            customFilterButton,
             findBlocksButton
         );
         
@@ -281,7 +318,7 @@ public class ColorToBlockView {
         hexCodeField.setText(hex);
     }
     
-    public void displayBlockResults(List<ColorToBlockConverter.BlockDistanceResult> results) {
+    public void displayBlockResults(List<ColorToBlockConverter.BlockDistanceResult> results, ColorMetric metric) {
         resultsContainer.getChildren().clear();
         
         Label resultsLabel = new Label("Blocks matching your color:");
@@ -299,8 +336,8 @@ public class ColorToBlockView {
             double distance = result.getDistance();
             
             // Calculate match percentage (closer to 0 distance means better match)
-            // Map from distance (0-442) to percentage (100-0)
-            double maxDistance = 442; // Max possible distance for RGB (sqrt(255^2 + 255^2 + 255^2))
+            // Map from distance (0 to the black/white distance of the metric, 442 for RGB) to percentage (100-0)
+            double maxDistance = metric.getReferenceDistance();
             double matchPercentage = Math.max(0, Math.min(100, 100 * (1 - distance / maxDistance)));
             
             // Pass the texture preference to the BlockResultItem
@@ -351,6 +388,26 @@ public class ColorToBlockView {
         return useSideTextureRadio;
     }
 
+    public ComboBox<ColorMetric> getColorMetricComboBox() {
+        return colorMetricComboBox;
+    }
+
+    public ColorMetric getSelectedColorMetric() {
+        return colorMetricComboBox.getValue();
+    }
+
+    public ComboBox<PaletteFilter> getFilterComboBox() {
+        return filterComboBox;
+    }
+
+    public PaletteFilter getSelectedFilter() {
+        return filterComboBox.getValue();
+    }
+
+    public Button getCustomFilterButton() {
+        return customFilterButton;
+    }
+
     public Button getFindBlocksButton() {
         return findBlocksButton;
     }
@@ -5,7 +5,15 @@ import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.*;
 import skymc.model.Block;
+import skymc.model.PaletteFilter;
 import skymc.model.PatternGenerator;
+import skymc.model.TextureAtlas;
+import skymc.model.noise.WorleyNoise;
+import skymc.util.ImageUtils;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 public class PatternView extends BorderPane {
     private ComboBox<PatternGenerator.PatternType> patternTypeComboBox;
@@ -14,8 +22,18 @@ public class PatternView extends BorderPane {
     private ComboBox<Block> endBlockComboBox;
     private Slider sizeSlider;
     private Slider noiseSlider;
+    private TextField seedField;
+    private Spinner<Integer> siteCountSpinner;
+    private ComboBox<WorleyNoise.Distance> distanceModeComboBox;
+    private ComboBox<PaletteFilter> filterComboBox;
+    private Button customFilterButton;
     private Button generateButton;
+    private Spinner<Integer> volumeWidthSpinner;
+    private Spinner<Integer> volumeHeightSpinner;
+    private Spinner<Integer> volumeDepthSpinner;
+    private Button exportSchematicButton;
     private GridPane patternGrid;
+    private FlowPane bandLegend;
     private RadioButton useTopTextureRadio;
     private RadioButton useSideTextureRadio;
     private ToggleGroup textureToggleGroup;
@@ -63,10 +81,44 @@ public class PatternView extends BorderPane {
         noiseSlider.setSnapToTicks(true);
         noiseSlider.getStyleClass().add("steps-spinner");
 
+        // Site Count Spinner (Voronoi and Cellular)
+        siteCountSpinner = new Spinner<>(1, 10000, PatternGenerator.DEFAULT_SITE_COUNT);
+        siteCountSpinner.setEditable(true);
+        siteCountSpinner.getStyleClass().add("steps-spinner");
+
+        // Distance Mode ComboBox (Cellular)
+        distanceModeComboBox = new ComboBox<>();
+        distanceModeComboBox.getItems().addAll(WorleyNoise.Distance.values());
+        distanceModeComboBox.setValue(WorleyNoise.Distance.F1);
+        distanceModeComboBox.getStyleClass().add("combo-box");
+
+        // Palette Filter ComboBox, plus a user-picked list
+        filterComboBox = new ComboBox<>();
+        filterComboBox.getItems().addAll(PaletteFilter.getPresets());
+        filterComboBox.setValue(PaletteFilter.ALL);
+        filterComboBox.getStyleClass().add("combo-box");
+
+        customFilterButton = new Button("Custom list...");
+        customFilterButton.getStyleClass().add("generate-button");
+
+        // Seed Field
+        seedField = new TextField();
+        seedField.setPromptText("Random");
+        seedField.getStyleClass().add("block-search-field");
+
         // Generate Button
         generateButton = new Button("Generate Pattern");
         generateButton.getStyleClass().add("generate-button");
 
+        // 3D Export: volume size (width x height x depth) and button
+        volumeWidthSpinner = createVolumeSpinner();
+        volumeHeightSpinner = createVolumeSpinner();
+        volumeDepthSpinner = createVolumeSpinner();
+        HBox volumeBox = new HBox(5, volumeWidthSpinner, volumeHeightSpinner, volumeDepthSpinner);
+
+        exportSchematicButton = new Button("Export 3D (.schem)");
+        exportSchematicButton.getStyleClass().add("generate-button");
+
         // Texture Toggle Group
         textureToggleGroup = new ToggleGroup();
         useTopTextureRadio = new RadioButton("Use Top Texture");
@@ -82,6 +134,9 @@ public class PatternView extends BorderPane {
         patternGrid = new GridPane();
         patternGrid.getStyleClass().add("image-result-pane");
 
+        // Band Legend: the gradient's blocks, in order
+        bandLegend = new FlowPane(4, 4);
+
         // Layout for controls
         VBox controls = new VBox(10);
         controls.getStyleClass().add("start-box");
@@ -105,6 +160,21 @@ public class PatternView extends BorderPane {
         Label noiseLabel = new Label("Noise Level:");
         noiseLabel.getStyleClass().add("section-label");
 
+        Label siteCountLabel = new Label("Sites (Voronoi/Cellular):");
+        siteCountLabel.getStyleClass().add("section-label");
+
+        Label distanceModeLabel = new Label("Cell Distance (Cellular):");
+        distanceModeLabel.getStyleClass().add("section-label");
+
+        Label filterLabel = new Label("Blocks:");
+        filterLabel.getStyleClass().add("section-label");
+
+        Label seedLabel = new Label("Seed (blank = random):");
+        seedLabel.getStyleClass().add("section-label");
+
+        Label volumeLabel = new Label("3D Size (W x H x D):");
+        volumeLabel.getStyleClass().add("section-label");
+
         Label textureOptionsLabel = new Label("Texture Options:");
         textureOptionsLabel.getStyleClass().add("section-label");
 
@@ -115,19 +185,39 @@ public class PatternView extends BorderPane {
             endBlockLabel, endBlockComboBox,
             sizeLabel, sizeSlider,
             noiseLabel, noiseSlider,
+            siteCountLabel, siteCountSpinner,
+            distanceModeLabel, distanceModeComboBox,
+            filterLabel, filterComboBox, customFilterButton,
+            seedLabel, seedField,
             textureOptionsLabel, useTopTextureRadio, useSideTextureRadio,
-            generateButton
+            generateButton,
+            volumeLabel, volumeBox,
+            exportSchematicButton
         );
 
         // Set controls on the left side
         this.setLeft(controls);
 
-        // Set pattern grid on the right side
+        // Set pattern grid on the right side, under the band legend
         ScrollPane scrollPane = new ScrollPane(patternGrid);
         scrollPane.setFitToWidth(true);
         scrollPane.setFitToHeight(true);
         scrollPane.getStyleClass().add("scroll-pane");
-        this.setCenter(scrollPane);
+
+        Label bandLegendLabel = new Label("Bands:");
+        bandLegendLabel.getStyleClass().add("section-label");
+
+        VBox result = new VBox(10, bandLegendLabel, bandLegend, scrollPane);
+        VBox.setVgrow(scrollPane, Priority.ALWAYS);
+        this.setCenter(result);
+    }
+
+    private static Spinner<Integer> createVolumeSpinner() {
+        Spinner<Integer> spinner = new Spinner<>(1, 1024, 64);
+        spinner.setEditable(true);
+        spinner.setPrefWidth(80);
+        spinner.getStyleClass().add("steps-spinner");
+        return spinner;
     }
 
     public ComboBox<PatternGenerator.PatternType> getPatternTypeComboBox() {
@@ -154,10 +244,50 @@ public class PatternView extends BorderPane {
         return noiseSlider;
     }
 
+    public Spinner<Integer> getSiteCountSpinner() {
+        return siteCountSpinner;
+    }
+
+    public ComboBox<WorleyNoise.Distance> getDistanceModeComboBox() {
+        return distanceModeComboBox;
+    }
+
+    public ComboBox<PaletteFilter> getFilterComboBox() {
+        return filterComboBox;
+    }
+
+    public PaletteFilter getSelectedFilter() {
+        return filterComboBox.getValue();
+    }
+
+    public Button getCustomFilterButton() {
+        return customFilterButton;
+    }
+
+    public TextField getSeedField() {
+        return seedField;
+    }
+
     public Button getGenerateButton() {
         return generateButton;
     }
 
+    public Spinner<Integer> getVolumeWidthSpinner() {
+        return volumeWidthSpinner;
+    }
+
+    public Spinner<Integer> getVolumeHeightSpinner() {
+        return volumeHeightSpinner;
+    }
+
+    public Spinner<Integer> getVolumeDepthSpinner() {
+        return volumeDepthSpinner;
+    }
+
+    public Button getExportSchematicButton() {
+        return exportSchematicButton;
+    }
+
     public GridPane getPatternGrid() {
         return patternGrid;
     }
@@ -166,15 +296,40 @@ public class PatternView extends BorderPane {
         return useTopTextureRadio.isSelected();
     }
 
-    public void displayPattern(Block[][] pattern) {
+    /**
+     * Shows the blocks a pattern is made of, from the start block to the end block.
+     * Hovering a band shows the block's name.
+     */
+    public void displayBands(List<Block> bands, TextureAtlas atlas) {
+        bandLegend.getChildren().clear();
+        boolean useTopTexture = isUseTopTextureSelected();
+
+        for (Block block : bands) {
+            Image image = ImageUtils.toFXImage(atlas, block, useTopTexture);
+            if (image != null) {
+                ImageView bandImageView = new ImageView(image);
+                bandImageView.setFitWidth(20);
+                bandImageView.setFitHeight(20);
+                bandImageView.getStyleClass().add("pixel-perfect");
+                Tooltip.install(bandImageView, new Tooltip(block.getName()));
+                bandLegend.getChildren().add(bandImageView);
+            }
+        }
+    }
+
+    public void displayPattern(Block[][] pattern, TextureAtlas atlas) {
         patternGrid.getChildren().clear();
+        boolean useTopTexture = isUseTopTextureSelected();
+
+        // Une seule image par bloc, partagée par toutes ses cases
+        Map<Block, Image> images = new HashMap<>();
         for (int y = 0; y < pattern.length; y++) {
             for (int x = 0; x < pattern[y].length; x++) {
                 Block block = pattern[y][x];
                 if (block != null) {
-                    String texturePath = isUseTopTextureSelected() ? block.getTopTexturePath() : block.getSideTexturePath();
-                    if (texturePath != null) {
-                        ImageView blockImageView = new ImageView(new Image("file:" + texturePath));
+                    Image image = images.computeIfAbsent(block, b -> ImageUtils.toFXImage(atlas, b, useTopTexture));
+                    if (image != null) {
+                        ImageView blockImageView = new ImageView(image);
                         blockImageView.setFitWidth(20);
                         blockImageView.setFitHeight(20);
                         blockImageView.getStyleClass().add("pixel-perfect");
@@ -9,6 +9,10 @@ import javafx.beans.value.ChangeListener;
 import javafx.beans.value.ObservableValue;
 import javafx.scene.Group;
 import javafx.scene.control.Alert.AlertType;
+import java.util.Map;
+import skymc.model.Block;
+import skymc.model.ColorMetric;
+import skymc.model.PaletteFilter;
 
 /**
  * Vue pour la conversion d'images en pixel art avec des blocs Minecraft.
@@ -25,6 +29,11 @@ public class PixelArtView {
     private ToggleGroup textureGroup;
     private RadioButton topTextureRadio;
     private RadioButton sideTextureRadio;
+    private CheckBox lookupTableCheckBox;
+    private ComboBox<ColorMetric> colorMetricComboBox;
+    private ComboBox<PaletteFilter> filterComboBox;
+    private Button customFilterButton;
+    private ListView<String> materialsList;
     private Button zoomInButton;
     private Button zoomOutButton;
     private Label zoomLabel;
@@ -110,6 +119,35 @@ public class PixelArtView {
         sideTextureRadio.setToggleGroup(textureGroup);
         sideTextureRadio.getStyleClass().add("texture-radio");
         
+        // Correspondance rapide via la table précalculée
+        lookupTableCheckBox = new CheckBox("Fast matching (lookup table)");
+        lookupTableCheckBox.getStyleClass().add("texture-radio");
+        
+        // Mesure de distance entre couleurs
+        Label metricLabel = new Label("Color matching:");
+        metricLabel.getStyleClass().add("section-label");
+        
+        colorMetricComboBox = new ComboBox<>();
+        colorMetricComboBox.getItems().addAll(ColorMetric.values());
+        colorMetricComboBox.setValue(ColorMetric.RGB);
+        colorMetricComboBox.getStyleClass().add("combo-box");
+        colorMetricComboBox.setMaxWidth(Double.MAX_VALUE);
+        
+        // Filtre des blocs utilisables
+        Label filterLabel = new Label("Blocks:");
+        filterLabel.getStyleClass().add("section-label");
+        
+        filterComboBox = new ComboBox<>();
+        filterComboBox.getItems().addAll(PaletteFilter.getPresets());
+        filterComboBox.setValue(PaletteFilter.ALL);
+        filterComboBox.getStyleClass().add("combo-box");
+        filterComboBox.setMaxWidth(Double.MAX_VALUE);
+        
+        // Liste de blocs choisie par l'utilisateur
+        customFilterButton = new Button("Custom list...");
+        customFilterButton.getStyleClass().add("generate-button");
+        customFilterButton.setMaxWidth(Double.MAX_VALUE);
+        
         // Hauteur en blocs
         HBox heightBox = new HBox(10);
         heightBox.setAlignment(Pos.CENTER_LEFT);
@@ -132,6 +170,16 @@ public class PixelArtView {
         saveButton.getStyleClass().add("generate-button");
         saveButton.setMaxWidth(Double.MAX_VALUE);
         
+        // Nombre de blocs de chaque sorte dans le dernier pixel art
+        Label materialsLabel = new Label("MATERIALS");
+        materialsLabel.getStyleClass().add("section-label");
+        materialsLabel.setPadding(new Insets(10, 0, 5, 0));
+        
+        materialsList = new ListView<>();
+        materialsList.setPrefHeight(200);
+        materialsList.setPlaceholder(new Label("Convert an image to list its blocks"));
+        materialsList.setStyle("-fx-background-color: rgba(0,0,0,0.4); -fx-control-inner-background: rgba(0,0,0,0.4);");
+        
         // Ajouter tous les éléments
         controlsBox.getChildren().addAll(
                 controlsLabel, 
@@ -139,9 +187,17 @@ public class PixelArtView {
                 optionsLabel, 
                 topTextureRadio, 
                 sideTextureRadio, 
+                lookupTableCheckBox, 
+                metricLabel, 
+                colorMetricComboBox, 
+                filterLabel, 
+                filterComboBox, 
+                customFilterButton, 
                 heightBox, 
                 convertButton, 
-                saveButton);
+                saveButton, 
+                materialsLabel, 
+                materialsList);
         
         return controlsBox;
     }
@@ -228,7 +284,7 @@ public class PixelArtView {
     }
     
     private void configureHeightFieldLimit() {
-        // Limitez la hauteur des blocs à 2048 maximum
+        // Limitez la hauteur des blocs à 4096 maximum (au-delà de 2048 pixels, aperçu réduit et export en flux)
         heightField.textProperty().addListener(new ChangeListener<String>() {
             @Override
             public void changed(ObservableValue<? extends String> observable, String oldValue, String newValue) {
@@ -238,9 +294,9 @@ public class PixelArtView {
                 } else if (!newValue.isEmpty()) {
                     try {
                         int value = Integer.parseInt(newValue);
-                        if (value > 512) {
-                            // Si la valeur dépasse 2048, la limiter à 2048
-                            heightField.setText("512");
+                        if (value > 4096) {
+                            // Si la valeur dépasse 4096, la limiter à 4096
+                            heightField.setText("4096");
                         }
                     } catch (NumberFormatException e) {
                         heightField.setText(oldValue);
@@ -269,6 +325,18 @@ public class PixelArtView {
                 .isPresent();
     }
     
+    /**
+     * Affiche le nombre de blocs de chaque sorte, du plus utilisé au moins utilisé.
+     *
+     * @param counts Nombre de blocs par bloc, dans l'ordre d'affichage
+     */
+    public void showBlockCounts(Map<Block, Integer> counts) {
+        materialsList.getItems().clear();
+        for (Map.Entry<Block, Integer> entry : counts.entrySet()) {
+            materialsList.getItems().add(entry.getKey().getName() + " x" + entry.getValue());
+        }
+    }
+    
     private void applyStyles() {
         // Application du style global
         root.setStyle("-fx-background-color: rgba(30, 30, 30, 0.1);");
@@ -310,6 +378,26 @@ public class PixelArtView {
         return topTextureRadio.isSelected();
     }
     
+    public boolean isLookupTableSelected() {
+        return lookupTableCheckBox.isSelected();
+    }
+    
+    public ColorMetric getSelectedColorMetric() {
+        return colorMetricComboBox.getValue();
+    }
+    
+    public PaletteFilter getSelectedFilter() {
+        return filterComboBox.getValue();
+    }
+    
+    public ComboBox<PaletteFilter> getFilterComboBox() {
+        return filterComboBox;
+    }
+    
+    public Button getCustomFilterButton() {
+        return customFilterButton;
+    }
+    
     public Button getZoomInButton() {
         return zoomInButton;
     }
@@ -0,0 +1,90 @@
+package skymc.view.components;
+
+import javafx.beans.property.BooleanProperty;
+import javafx.beans.property.SimpleBooleanProperty;
+import javafx.collections.FXCollections;
+import javafx.collections.transformation.FilteredList;
+import javafx.scene.control.ButtonType;
+import javafx.scene.control.Dialog;
+import javafx.scene.control.ListView;
+import javafx.scene.control.TextField;
+import javafx.scene.control.cell.CheckBoxListCell;
+import javafx.scene.layout.VBox;
+import skymc.model.Block;
+import skymc.model.PaletteFilter;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Dialog in which the user ticks the blocks of a custom palette filter.
+ * The result is the names of the ticked blocks, in palette order.
+ */
+public class BlockListDialog extends Dialog<List<String>> {
+    // Ticks are kept per block name, so that searching does not lose them
+    private final Map<String, BooleanProperty> checked = new LinkedHashMap<>();
+
+    /**
+     * Creates the dialog.
+     *
+     * @param blocks The blocks the user can pick from
+     */
+    public BlockListDialog(List<Block> blocks) {
+        setTitle("Custom block list");
+        setHeaderText("Tick the blocks to use");
+
+        for (Block block : blocks) {
+            checked.putIfAbsent(block.getName(), new SimpleBooleanProperty(false));
+        }
+
+        FilteredList<String> names = new FilteredList<>(FXCollections.observableArrayList(checked.keySet()));
+
+        TextField searchField = new TextField();
+        searchField.setPromptText("Search a block");
+        searchField.getStyleClass().add("block-search-field");
+        searchField.textProperty().addListener((observable, oldValue, newValue) -> {
+            String query = newValue.trim().toLowerCase();
+            names.setPredicate(name -> query.isEmpty() || name.toLowerCase().contains(query));
+        });
+
+        ListView<String> listView = new ListView<>(names);
+        listView.setCellFactory(CheckBoxListCell.forListView(checked::get));
+        listView.setPrefSize(320, 400);
+
+        getDialogPane().setContent(new VBox(10, searchField, listView));
+        getDialogPane().getButtonTypes().addAll(ButtonType.OK, ButtonType.CANCEL);
+
+        // An empty list would leave no block to match, so it cannot be confirmed
+        getDialogPane().lookupButton(ButtonType.OK).setDisable(true);
+        for (BooleanProperty property : checked.values()) {
+            property.addListener((observable, oldValue, newValue) ->
+                    getDialogPane().lookupButton(ButtonType.OK).setDisable(getCheckedNames().isEmpty()));
+        }
+
+        setResultConverter(buttonType -> buttonType == ButtonType.OK ? getCheckedNames() : null);
+    }
+
+    /**
+     * Shows the dialog and turns the ticked blocks into a palette filter.
+     *
+     * @param blocks The blocks the user can pick from
+     * @return The filter, or empty if the dialog was cancelled
+     */
+    public static Optional<PaletteFilter> pickFilter(List<Block> blocks) {
+        return new BlockListDialog(blocks).showAndWait()
+                .map(names -> PaletteFilter.ofBlockNames("Custom (" + names.size() + " blocks)", names));
+    }
+
+    private List<String> getCheckedNames() {
+        List<String> result = new ArrayList<>();
+        for (Map.Entry<String, BooleanProperty> entry : checked.entrySet()) {
+            if (entry.getValue().get()) {
+                result.add(entry.getKey());
+            }
+        }
+        return result;
+    }
+}